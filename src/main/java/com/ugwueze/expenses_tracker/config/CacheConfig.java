@@ -0,0 +1,44 @@
+package com.ugwueze.expenses_tracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Ids of users known to exist. */
+    public static final String USER_IDS = "userIds";
+
+    /** Per-user {@link com.ugwueze.expenses_tracker.util.BudgetIntervalIndex}, keyed by user id. */
+    public static final String BUDGET_INDEXES = "budgetIndexes";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.user-ids.maximum-size:100000}") long userIdsMaximumSize,
+                                     @Value("${cache.user-ids.ttl:PT10M}") Duration userIdsTtl,
+                                     @Value("${cache.budget-indexes.maximum-size:10000}") long budgetIndexesMaximumSize,
+                                     @Value("${cache.budget-indexes.ttl:PT10M}") Duration budgetIndexesTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // the TTL bounds how long another instance's delete can go unnoticed here
+        cacheManager.registerCustomCache(USER_IDS, Caffeine.newBuilder()
+                .maximumSize(userIdsMaximumSize)
+                .expireAfterWrite(userIdsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BUDGET_INDEXES, Caffeine.newBuilder()
+                .maximumSize(budgetIndexesMaximumSize)
+                .expireAfterWrite(budgetIndexesTtl)
+                .recordStats()
+                .build());
+        // puts and evictions inside a transaction only apply once it commits
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
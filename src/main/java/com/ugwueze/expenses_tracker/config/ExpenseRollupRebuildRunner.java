@@ -0,0 +1,66 @@
+package com.ugwueze.expenses_tracker.config;
+
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code java -jar expenses-tracker.jar --rebuild-expense-rollups} recomputes the daily rollup from the
+ * expenses table and exits.
+ * <p>
+ * Archived segments and detached partitions stay counted in the rollups and in budget spend but are not in
+ * the expenses table, so a rebuild would silently drop them; it refuses to run while either exists.
+ */
+@Component
+public class ExpenseRollupRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-expense-rollups";
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseRollupRebuildRunner.class);
+
+    private final ExpenseRollupService rollupService;
+    private final ExpenseArchiveService archiveService;
+    private final ExpensePartitionService partitionService;
+    private final ConfigurableApplicationContext context;
+
+    public ExpenseRollupRebuildRunner(ExpenseRollupService rollupService, ExpenseArchiveService archiveService,
+                                      ExpensePartitionService partitionService,
+                                      ConfigurableApplicationContext context) {
+        this.rollupService = rollupService;
+        this.archiveService = archiveService;
+        this.partitionService = partitionService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        checkNoArchivedHistory();
+        long start = System.nanoTime();
+        long rows = rollupService.rebuild();
+        log.info("Rebuilt expense_daily_rollups with {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    void checkNoArchivedHistory() {
+        long archived = archiveService.archivedCount();
+        List<String> detached = partitionService.listDetachedPartitions();
+        if (archived > 0 || !detached.isEmpty()) {
+            // failing the runner fails startup, so the process exits non-zero without touching the rollups
+            throw new IllegalStateException("Refusing to rebuild expense rollups: " + archived
+                    + " archived expenses and detached partitions " + detached
+                    + " are counted in the rollups but not in the expenses table");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ugwueze.expenses_tracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExportJobConfig {
+
+    public static final String EXPORT_JOB_EXECUTOR = "exportJobExecutor";
+
+    @Bean(name = EXPORT_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor exportJobExecutor(@Value("${export.jobs.pool-size:2}") int poolSize,
+                                                    @Value("${export.jobs.queue-capacity:20}") int queueCapacity) {
+        // fixed size and bounded queue: once full, submissions are rejected instead of piling up
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-job-");
+        return executor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.dto.ExpensePartitionDto;
+import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Reports across all users. Kept under /api/v1/admin so access can be restricted by path.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/expenses")
+public class AdminExpenseController {
+
+    private final ExpenseService expenseService;
+    private final ExpensePartitionService expensePartitionService;
+
+    public AdminExpenseController(ExpenseService expenseService,
+                                  ExpensePartitionService expensePartitionService) {
+        this.expenseService = expenseService;
+        this.expensePartitionService = expensePartitionService;
+    }
+
+    @GetMapping("/monthly")
+    public ResponseEntity<List<MonthlySummaryDto>> getMonthlySummary(
+            @RequestParam(name = "year") Integer year,
+            @RequestParam(name = "month") Integer month
+    ) {
+        if (year == null || month == null || month < 1 || month > 12) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<MonthlySummaryDto> summary = expenseService.getMonthlySummary(year, month);
+        return ResponseEntity.ok(summary);
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<ApiResponse<List<ExpensePartitionDto>>> listPartitions() {
+        return ResponseEntity.ok(ApiResponse.success(expensePartitionService.listPartitions()));
+    }
+}
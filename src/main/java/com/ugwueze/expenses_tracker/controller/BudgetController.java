@@ -1,12 +1,21 @@
 package com.ugwueze.expenses_tracker.controller;
 
 import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.dto.BudgetAlertDto;
 import com.ugwueze.expenses_tracker.dto.BudgetDto;
+import com.ugwueze.expenses_tracker.dto.BudgetUtilizationDto;
+import com.ugwueze.expenses_tracker.service.BudgetAlertService;
 import com.ugwueze.expenses_tracker.service.BudgetService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,9 +23,14 @@ import java.util.List;
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final UserDataVersionService dataVersionService;
+    private final BudgetAlertService budgetAlertService;
 
-    public BudgetController(BudgetService budgetService) {
+    public BudgetController(BudgetService budgetService, UserDataVersionService dataVersionService,
+                            BudgetAlertService budgetAlertService) {
         this.budgetService = budgetService;
+        this.dataVersionService = dataVersionService;
+        this.budgetAlertService = budgetAlertService;
     }
 
     @PostMapping
@@ -41,29 +55,68 @@ public class BudgetController {
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<BudgetDto>> getBudgetById(
-            @PathVariable Long id, @RequestParam Long userId) {
+            @PathVariable Long id, @RequestParam Long userId, WebRequest request) {
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request);
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
         BudgetDto dto = budgetService.getBudgetById(id, userId);
-        return ResponseEntity.ok(ApiResponse.success(dto));
+        return conditional.ok(ApiResponse.success(dto));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<BudgetDto>>> getUserBudgets(@PathVariable Long userId) {
+    public ResponseEntity<ApiResponse<List<BudgetDto>>> getUserBudgets(@PathVariable Long userId, WebRequest request) {
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request);
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
         List<BudgetDto> budgets = budgetService.getUserBudgets(userId);
-        return ResponseEntity.ok(ApiResponse.success(budgets));
+        return conditional.ok(ApiResponse.success(budgets));
     }
 
+    // "current" moves at midnight without any write, so the date is part of the validator
     @GetMapping("/user/{userId}/current")
     public ResponseEntity<ApiResponse<BudgetDto>> getCurrentBudgetForCategory(
-            @PathVariable Long userId, @RequestParam String category) {
+            @PathVariable Long userId, @RequestParam String category, WebRequest request) {
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request, LocalDate.now());
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
         BudgetDto dto = budgetService.getCurrentBudgetForCategory(userId, category);
-        return ResponseEntity.ok(ApiResponse.success(dto));
+        return conditional.ok(ApiResponse.success(dto));
     }
 
     @GetMapping("/user/{userId}/category/{category}/exceeded")
     public ResponseEntity<ApiResponse<Boolean>> isBudgetExceeded(
-            @PathVariable Long userId, @PathVariable String category) {
+            @PathVariable Long userId, @PathVariable String category, WebRequest request) {
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request, LocalDate.now());
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
         boolean exceeded = budgetService.isBudgetExceeded(userId, category);
-        return ResponseEntity.ok(ApiResponse.success(exceeded));
+        return conditional.ok(ApiResponse.success(exceeded));
+    }
+
+    @GetMapping("/user/{userId}/utilization")
+    public ResponseEntity<ApiResponse<List<BudgetUtilizationDto>>> getBudgetUtilization(
+            @PathVariable Long userId, WebRequest request) {
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request, LocalDate.now());
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
+        List<BudgetUtilizationDto> utilization = budgetService.getBudgetUtilization(userId);
+        return conditional.ok(ApiResponse.success(utilization));
     }
 
+    @GetMapping("/user/{userId}/alerts")
+    public ResponseEntity<ApiResponse<List<BudgetAlertDto>>> getBudgetAlerts(@PathVariable Long userId) {
+        List<BudgetAlertDto> alerts = budgetAlertService.getUserAlerts(userId);
+        return ResponseEntity.ok(ApiResponse.success(alerts));
+    }
+
+    @GetMapping(path = "/user/{userId}/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBudgetAlerts(@PathVariable Long userId,
+                                         @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return budgetAlertService.subscribe(userId, lastEventId);
+    }
 }
@@ -0,0 +1,73 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Conditional GET for reads of one user's data, validated by the user's data version. Looking the version up is
+ * a single primary-key read, so a matching If-None-Match is answered with 304 before the read's own queries or
+ * any serialisation run.
+ */
+final class ConditionalGet {
+
+    private final String eTag;
+    private final LocalDateTime version;
+    private final boolean notModified;
+
+    private ConditionalGet(String eTag, LocalDateTime version, boolean notModified) {
+        this.eTag = eTag;
+        this.version = version;
+        this.notModified = notModified;
+    }
+
+    /**
+     * {@code variants} are whatever else the response depends on, such as today's date.
+     */
+    static ConditionalGet check(UserDataVersionService dataVersionService, Long userId, WebRequest request,
+                                Object... variants) {
+        Optional<LocalDateTime> version = dataVersionService.getDataVersion(userId);
+        if (version.isEmpty()) {
+            // unknown user, the read itself reports it
+            return new ConditionalGet(null, null, false);
+        }
+        String eTag = eTag(version.get(), variants);
+        return new ConditionalGet(eTag, version.get(), request.checkNotModified(eTag));
+    }
+
+    static String eTag(LocalDateTime version, Object... variants) {
+        long micros = version.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + version.getNano() / 1_000;
+        StringBuilder eTag = new StringBuilder("\"").append(Long.toHexString(micros));
+        for (Object variant : variants) {
+            eTag.append('-').append(variant);
+        }
+        return eTag.append('"').toString();
+    }
+
+    boolean isNotModified() {
+        return notModified;
+    }
+
+    <T> ResponseEntity<T> notModified() {
+        // checkNotModified has already written the ETag header
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
+    <T> ResponseEntity<T> ok(T body) {
+        if (eTag == null) {
+            return ResponseEntity.ok(body);
+        }
+        // Last-Modified is informational only: at one-second resolution it cannot tell apart two writes within
+        // the same second, so If-Modified-Since alone never produces a 304
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(version.atZone(ZoneId.systemDefault()))
+                .body(body);
+    }
+}
@@ -1,10 +1,14 @@
 package com.ugwueze.expenses_tracker.controller;
 
 import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.dto.CursorPageDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchRequestDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchResultDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseSummaryDto;
 import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
 import com.ugwueze.expenses_tracker.service.ExpenseService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +20,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -27,9 +32,11 @@ import java.util.Map;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final UserDataVersionService dataVersionService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, UserDataVersionService dataVersionService) {
         this.expenseService = expenseService;
+        this.dataVersionService = dataVersionService;
     }
 
     @PostMapping
@@ -38,6 +45,17 @@ public class ExpenseController {
         return new ResponseEntity<>(ApiResponse.success("Expense created successfully", createdExpense), HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<ExpenseBatchResultDto>> applyBatch(@Valid @RequestBody ExpenseBatchRequestDto request) {
+        ExpenseBatchResultDto result = expenseService.applyBatch(request);
+        if (!result.isApplied()) {
+            ApiResponse<ExpenseBatchResultDto> body = ApiResponse.error("Batch rejected, no changes were applied");
+            body.setData(result);
+            return ResponseEntity.unprocessableEntity().body(body);
+        }
+        return ResponseEntity.ok(ApiResponse.success("Batch applied successfully", result));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ExpenseDto>> updateExpense(
             @PathVariable Long id, @Valid @RequestBody ExpenseDto expenseDto) {
@@ -65,13 +83,31 @@ public class ExpenseController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "date") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            WebRequest request) {
+
+        ConditionalGet conditional = ConditionalGet.check(dataVersionService, userId, request);
+        if (conditional.isNotModified()) {
+            return conditional.notModified();
+        }
 
         Sort sort = direction.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
         Page<ExpenseDto> expenses = expenseService.getUserExpenses(userId, pageable);
+        return conditional.ok(ApiResponse.success(expenses));
+    }
+
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDto<ExpenseDto>>> getUserExpensesByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "desc") String direction) {
+
+        CursorPageDto<ExpenseDto> expenses = expenseService.getUserExpensesByCursor(
+                userId, cursor, size, !direction.equalsIgnoreCase("asc"));
         return ResponseEntity.ok(ApiResponse.success(expenses));
     }
 
@@ -114,6 +150,23 @@ public class ExpenseController {
         return ResponseEntity.ok(ApiResponse.success(summary));
     }
 
+    @GetMapping("/user/{userId}/monthly")
+    public ResponseEntity<ApiResponse<Map<Integer, BigDecimal>>> getMonthlyExpensesSummary(
+            @PathVariable Long userId, @RequestParam int year) {
+        Map<Integer, BigDecimal> monthly = expenseService.getMonthlyExpensesSummary(userId, year);
+        return ResponseEntity.ok(ApiResponse.success(monthly));
+    }
+
+    @GetMapping("/user/{userId}/monthly-categories")
+    public ResponseEntity<ApiResponse<List<MonthlySummaryDto>>> getUserMonthlySummary(
+            @PathVariable Long userId, @RequestParam int year, @RequestParam int month) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("month out of range: " + month);
+        }
+        List<MonthlySummaryDto> summary = expenseService.getUserMonthlySummary(userId, year, month);
+        return ResponseEntity.ok(ApiResponse.success(summary));
+    }
+
     @GetMapping("/user/{userId}/category/{category}")
     public ResponseEntity<ApiResponse<List<ExpenseDto>>> getExpensesByCategory(
             @PathVariable Long userId, @PathVariable String category) {
@@ -121,6 +174,9 @@ public class ExpenseController {
         return ResponseEntity.ok(ApiResponse.success(expenses));
     }
 
+    /**
+     * All-users summary kept at its original path for existing clients; same as the admin endpoint.
+     */
     @GetMapping("/monthly")
     public ResponseEntity<List<MonthlySummaryDto>> getMonthlySummary(
             @RequestParam(name = "year") Integer year,
@@ -132,4 +188,4 @@ public class ExpenseController {
         List<MonthlySummaryDto> summary = expenseService.getMonthlySummary(year, month);
         return ResponseEntity.ok(summary);
     }
-}
\ No newline at end of file
+}
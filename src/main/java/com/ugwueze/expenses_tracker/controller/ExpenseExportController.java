@@ -1,15 +1,19 @@
 package com.ugwueze.expenses_tracker.controller;
 
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
 import com.ugwueze.expenses_tracker.service.ExpenseExportService;
+import com.ugwueze.expenses_tracker.util.CompressionUtils;
 import com.ugwueze.expenses_tracker.util.ValidLocalDate;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
 import java.time.LocalDate;
 
@@ -25,13 +29,15 @@ public class ExpenseExportController {
         this.expenseExportService = expenseExportService;
     }
 
-    @GetMapping(value = "/export", produces = "text/csv")
+    @GetMapping(value = "/export", produces = {"text/csv", "application/gzip", "application/zstd", "application/vnd.apache.arrow.stream"})
     public void exportExpensesAsCsv(
             @PathVariable("userId") Long userId,
             @RequestParam(value = "startDate", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @ValidLocalDate LocalDate startDate,
             @RequestParam(value = "endDate", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @ValidLocalDate LocalDate endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             HttpServletResponse response
     ) throws IOException {
         try {
@@ -40,44 +46,57 @@ public class ExpenseExportController {
                 throw new IllegalArgumentException("Start date cannot be after end date");
             }
 
-            String filename = "expenses_user_" + userId + ".csv";
-            response.setContentType("text/csv");
+            ExportFormat exportFormat;
+            String filename = "expenses_user_" + userId;
+            if (format != null) {
+                exportFormat = ExportFormat.fromParameter(format);
+                response.setContentType(exportFormat.getContentType());
+                filename += exportFormat.getFileExtension();
+            } else {
+                exportFormat = CompressionUtils.negotiate(acceptEncoding);
+                response.setContentType(ExportFormat.CSV.getContentType());
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (exportFormat.getContentEncoding() != null) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, exportFormat.getContentEncoding());
+                }
+                filename += ExportFormat.CSV.getFileExtension();
+            }
             response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
-            expenseExportService.streamExpensesAsCsv(userId, startDate, endDate, response.getWriter());
+
+            if (exportFormat == ExportFormat.CSV) {
+                expenseExportService.streamExpensesAsCsv(userId, startDate, endDate, response.getWriter());
+            } else if (exportFormat == ExportFormat.ARROW) {
+                expenseExportService.streamExpensesAsArrow(userId, startDate, endDate, response.getOutputStream());
+            } else {
+                Writer writer = CompressionUtils.newCsvWriter(response.getOutputStream(), exportFormat);
+                expenseExportService.streamExpensesAsCsv(userId, startDate, endDate, writer);
+                writer.close();
+            }
 
         } catch (ResourceNotFoundException rnfe) {
-            response.setContentType("application/json");
-            response.setStatus(HttpStatus.NOT_FOUND.value());
-            String errorJson = String.format(
-                    "{\"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"timestamp\": \"%s\"}",
-                    HttpStatus.NOT_FOUND.value(),
-                    "Not Found",
-                    rnfe.getMessage(),
-                    Instant.now()
-            );
-            response.getWriter().write(errorJson);
+            writeError(response, HttpStatus.NOT_FOUND, rnfe);
         } catch (IllegalArgumentException iae) {
-            response.setContentType("application/json");
-            response.setStatus(HttpStatus.BAD_REQUEST.value());
-            String errorJson = String.format(
-                    "{\"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"timestamp\": \"%s\"}",
-                    HttpStatus.BAD_REQUEST.value(),
-                    "Bad Request",
-                    iae.getMessage(),
-                    Instant.now()
-            );
-            response.getWriter().write(errorJson);
+            writeError(response, HttpStatus.BAD_REQUEST, iae);
         } catch (Exception e) {
-            response.setContentType("application/json");
-            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
-            String errorJson = String.format(
-                    "{\"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"timestamp\": \"%s\"}",
-                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                    "Internal Server Error",
-                    e.getMessage(),
-                    Instant.now()
-            );
-            response.getWriter().write(errorJson);
+            writeError(response, HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, Exception ex) throws IOException {
+        if (response.isCommitted()) {
+            // part of the file is already on the wire; abort rather than append JSON to it
+            throw ex instanceof IOException io ? io : new IOException(ex.getMessage(), ex);
         }
+        response.reset();
+        response.setContentType("application/json");
+        response.setStatus(status.value());
+        String errorJson = String.format(
+                "{\"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"timestamp\": \"%s\"}",
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                Instant.now()
+        );
+        response.getWriter().write(errorJson);
     }
 }
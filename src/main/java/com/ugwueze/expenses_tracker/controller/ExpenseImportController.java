@@ -0,0 +1,37 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.dto.ExpenseImportResultDto;
+import com.ugwueze.expenses_tracker.service.ExpenseImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/users/{userId}/expenses")
+public class ExpenseImportController {
+
+    private final ExpenseImportService expenseImportService;
+
+    @Autowired
+    public ExpenseImportController(ExpenseImportService expenseImportService) {
+        this.expenseImportService = expenseImportService;
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ApiResponse<ExpenseImportResultDto>> importExpensesFromCsv(
+            @PathVariable("userId") Long userId,
+            HttpServletRequest request) throws IOException {
+        // read the body as a stream rather than binding it, so large files are never held in memory
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            ExpenseImportResultDto result = expenseImportService.importExpensesFromCsv(userId, reader);
+            return ResponseEntity.ok(ApiResponse.success("Import completed", result));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Operations that take expenses out of the live table. The app has no authentication layer yet, so these are only
+ * mapped where {@code expenses.admin.enabled=true}; enable it only on instances whose admin path is not reachable
+ * by clients. The scheduled jobs behind them run either way.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/expenses")
+@ConditionalOnProperty(name = "expenses.admin.enabled", havingValue = "true")
+public class ExpenseMaintenanceController {
+
+    private final ExpensePartitionService expensePartitionService;
+    private final ExpenseArchiveService expenseArchiveService;
+
+    public ExpenseMaintenanceController(ExpensePartitionService expensePartitionService,
+                                        ExpenseArchiveService expenseArchiveService) {
+        this.expensePartitionService = expensePartitionService;
+        this.expenseArchiveService = expenseArchiveService;
+    }
+
+    @PostMapping("/partitions/detach")
+    public ResponseEntity<ApiResponse<List<String>>> detachPartitions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        List<String> archived = expensePartitionService.detachPartitionsBefore(before);
+        return ResponseEntity.ok(ApiResponse.success("Detached " + archived.size() + " partitions", archived));
+    }
+
+    /**
+     * Archived expenses remain in totals, summaries, the date-range listing and the export, but no longer appear
+     * in the paged, cursor or by-category listings, and can no longer be read, updated or deleted by id.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<ApiResponse<Long>> archiveExpenses(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        long archived = expenseArchiveService.archiveBefore(before);
+        return ResponseEntity.ok(ApiResponse.success("Archived " + archived + " expenses", archived));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ApiResponse;
+import com.ugwueze.expenses_tracker.dto.ExportJobDto;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.service.ExportJobService;
+import com.ugwueze.expenses_tracker.util.ValidLocalDate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/users/{userId}/expenses/export-jobs")
+public class ExportJobController {
+
+    // Tomcat request attributes for handing the file to the connector's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ExportJobService exportJobService;
+
+    @Autowired
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ExportJobDto>> createExportJob(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @ValidLocalDate LocalDate startDate,
+            @RequestParam(value = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @ValidLocalDate LocalDate endDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportJobDto job = exportJobService.submitJob(userId, startDate, endDate, ExportFormat.fromParameter(format));
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(ApiResponse.success("Export job accepted", job));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ExportJobDto>> getExportJob(@PathVariable("userId") Long userId,
+                                                                  @PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(ApiResponse.success(exportJobService.getJob(userId, jobId)));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public void downloadExportJob(@PathVariable("userId") Long userId,
+                                  @PathVariable("jobId") String jobId,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ExportJobDto job = exportJobService.getJob(userId, jobId);
+        Path file = exportJobService.getResultFile(userId, jobId);
+        long size = Files.size(file);
+
+        response.setContentType(job.getFormat().getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"expenses_user_" + userId + job.getFormat().getFileExtension() + "\"");
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class BudgetAlertDto {
+
+    private Long id;
+    private Long budgetId;
+    private Long userId;
+    private String category;
+    private int threshold;
+    private BigDecimal budgetAmount;
+    private BigDecimal spentAmount;
+    private LocalDateTime createdAt;
+
+    public BudgetAlertDto() {}
+
+    private BudgetAlertDto(Builder b) {
+        this.id = b.id;
+        this.budgetId = b.budgetId;
+        this.userId = b.userId;
+        this.category = b.category;
+        this.threshold = b.threshold;
+        this.budgetAmount = b.budgetAmount;
+        this.spentAmount = b.spentAmount;
+        this.createdAt = b.createdAt;
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    public Long getId() { return id; }
+    public Long getBudgetId() { return budgetId; }
+    public Long getUserId() { return userId; }
+    public String getCategory() { return category; }
+    public int getThreshold() { return threshold; }
+    public BigDecimal getBudgetAmount() { return budgetAmount; }
+    public BigDecimal getSpentAmount() { return spentAmount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public static class Builder {
+        private Long id;
+        private Long budgetId;
+        private Long userId;
+        private String category;
+        private int threshold;
+        private BigDecimal budgetAmount;
+        private BigDecimal spentAmount;
+        private LocalDateTime createdAt;
+
+        public Builder id(Long id) { this.id = id; return this; }
+        public Builder budgetId(Long budgetId) { this.budgetId = budgetId; return this; }
+        public Builder userId(Long userId) { this.userId = userId; return this; }
+        public Builder category(String category) { this.category = category; return this; }
+        public Builder threshold(int threshold) { this.threshold = threshold; return this; }
+        public Builder budgetAmount(BigDecimal amount) { this.budgetAmount = amount; return this; }
+        public Builder spentAmount(BigDecimal spent) { this.spentAmount = spent; return this; }
+        public Builder createdAt(LocalDateTime createdAt) { this.createdAt = createdAt; return this; }
+        public BudgetAlertDto build() { return new BudgetAlertDto(this); }
+    }
+}
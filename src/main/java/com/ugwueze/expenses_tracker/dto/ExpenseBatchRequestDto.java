@@ -0,0 +1,58 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import com.ugwueze.expenses_tracker.enums.BatchOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseBatchRequestDto {
+
+    public static final int MAX_OPERATIONS = 500;
+
+    @NotNull(message = "User id is required")
+    private Long userId;
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = MAX_OPERATIONS, message = "A batch may contain at most " + MAX_OPERATIONS + " operations")
+    private List<@Valid @NotNull Operation> operations = new ArrayList<>();
+
+    public ExpenseBatchRequestDto() {}
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public List<Operation> getOperations() { return operations; }
+    public void setOperations(List<Operation> operations) { this.operations = operations; }
+
+    public static class Operation {
+
+        @NotNull(message = "Operation type is required")
+        private BatchOperationType op;
+
+        private Long id;
+
+        @Valid
+        private ExpenseDto expense;
+
+        public Operation() {}
+
+        public Operation(BatchOperationType op, Long id, ExpenseDto expense) {
+            this.op = op;
+            this.id = id;
+            this.expense = expense;
+        }
+
+        public BatchOperationType getOp() { return op; }
+        public void setOp(BatchOperationType op) { this.op = op; }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public ExpenseDto getExpense() { return expense; }
+        public void setExpense(ExpenseDto expense) { this.expense = expense; }
+    }
+}
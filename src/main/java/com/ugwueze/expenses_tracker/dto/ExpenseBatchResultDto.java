@@ -0,0 +1,68 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import com.ugwueze.expenses_tracker.enums.BatchOperationType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseBatchResultDto {
+
+    private boolean applied;
+    private int created;
+    private int updated;
+    private int deleted;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public ExpenseBatchResultDto() {}
+
+    public boolean isApplied() { return applied; }
+    public void setApplied(boolean applied) { this.applied = applied; }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+
+    public int getDeleted() { return deleted; }
+    public void setDeleted(int deleted) { this.deleted = deleted; }
+
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+
+    public static class ItemResult {
+        private int index;
+        private BatchOperationType op;
+        private Long id;
+        private boolean success;
+        private String error;
+        private ExpenseDto expense;
+
+        public ItemResult() {}
+
+        public ItemResult(int index, BatchOperationType op, Long id) {
+            this.index = index;
+            this.op = op;
+            this.id = id;
+            this.success = true;
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public BatchOperationType getOp() { return op; }
+        public void setOp(BatchOperationType op) { this.op = op; }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public ExpenseDto getExpense() { return expense; }
+        public void setExpense(ExpenseDto expense) { this.expense = expense; }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseImportResultDto {
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    public ExpenseImportResultDto() {}
+
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getImportedRows() { return importedRows; }
+    public void setImportedRows(long importedRows) { this.importedRows = importedRows; }
+
+    public long getFailedRows() { return failedRows; }
+    public void setFailedRows(long failedRows) { this.failedRows = failedRows; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private long line;
+        private List<String> messages;
+
+        public RowError() {}
+
+        public RowError(long line, List<String> messages) {
+            this.line = line;
+            this.messages = messages;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public List<String> getMessages() { return messages; }
+        public void setMessages(List<String> messages) { this.messages = messages; }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import java.time.LocalDate;
+
+public class ExpensePartitionDto {
+
+    private String name;
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+
+    public ExpensePartitionDto() {}
+
+    public ExpensePartitionDto(String name, LocalDate rangeStart, LocalDate rangeEnd) {
+        this.name = name;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    /** First day in the partition, or null for the default partition. */
+    public LocalDate getRangeStart() { return rangeStart; }
+    public void setRangeStart(LocalDate rangeStart) { this.rangeStart = rangeStart; }
+
+    /** First day after the partition (exclusive), or null for the default partition. */
+    public LocalDate getRangeEnd() { return rangeEnd; }
+    public void setRangeEnd(LocalDate rangeEnd) { this.rangeEnd = rangeEnd; }
+}
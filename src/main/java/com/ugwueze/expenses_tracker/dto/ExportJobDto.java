@@ -0,0 +1,79 @@
+package com.ugwueze.expenses_tracker.dto;
+
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public class ExportJobDto {
+
+    private String jobId;
+    private Long userId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private ExportFormat format;
+    private ExportJobStatus status;
+    private Long sizeBytes;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant completedAt;
+    private Instant expiresAt;
+
+    public ExportJobDto() {}
+
+    private ExportJobDto(Builder b) {
+        this.jobId = b.jobId;
+        this.userId = b.userId;
+        this.startDate = b.startDate;
+        this.endDate = b.endDate;
+        this.format = b.format;
+        this.status = b.status;
+        this.sizeBytes = b.sizeBytes;
+        this.errorMessage = b.errorMessage;
+        this.createdAt = b.createdAt;
+        this.completedAt = b.completedAt;
+        this.expiresAt = b.expiresAt;
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    public String getJobId() { return jobId; }
+    public Long getUserId() { return userId; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public ExportFormat getFormat() { return format; }
+    public ExportJobStatus getStatus() { return status; }
+    public Long getSizeBytes() { return sizeBytes; }
+    public String getErrorMessage() { return errorMessage; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public static class Builder {
+        private String jobId;
+        private Long userId;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private ExportFormat format;
+        private ExportJobStatus status;
+        private Long sizeBytes;
+        private String errorMessage;
+        private Instant createdAt;
+        private Instant completedAt;
+        private Instant expiresAt;
+
+        public Builder jobId(String jobId) { this.jobId = jobId; return this; }
+        public Builder userId(Long userId) { this.userId = userId; return this; }
+        public Builder startDate(LocalDate startDate) { this.startDate = startDate; return this; }
+        public Builder endDate(LocalDate endDate) { this.endDate = endDate; return this; }
+        public Builder format(ExportFormat format) { this.format = format; return this; }
+        public Builder status(ExportJobStatus status) { this.status = status; return this; }
+        public Builder sizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; return this; }
+        public Builder errorMessage(String errorMessage) { this.errorMessage = errorMessage; return this; }
+        public Builder createdAt(Instant createdAt) { this.createdAt = createdAt; return this; }
+        public Builder completedAt(Instant completedAt) { this.completedAt = completedAt; return this; }
+        public Builder expiresAt(Instant expiresAt) { this.expiresAt = expiresAt; return this; }
+        public ExportJobDto build() { return new ExportJobDto(this); }
+    }
+}
@@ -12,11 +12,14 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "budgets")
+@Table(name = "budgets", indexes = {
+        @Index(name = "idx_budgets_user_category_period", columnList = "user_id, category, start_date, end_date")
+})
 public class Budget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budgets_seq")
+    @SequenceGenerator(name = "budgets_seq", sequenceName = "budgets_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -39,6 +42,10 @@ public class Budget {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    // maintained in SQL by ExpenseRollupService, never written from the entity
+    @Column(insertable = false, updatable = false)
+    private BigDecimal spent;
+
     public Budget() {
     }
 
@@ -108,6 +115,10 @@ public class Budget {
         return createdAt;
     }
 
+    public BigDecimal getSpent() {
+        return spent;
+    }
+
 
 
     @Override
@@ -12,11 +12,16 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_user_date_id", columnList = "user_id, date, id"),
+        @Index(name = "idx_expenses_user_category_date", columnList = "user_id, category, date")
+})
+@EntityListeners(ExpenseRollupListener.class)
 public class Expense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Description is required")
@@ -49,6 +54,9 @@ public class Expense {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    @Transient
+    private ExpenseRollupListener.Snapshot rollupSnapshot;
+
 
     public Expense() {
     }
@@ -130,6 +138,9 @@ public class Expense {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    ExpenseRollupListener.Snapshot getRollupSnapshot() { return rollupSnapshot; }
+    void setRollupSnapshot(ExpenseRollupListener.Snapshot rollupSnapshot) { this.rollupSnapshot = rollupSnapshot; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,41 @@
+package com.ugwueze.expenses_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per user, day and category sum of expense amounts. Maintained by {@link ExpenseRollupListener} in the
+ * transaction that changes the expenses, so aggregate reads never have to scan the expenses table.
+ */
+@Entity
+@Table(name = "expense_daily_rollups")
+@IdClass(ExpenseDailyRollupId.class)
+public class ExpenseDailyRollup {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    private String category;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    public ExpenseDailyRollup() {
+    }
+
+    public Long getUserId() { return userId; }
+    public LocalDate getDay() { return day; }
+    public String getCategory() { return category; }
+    public BigDecimal getTotal() { return total; }
+    public long getExpenseCount() { return expenseCount; }
+}
@@ -0,0 +1,41 @@
+package com.ugwueze.expenses_tracker.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class ExpenseDailyRollupId implements Serializable {
+
+    private Long userId;
+    private LocalDate day;
+    private String category;
+
+    public ExpenseDailyRollupId() {
+    }
+
+    public ExpenseDailyRollupId(Long userId, LocalDate day, String category) {
+        this.userId = userId;
+        this.day = day;
+        this.category = category;
+    }
+
+    public Long getUserId() { return userId; }
+    public LocalDate getDay() { return day; }
+    public String getCategory() { return category; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ExpenseDailyRollupId that = (ExpenseDailyRollupId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(day, that.day) &&
+                Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, day, category);
+    }
+}
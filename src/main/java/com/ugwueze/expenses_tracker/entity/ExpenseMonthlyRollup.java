@@ -0,0 +1,37 @@
+package com.ugwueze.expenses_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per month and category sum of expense amounts across all users, for reports that span every user.
+ * {@code month} is the first day of the month. Recomputed from {@link ExpenseDailyRollup} in the background, so
+ * it lags expense writes until the next refresh.
+ */
+@Entity
+@Table(name = "expense_monthly_rollups")
+@IdClass(ExpenseMonthlyRollupId.class)
+public class ExpenseMonthlyRollup {
+
+    @Id
+    private LocalDate month;
+
+    @Id
+    private String category;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    public ExpenseMonthlyRollup() {
+    }
+
+    public LocalDate getMonth() { return month; }
+    public String getCategory() { return category; }
+    public BigDecimal getTotal() { return total; }
+    public long getExpenseCount() { return expenseCount; }
+}
@@ -0,0 +1,37 @@
+package com.ugwueze.expenses_tracker.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class ExpenseMonthlyRollupId implements Serializable {
+
+    private LocalDate month;
+    private String category;
+
+    public ExpenseMonthlyRollupId() {
+    }
+
+    public ExpenseMonthlyRollupId(LocalDate month, String category) {
+        this.month = month;
+        this.category = category;
+    }
+
+    public LocalDate getMonth() { return month; }
+    public String getCategory() { return category; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ExpenseMonthlyRollupId that = (ExpenseMonthlyRollupId) o;
+        return Objects.equals(month, that.month) &&
+                Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(month, category);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ugwueze.expenses_tracker.entity;
+
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Feeds every JPA write of an {@link Expense} into the daily rollup and the owner's data version. The Post*
+ * callbacks run during flush, which may be the flush at commit, so both services are bound to the transaction
+ * as soon as an expense is loaded or persisted in a writable transaction; they then flush before commit and
+ * apply what was recorded.
+ */
+public class ExpenseRollupListener {
+
+    private final ObjectProvider<ExpenseRollupService> rollupService;
+    private final ObjectProvider<UserDataVersionService> dataVersionService;
+
+    public ExpenseRollupListener(ObjectProvider<ExpenseRollupService> rollupService,
+                                 ObjectProvider<UserDataVersionService> dataVersionService) {
+        this.rollupService = rollupService;
+        this.dataVersionService = dataVersionService;
+    }
+
+    @PostLoad
+    void onLoad(Expense expense) {
+        expense.setRollupSnapshot(Snapshot.of(expense));
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            bindToCurrentTransaction();
+        }
+    }
+
+    @PrePersist
+    @PreRemove
+    void beforeWrite(Expense expense) {
+        bindToCurrentTransaction();
+    }
+
+    @PostPersist
+    void onPersist(Expense expense) {
+        Snapshot current = Snapshot.of(expense);
+        add(current);
+        touch(current);
+        expense.setRollupSnapshot(current);
+    }
+
+    @PostUpdate
+    void onUpdate(Expense expense) {
+        Snapshot previous = expense.getRollupSnapshot();
+        Snapshot current = Snapshot.of(expense);
+        // any column change is visible to readers, not only the ones the rollup tracks
+        touch(current);
+        if (previous != null && !Objects.equals(previous.userId, current.userId)) {
+            touch(previous);
+        }
+        if (!current.equals(previous)) {
+            remove(previous);
+            add(current);
+            expense.setRollupSnapshot(current);
+        }
+    }
+
+    @PostRemove
+    void onRemove(Expense expense) {
+        Snapshot previous = expense.getRollupSnapshot();
+        Snapshot removed = previous != null ? previous : Snapshot.of(expense);
+        remove(removed);
+        touch(removed);
+        expense.setRollupSnapshot(null);
+    }
+
+    private void bindToCurrentTransaction() {
+        ExpenseRollupService rollups = rollupService.getIfAvailable();
+        if (rollups != null) {
+            rollups.bindToCurrentTransaction();
+        }
+        UserDataVersionService versions = dataVersionService.getIfAvailable();
+        if (versions != null) {
+            versions.bindToCurrentTransaction();
+        }
+    }
+
+    private void add(Snapshot snapshot) {
+        ExpenseRollupService service = rollupService.getIfAvailable();
+        if (service != null && snapshot != null && snapshot.isComplete()) {
+            service.recordAdded(snapshot.userId, snapshot.day, snapshot.category, snapshot.amount);
+        }
+    }
+
+    private void touch(Snapshot snapshot) {
+        UserDataVersionService service = dataVersionService.getIfAvailable();
+        if (service != null && snapshot != null && snapshot.userId != null) {
+            service.touch(snapshot.userId);
+        }
+    }
+
+    private void remove(Snapshot snapshot) {
+        ExpenseRollupService service = rollupService.getIfAvailable();
+        if (service != null && snapshot != null && snapshot.isComplete()) {
+            service.recordRemoved(snapshot.userId, snapshot.day, snapshot.category, snapshot.amount);
+        }
+    }
+
+    /**
+     * The rollup-relevant state of an expense as last written to the database.
+     */
+    static final class Snapshot {
+        private final Long userId;
+        private final LocalDate day;
+        private final String category;
+        private final BigDecimal amount;
+
+        private Snapshot(Long userId, LocalDate day, String category, BigDecimal amount) {
+            this.userId = userId;
+            this.day = day;
+            this.category = category;
+            this.amount = amount;
+        }
+
+        static Snapshot of(Expense expense) {
+            Long userId = expense.getUser() != null ? expense.getUser().getId() : null;
+            return new Snapshot(userId, expense.getDate(), expense.getCategory(), expense.getAmount());
+        }
+
+        boolean isComplete() {
+            return userId != null && day != null && category != null && amount != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Snapshot that = (Snapshot) o;
+            return Objects.equals(userId, that.userId) &&
+                    Objects.equals(day, that.day) &&
+                    Objects.equals(category, that.category) &&
+                    (amount == null ? that.amount == null : that.amount != null && amount.compareTo(that.amount) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day, category);
+        }
+    }
+}
@@ -12,7 +12,8 @@ import java.time.LocalDate;
 public class RecurringExpense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recurring_expenses_seq")
+    @SequenceGenerator(name = "recurring_expenses_seq", sequenceName = "recurring_expenses_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
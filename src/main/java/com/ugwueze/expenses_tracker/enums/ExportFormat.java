@@ -0,0 +1,48 @@
+package com.ugwueze.expenses_tracker.enums;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv", ".csv", null),
+    CSV_GZIP("csv.gz", "application/gzip", ".csv.gz", "gzip"),
+    CSV_ZSTD("csv.zst", "application/zstd", ".csv.zst", "zstd"),
+    ARROW("arrow", "application/vnd.apache.arrow.stream", ".arrow", null);
+
+    private final String parameterValue;
+    private final String contentType;
+    private final String fileExtension;
+    private final String contentEncoding;
+
+    ExportFormat(String parameterValue, String contentType, String fileExtension, String contentEncoding) {
+        this.parameterValue = parameterValue;
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getParameterValue() {
+        return parameterValue;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public static ExportFormat fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (ExportFormat format : values()) {
+            if (format.parameterValue.equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
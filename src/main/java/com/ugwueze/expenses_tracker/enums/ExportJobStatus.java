@@ -0,0 +1,5 @@
+package com.ugwueze.expenses_tracker.enums;
+
+public enum ExportJobStatus {
+    PENDING, RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,8 @@
+package com.ugwueze.expenses_tracker.enums;
+
+public enum JobRunStatus {
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    LEASE_LOST
+}
@@ -0,0 +1,8 @@
+package com.ugwueze.expenses_tracker.exception;
+
+public class ExportJobNotReadyException extends RuntimeException {
+
+    public ExportJobNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.nio.file.AccessDeniedException;
 import java.time.OffsetDateTime;
@@ -39,6 +41,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNoResource(NoResourceFoundException ex, HttpServletRequest req) {
+        log.debug("No handler for {} {}", req.getMethod(), req.getRequestURI());
+        ErrorResponse body = new ErrorResponse()
+                .setTimestamp(OffsetDateTime.now())
+                .setStatus(HttpStatus.NOT_FOUND.value())
+                .setError(HttpStatus.NOT_FOUND.getReasonPhrase())
+                .setMessage("No endpoint " + req.getMethod() + " " + req.getRequestURI())
+                .setPath(req.getRequestURI());
+        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(DuplicateResourceException.class)
     public ResponseEntity<ErrorResponse> handleDuplicate(DuplicateResourceException ex, HttpServletRequest req) {
         log.debug("Duplicate resource: {}", ex.getMessage());
@@ -51,6 +65,42 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException ex, HttpServletRequest req) {
+        log.debug("Bad request: {}", ex.getMessage());
+        ErrorResponse body = new ErrorResponse()
+                .setTimestamp(OffsetDateTime.now())
+                .setStatus(HttpStatus.BAD_REQUEST.value())
+                .setError(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .setMessage(ex.getMessage())
+                .setPath(req.getRequestURI());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ExportJobNotReadyException.class)
+    public ResponseEntity<ErrorResponse> handleExportJobNotReady(ExportJobNotReadyException ex, HttpServletRequest req) {
+        log.debug("Export job not ready: {}", ex.getMessage());
+        ErrorResponse body = new ErrorResponse()
+                .setTimestamp(OffsetDateTime.now())
+                .setStatus(HttpStatus.CONFLICT.value())
+                .setError(HttpStatus.CONFLICT.getReasonPhrase())
+                .setMessage(ex.getMessage())
+                .setPath(req.getRequestURI());
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejected(TaskRejectedException ex, HttpServletRequest req) {
+        log.warn("Task rejected: {}", ex.getMessage());
+        ErrorResponse body = new ErrorResponse()
+                .setTimestamp(OffsetDateTime.now())
+                .setStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .setError(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .setMessage("Too many background jobs in progress, please retry later")
+                .setPath(req.getRequestURI());
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex, HttpServletRequest req) {
         log.warn("Data integrity violation: {}", ex.getMessage());
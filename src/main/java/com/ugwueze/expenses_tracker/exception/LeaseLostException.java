@@ -0,0 +1,11 @@
+package com.ugwueze.expenses_tracker.exception;
+
+/**
+ * The job lease a write depends on has passed to another instance.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
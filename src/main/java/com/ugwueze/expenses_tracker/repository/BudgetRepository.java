@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +22,9 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND :date BETWEEN b.startDate AND b.endDate")
     List<Budget> findActiveBudgetsByUserAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
 
+    @Query("SELECT b.spent FROM Budget b WHERE b.id = :id")
+    Optional<BigDecimal> findSpentById(@Param("id") Long id);
+
     boolean existsByUserIdAndCategoryAndStartDateAndEndDate(
             Long userId, String category, LocalDate startDate, LocalDate endDate);
 }
@@ -0,0 +1,63 @@
+package com.ugwueze.expenses_tracker.repository;
+
+import com.ugwueze.expenses_tracker.entity.ExpenseDailyRollup;
+import com.ugwueze.expenses_tracker.entity.ExpenseDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExpenseDailyRollupRepository extends JpaRepository<ExpenseDailyRollup, ExpenseDailyRollupId> {
+
+    @Query("SELECT SUM(r.total) FROM ExpenseDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :startDate AND :endDate")
+    Optional<BigDecimal> sumTotal(@Param("userId") Long userId,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r.category, SUM(r.total) FROM ExpenseDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :startDate AND :endDate GROUP BY r.category")
+    List<Object[]> sumTotalByCategory(@Param("userId") Long userId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
+    /**
+     * One row per category: category, total amount and number of expenses.
+     */
+    @Query("SELECT r.category, SUM(r.total), SUM(r.expenseCount) FROM ExpenseDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :startDate AND :endDate GROUP BY r.category")
+    List<Object[]> summarizeByCategory(@Param("userId") Long userId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    /**
+     * Month number and total for every month in the range whose total is positive, in month order.
+     */
+    @Query("SELECT MONTH(r.day), SUM(r.total) FROM ExpenseDailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :startDate AND :endDate "
+            + "GROUP BY MONTH(r.day) HAVING SUM(r.total) > 0 ORDER BY MONTH(r.day)")
+    List<Object[]> sumPositiveTotalByMonth(@Param("userId") Long userId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r.category, SUM(r.total) FROM ExpenseDailyRollup r WHERE r.userId = :userId AND r.day >= :from AND r.day < :to "
+            + "GROUP BY r.category ORDER BY SUM(r.total) DESC")
+    List<Object[]> findCategoryTotals(@Param("userId") Long userId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * One row per budget with any spending: budget id and the total in the budget's category between its own
+     * dates. The outer range, the union of the budgets' ranges, bounds the rollup scan.
+     */
+    @Query("SELECT b.id, SUM(r.total) FROM Budget b JOIN ExpenseDailyRollup r ON r.userId = b.user.id "
+            + "AND LOWER(r.category) = LOWER(b.category) AND r.day BETWEEN b.startDate AND b.endDate "
+            + "WHERE b.id IN :budgetIds AND r.userId = :userId AND r.day BETWEEN :startDate AND :endDate GROUP BY b.id")
+    List<Object[]> sumTotalByBudget(@Param("userId") Long userId,
+                                    @Param("budgetIds") Collection<Long> budgetIds,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,18 @@
+package com.ugwueze.expenses_tracker.repository;
+
+import com.ugwueze.expenses_tracker.entity.ExpenseMonthlyRollup;
+import com.ugwueze.expenses_tracker.entity.ExpenseMonthlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExpenseMonthlyRollupRepository extends JpaRepository<ExpenseMonthlyRollup, ExpenseMonthlyRollupId> {
+
+    @Query("SELECT r.category, r.total FROM ExpenseMonthlyRollup r WHERE r.month = :month ORDER BY r.total DESC")
+    List<Object[]> findCategoryTotals(@Param("month") LocalDate month);
+}
@@ -1,25 +1,35 @@
 package com.ugwueze.expenses_tracker.repository;
 
 import com.ugwueze.expenses_tracker.entity.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
+    String STREAM_FETCH_SIZE = "500";
+
     Page<Expense> findByUserId(Long userId, Pageable pageable);
 
     List<Expense> findByUserIdAndDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
 
+    List<Expense> findByUserIdAndDateBetweenOrderByDateAscIdAsc(Long userId, LocalDate startDate, LocalDate endDate);
+
     List<Expense> findByUserIdAndCategory(Long userId, String category);
 
     @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate")
@@ -43,10 +53,63 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     Optional<Expense> findByIdAndUserId(Long id, Long userId);
 
+    List<Expense> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // keyset pagination: callers pass an unsorted PageRequest.of(0, size); a Slice reads size + 1 rows and skips the count
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId ORDER BY e.date DESC, e.id DESC")
+    Slice<Expense> findFirstSliceByUserIdDesc(@Param("userId") Long userId, Pageable pageable);
+
+    // the plain date bound is implied by the row comparison, but only it lets PostgreSQL prune partitions
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date <= :date AND (e.date, e.id) < (:date, :id) "
+            + "ORDER BY e.date DESC, e.id DESC")
+    Slice<Expense> findSliceByUserIdBefore(@Param("userId") Long userId,
+                                           @Param("date") LocalDate date,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId ORDER BY e.date ASC, e.id ASC")
+    Slice<Expense> findFirstSliceByUserIdAsc(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date >= :date AND (e.date, e.id) > (:date, :id) "
+            + "ORDER BY e.date ASC, e.id ASC")
+    Slice<Expense> findSliceByUserIdAfter(@Param("userId") Long userId,
+                                          @Param("date") LocalDate date,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
     Page<Expense> findByUserIdAndDateGreaterThanEqual(Long userId, LocalDate startDate,Pageable pageable);
 
     Page<Expense> findByUserIdAndDateLessThanEqual(Long userId, LocalDate endDate,Pageable pageable);
 
-    @Query("SELECT e.category, SUM(e.amount) FROM Expense e  WHERE YEAR(e.date) = :year AND MONTH(e.date) = :month GROUP BY e.category ORDER BY SUM(e.amount) DESC")
-    List<Object[]> findCategoryTotalsByYearAndMonth(@Param("year") int year, @Param("month") int month);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId ORDER BY e.date ASC, e.id ASC")
+    Stream<Expense> streamByUserId(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate ORDER BY e.date ASC, e.id ASC")
+    Stream<Expense> streamByUserIdAndDateBetween(@Param("userId") Long userId,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date >= :startDate ORDER BY e.date ASC, e.id ASC")
+    Stream<Expense> streamByUserIdAndDateGreaterThanEqual(@Param("userId") Long userId,
+                                                          @Param("startDate") LocalDate startDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.date <= :endDate ORDER BY e.date ASC, e.id ASC")
+    Stream<Expense> streamByUserIdAndDateLessThanEqual(@Param("userId") Long userId,
+                                                       @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -7,12 +7,23 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
 
-    @Query(value = "SELECT * FROM recurring_expenses " +
-            "WHERE next_occurrence_date <= :date " +
-            "AND (end_date IS NULL OR end_date >= :date)",
+    String DUE = "active AND next_occurrence_date <= :date AND (end_date IS NULL OR end_date >= :date)";
+
+    /**
+     * Locks up to {@code limit} due templates with ids above {@code afterId}, in id order. Rows another
+     * transaction holds are skipped rather than waited for, so concurrent workers claim disjoint chunks.
+     */
+    @Query(value = "SELECT * FROM recurring_expenses WHERE " + DUE + " AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<RecurringExpense> claimDue(@Param("date") LocalDate date, @Param("afterId") long afterId,
+                                    @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM recurring_expenses WHERE id = :id AND " + DUE + " FOR UPDATE SKIP LOCKED",
             nativeQuery = true)
-    List<RecurringExpense> findDueByDate(@Param("date") LocalDate date);
-}
\ No newline at end of file
+    Optional<RecurringExpense> claimDueById(@Param("id") Long id, @Param("date") LocalDate date);
+}
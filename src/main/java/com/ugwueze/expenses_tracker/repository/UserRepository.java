@@ -1,7 +1,11 @@
 package com.ugwueze.expenses_tracker.repository;
 
+import com.ugwueze.expenses_tracker.config.CacheConfig;
 import com.ugwueze.expenses_tracker.entity.User;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -15,4 +19,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // only hits are cached, so a freshly created user is never reported missing; deletes evict in UserServiceImpl.
+    // For reads only, writes referencing the user check existsByIdUncached.
+    @Override
+    @Cacheable(cacheNames = CacheConfig.USER_IDS, unless = "!#result")
+    boolean existsById(Long id);
+
+    // Bypasses the cache, whose evictions are local: a user deleted through another instance would still be a hit
+    // here, and the write would fail on the foreign key instead of reporting the user missing.
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.id = :id")
+    boolean existsByIdUncached(@Param("id") Long id);
 }
@@ -1,17 +1,106 @@
 package com.ugwueze.expenses_tracker.scheduler;
 
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import com.ugwueze.expenses_tracker.service.ExportJobService;
 import com.ugwueze.expenses_tracker.service.RecurringExpenseService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.io.UncheckedIOException;
+
+@Slf4j
 @Configuration
+@EnableScheduling
 public class ScheduledConfig {
     @Autowired
     private RecurringExpenseService recurringExpenseService;
 
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ExpensePartitionService expensePartitionService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
     @Scheduled(cron = "0 0 0 * * ?")   // run daily at midnight
     public void runRecurringTemplateJob() {
         recurringExpenseService.processDueRecurringExpenses();
     }
+
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval:PT5M}")
+    public void purgeExpiredExportJobs() {
+        exportJobService.purgeExpiredJobs();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${expenses.partitions.maintenance-cron:0 30 0 * * ?}")
+    public void createUpcomingExpensePartitions() {
+        try {
+            expensePartitionService.createUpcomingPartitions();
+        } catch (DataAccessException ex) {
+            // rows still land in the default partition, so a missed run is not fatal
+            log.warn("Could not create upcoming expense partitions", ex);
+        }
+    }
+
+    @Scheduled(cron = "${expenses.archive.cron:0 0 1 * * ?}")
+    public void archiveExpiredExpenses() {
+        try {
+            expenseArchiveService.archiveExpired();
+        } catch (DataAccessException | UncheckedIOException ex) {
+            // the run is rolled back as a whole, so the next one simply retries
+            log.warn("Could not archive expired expenses", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expenses.archive.refresh-interval:PT5M}")
+    public void refreshExpenseArchive() {
+        // picks up segments archived by another instance sharing the archive directory
+        expenseArchiveService.refreshSegments();
+    }
+
+    @Scheduled(fixedDelayString = "${expenses.monthly-rollups.refresh-interval:PT1M}")
+    public void refreshChangedMonthlyRollups() {
+        try {
+            expenseRollupService.refreshChangedMonths();
+        } catch (DataAccessException ex) {
+            // the failed month stays marked as changed and is retried on the next run
+            log.warn("Could not refresh the monthly expense rollups", ex);
+        }
+    }
+
+    @Scheduled(cron = "${expenses.monthly-rollups.full-refresh-cron:0 0 2 * * ?}")
+    public void refreshAllMonthlyRollups() {
+        try {
+            expenseRollupService.refreshAllMonths();
+        } catch (DataAccessException ex) {
+            log.warn("Could not refresh all monthly expense rollups", ex);
+        }
+    }
+
+    @Scheduled(cron = "${budgets.spent.reconcile-cron:0 30 1 * * ?}")
+    public void reconcileBudgetSpent() {
+        try {
+            int repaired = expenseRollupService.reconcileBudgetSpent();
+            if (repaired > 0) {
+                log.warn("Repaired the running spend of {} budgets", repaired);
+            }
+        } catch (DataAccessException ex) {
+            // every repaired budget is committed on its own, the next run picks up the rest
+            log.warn("Could not reconcile budget spend", ex);
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.BudgetAlertDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports when a budget's running spend crosses one of the configured percentages of its amount. Each crossing
+ * is stored once and pushed to the user's open alert streams.
+ */
+public interface BudgetAlertService {
+
+    /**
+     * Queues the user's budgets in these categories for evaluation. Called once the spend change is committed;
+     * changes arriving within the coalescing window are evaluated together.
+     */
+    void onSpendChanged(Long userId, Collection<String> categories);
+
+    /**
+     * The user's most recent alerts, newest first.
+     */
+    List<BudgetAlertDto> getUserAlerts(Long userId);
+
+    /**
+     * Opens a server-sent-events stream of the user's alerts. With {@code lastEventId}, alerts stored after that
+     * one are replayed first, so a reconnecting client misses nothing.
+     */
+    SseEmitter subscribe(Long userId, Long lastEventId);
+}
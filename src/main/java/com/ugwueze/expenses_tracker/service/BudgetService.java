@@ -1,6 +1,7 @@
 package com.ugwueze.expenses_tracker.service;
 
 import com.ugwueze.expenses_tracker.dto.BudgetDto;
+import com.ugwueze.expenses_tracker.dto.BudgetUtilizationDto;
 import java.util.List;
 
 public interface BudgetService {
@@ -19,4 +20,9 @@ public interface BudgetService {
 
     boolean isBudgetExceeded(Long userId, String category);
 
+    /**
+     * Spent, remaining and percent used for every budget active today, ordered by category.
+     */
+    List<BudgetUtilizationDto> getBudgetUtilization(Long userId);
+
 }
\ No newline at end of file
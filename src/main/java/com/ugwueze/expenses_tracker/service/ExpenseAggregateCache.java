@@ -0,0 +1,31 @@
+package com.ugwueze.expenses_tracker.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for per-user expense aggregates over a date range. An entry is dropped once a committed
+ * change touches one of its user's days inside its range.
+ */
+public interface ExpenseAggregateCache {
+
+    enum Aggregate {
+        TOTAL,
+        CATEGORY_WISE,
+        SUMMARY
+    }
+
+    /**
+     * Returns the cached value, or computes it with {@code loader} on the calling thread. Concurrent callers for
+     * the same key wait for one computation. Cached values are shared and must not be modified.
+     */
+    <T> T get(Long userId, Aggregate aggregate, LocalDate startDate, LocalDate endDate, Supplier<T> loader);
+
+    /**
+     * Drops the user's entries whose range contains any of the given days.
+     */
+    void invalidate(Long userId, Collection<LocalDate> days);
+
+    void invalidateAll();
+}
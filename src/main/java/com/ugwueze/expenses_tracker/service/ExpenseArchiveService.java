@@ -0,0 +1,35 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public interface ExpenseArchiveService {
+
+    /** Order of archived expenses and of every listing they are merged into. */
+    Comparator<Expense> ORDER = Comparator.comparing(Expense::getDate).thenComparing(Expense::getId);
+
+    /**
+     * Moves every expense dated before {@code cutoff} out of the {@code expenses} table into new compressed
+     * segment files. Archived expenses are read-only and stay counted in the rollups. Returns the number moved,
+     * or 0 without archiving anything while another instance holds the archive job's lease.
+     */
+    long archiveBefore(LocalDate cutoff);
+
+    /** Archives expenses older than the configured retention; does nothing when retention is disabled. */
+    long archiveExpired();
+
+    /**
+     * Loads segment files that appeared in the archive directory since the last call, such as those written by
+     * another instance sharing the directory. Unreadable segments are logged and skipped.
+     */
+    void refreshSegments();
+
+    /** Number of expenses held in the loaded archive segments. */
+    long archivedCount();
+
+    /** Archived expenses of the user dated within [startDate, endDate], either bound may be null, in {@link #ORDER}. */
+    Stream<Expense> streamArchived(Long userId, LocalDate startDate, LocalDate endDate);
+}
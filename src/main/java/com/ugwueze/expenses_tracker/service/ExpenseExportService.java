@@ -1,9 +1,12 @@
 package com.ugwueze.expenses_tracker.service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.time.LocalDate;
 
 public interface ExpenseExportService {
     void streamExpensesAsCsv(Long userId, LocalDate startDate, LocalDate endDate, Writer writer) throws IOException;
-}
\ No newline at end of file
+
+    void streamExpensesAsArrow(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException;
+}
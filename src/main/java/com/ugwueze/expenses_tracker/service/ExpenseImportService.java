@@ -0,0 +1,10 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExpenseImportResultDto;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ExpenseImportService {
+    ExpenseImportResultDto importExpensesFromCsv(Long userId, Reader reader) throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExpensePartitionDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ExpensePartitionService {
+
+    /**
+     * Makes sure the partitions for the current period and the configured number of periods after it exist.
+     * Returns the names of the partitions that were created.
+     */
+    List<String> createUpcomingPartitions();
+
+    List<ExpensePartitionDto> listPartitions();
+
+    /**
+     * Detaches every partition whose range ends on or before {@code cutoff}. Detached partitions are kept as
+     * standalone {@code expenses_archived_*} tables, so they can be dumped or dropped without touching
+     * {@code expenses}. Returns the names of the archived tables.
+     */
+    List<String> detachPartitionsBefore(LocalDate cutoff);
+
+    /** Names of the {@code expenses_archived_*} tables left by {@link #detachPartitionsBefore}. */
+    List<String> listDetachedPartitions();
+}
@@ -0,0 +1,54 @@
+package com.ugwueze.expenses_tracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface ExpenseRollupService {
+
+    void recordAdded(Long userId, LocalDate day, String category, BigDecimal amount);
+
+    void recordRemoved(Long userId, LocalDate day, String category, BigDecimal amount);
+
+    /**
+     * Ensures changes recorded later in the current transaction, including those only recorded by the final
+     * flush, are applied before it commits. No-op outside a transaction.
+     */
+    void bindToCurrentTransaction();
+
+    /**
+     * Applies the current transaction's pending changes so rollup reads in the same transaction see them.
+     */
+    void flushPending();
+
+    /**
+     * Recomputes the whole daily rollup from the expenses table, and the monthly rollup from it. Returns the number
+     * of daily rollup rows written.
+     * Archived and detached expenses are not in that table, so callers must not rebuild while any exist.
+     */
+    long rebuild();
+
+    /**
+     * Recomputes the all-users monthly rollup of every month whose daily rollups changed on this instance since
+     * the last refresh. Returns the number of months refreshed.
+     */
+    int refreshChangedMonths();
+
+    /**
+     * Recomputes the all-users monthly rollup of every month, including changes whose refresh never ran because
+     * the instance that made them stopped first. Returns the number of months refreshed.
+     */
+    int refreshAllMonths();
+
+    /**
+     * Recomputes one budget's running spend from the rollups, for a budget that was just created or whose
+     * category or dates changed. Joins the caller's transaction, and holds the owning user's budgets against
+     * concurrent expense writes until it commits, so callers must not have flushed budget changes before.
+     */
+    void recomputeBudgetSpent(Long userId, Long budgetId);
+
+    /**
+     * Recomputes the running spend of every budget that no longer matches the rollups. Returns how many were
+     * repaired.
+     */
+    int reconcileBudgetSpent();
+}
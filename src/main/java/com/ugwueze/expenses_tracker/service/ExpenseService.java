@@ -1,5 +1,8 @@
 package com.ugwueze.expenses_tracker.service;
 
+import com.ugwueze.expenses_tracker.dto.CursorPageDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchRequestDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchResultDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseSummaryDto;
 import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
@@ -9,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,23 +24,58 @@ public interface ExpenseService {
 
     void deleteExpense(Long id, Long userId);
 
+    ExpenseBatchResultDto applyBatch(ExpenseBatchRequestDto request);
+
+    /**
+     * Live expenses only: an archived expense is not found here, nor can it be updated or deleted.
+     */
     ExpenseDto getExpenseById(Long id, Long userId);
 
+    /**
+     * Live expenses only, like the cursor listing; use the date-range listing or the export to include archived
+     * ones.
+     */
     Page<ExpenseDto> getUserExpenses(Long userId, Pageable pageable);
 
+    /**
+     * Live expenses only, see {@link #getUserExpenses}.
+     */
+    CursorPageDto<ExpenseDto> getUserExpensesByCursor(Long userId, String cursor, int size, boolean descending);
+
+    /**
+     * Includes archived expenses, merged with the live ones in date order.
+     */
     List<ExpenseDto> getExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate);
 
     BigDecimal getTotalExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate);
 
     Map<String, BigDecimal> getCategoryWiseExpenses(Long userId, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Amount spent against each of the user's given budgets, in the budget's category (ignoring case) between
+     * its dates, where {@code startDate}..{@code endDate} covers all of them. Budgets without spending are absent.
+     */
+    Map<Long, BigDecimal> getSpentByBudget(Long userId, Collection<Long> budgetIds, LocalDate startDate, LocalDate endDate);
+
     ExpenseSummaryDto getExpenseSummary(Long userId, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Live expenses only, see {@link #getUserExpenses}.
+     */
     List<ExpenseDto> getExpensesByCategory(Long userId, String category);
 
     @Transactional(readOnly = true)
     Map<Integer, BigDecimal> getMonthlyExpensesSummary(Long userId, int year);
 
+    /**
+     * Category totals for one user's expenses in the given month, largest first.
+     */
+    List<MonthlySummaryDto> getUserMonthlySummary(Long userId, int year, int month);
+
+    /**
+     * Category totals across all users for the given month, largest first. Served from the precomputed
+     * monthly rollup, which is refreshed in the background and so lags recent writes; intended for admin reporting.
+     */
     @Transactional(readOnly = true)
     List<MonthlySummaryDto> getMonthlySummary(int year, int month);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExportJobDto;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public interface ExportJobService {
+    ExportJobDto submitJob(Long userId, LocalDate startDate, LocalDate endDate, ExportFormat format);
+
+    ExportJobDto getJob(Long userId, String jobId);
+
+    Path getResultFile(Long userId, String jobId);
+
+    int purgeExpiredJobs();
+}
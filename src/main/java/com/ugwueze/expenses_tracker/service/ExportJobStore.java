@@ -0,0 +1,57 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Database record of export jobs, shared by every instance. Transitions only apply to jobs still pending or
+ * running, so a job given up on by {@link #failStale} stays failed when its runner finishes after all.
+ */
+public interface ExportJobStore {
+
+    /**
+     * Inserts {@code job} as pending unless an identical request ({@code dedupeKey}) is already pending or running,
+     * in which case that job is returned instead.
+     */
+    ExportJob insertOrGetInFlight(ExportJob job);
+
+    Optional<ExportJob> find(String id);
+
+    /**
+     * False when the job is no longer pending.
+     */
+    boolean markRunning(String id);
+
+    /**
+     * False when the job is no longer pending or running.
+     */
+    boolean complete(String id, String file, long sizeBytes, Instant completedAt, Instant expiresAt);
+
+    /**
+     * False when the job is no longer pending or running.
+     */
+    boolean fail(String id, String errorMessage, Instant completedAt, Instant expiresAt);
+
+    void delete(String id);
+
+    /**
+     * Deletes finished jobs that expired at or before {@code now} and returns them, for their files to be removed.
+     */
+    List<ExportJob> deleteExpired(Instant now);
+
+    /**
+     * Fails jobs still pending or running that were submitted before {@code createdBefore}, such as those of an
+     * instance that stopped, and returns their ids.
+     */
+    List<String> failStale(Instant createdBefore, String errorMessage, Instant completedAt, Instant expiresAt);
+
+    record ExportJob(String id, String dedupeKey, Long userId, LocalDate startDate, LocalDate endDate,
+                     ExportFormat format, ExportJobStatus status, String file, Long sizeBytes,
+                     String errorMessage, Instant createdAt, Instant completedAt, Instant expiresAt) {
+    }
+}
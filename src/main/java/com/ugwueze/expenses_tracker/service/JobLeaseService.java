@@ -0,0 +1,41 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Database-backed leases for scheduled jobs that must run on one instance at a time, and the record of their runs.
+ * Expiry is judged by the database clock, so instances with skewed clocks still agree on it.
+ */
+public interface JobLeaseService {
+
+    /**
+     * Empty when another instance holds an unexpired lease on the job.
+     */
+    Optional<Lease> tryAcquire(String jobName, Duration ttl);
+
+    /**
+     * False when the lease has passed to another instance.
+     */
+    boolean renew(Lease lease, Duration ttl);
+
+    /**
+     * Fencing for the writes of the current transaction: share-locks the lease row until the transaction ends, so the
+     * lease cannot change hands before those writes commit. Throws LeaseLostException when it already has.
+     */
+    void checkHeld(Lease lease);
+
+    /**
+     * Lets the next run take the lease straight away. No-op when it has already passed on.
+     */
+    void release(Lease lease);
+
+    long startRun(Lease lease);
+
+    void finishRun(long runId, JobRunStatus status, int processed, int failed, int created);
+
+    record Lease(String jobName, String owner, long fence) {
+    }
+}
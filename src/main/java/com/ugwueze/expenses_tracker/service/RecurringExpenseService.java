@@ -1,8 +1,10 @@
 package com.ugwueze.expenses_tracker.service;
 
-import org.springframework.transaction.annotation.Transactional;
-
 public interface RecurringExpenseService {
-    @Transactional
+
+    /**
+     * Creates the expenses of every due template. Templates are processed in chunks, each committed on its own,
+     * so a template that fails is skipped without undoing the others.
+     */
     void processDueRecurringExpenses();
 }
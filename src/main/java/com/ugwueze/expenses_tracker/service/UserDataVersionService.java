@@ -0,0 +1,27 @@
+package com.ugwueze.expenses_tracker.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Per-user data version: the time any of the user's expenses or budgets last changed. It only moves forward,
+ * so it can validate cached reads of that user's data.
+ */
+public interface UserDataVersionService {
+
+    /**
+     * Moves the user's data version forward when the current transaction commits, or right away outside one.
+     */
+    void touch(Long userId);
+
+    /**
+     * Ensures users touched later in the current transaction, including by its final flush, are still bumped
+     * before it commits. No-op outside a transaction.
+     */
+    void bindToCurrentTransaction();
+
+    /**
+     * Empty when the user does not exist.
+     */
+    Optional<LocalDateTime> getDataVersion(Long userId);
+}
@@ -0,0 +1,331 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.dto.BudgetAlertDto;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.BudgetAlertService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class BudgetAlertServiceImpl implements BudgetAlertService {
+
+    private static final String EVENT_NAME = "budget-alert";
+    // filled by a trigger on budget_alerts with "userId:alertId" (V11)
+    private static final String CHANNEL = "budget_alerts";
+    private static final int LISTEN_POLL_MILLIS = 10_000;
+    private static final long RELISTEN_DELAY_MILLIS = 5_000;
+
+    private static final int MAX_ALERTS = 50;
+    private static final String CANDIDATES_SQL =
+            "SELECT id, user_id, category, amount, spent, alert_level FROM budgets "
+                    + "WHERE user_id = ANY (?) AND LOWER(category) = ANY (?) AND end_date >= CURRENT_DATE";
+    // only the instance that moves the level reports the crossing
+    private static final String SET_LEVEL_SQL = "UPDATE budgets SET alert_level = ? WHERE id = ? AND alert_level = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO budget_alerts (budget_id, user_id, category, threshold, budget_amount, spent) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS =
+            "SELECT id, budget_id, user_id, category, threshold, budget_amount, spent, created_at FROM budget_alerts ";
+    private static final String RECENT_SQL = SELECT_COLUMNS + "WHERE user_id = ? ORDER BY id DESC LIMIT " + MAX_ALERTS;
+    private static final String AFTER_SQL = SELECT_COLUMNS + "WHERE user_id = ? AND id > ? ORDER BY id LIMIT " + MAX_ALERTS;
+    private static final String BY_ID_SQL = SELECT_COLUMNS + "WHERE id = ?";
+
+    private static final RowMapper<BudgetAlertDto> ALERT_MAPPER = (rs, rowNum) -> BudgetAlertDto.builder()
+            .id(rs.getLong("id"))
+            .budgetId(rs.getLong("budget_id"))
+            .userId(rs.getLong("user_id"))
+            .category(rs.getString("category"))
+            .threshold(rs.getInt("threshold"))
+            .budgetAmount(rs.getBigDecimal("budget_amount"))
+            .spentAmount(rs.getBigDecimal("spent"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final ScheduledExecutorService scheduler;
+    private final int[] thresholds;
+    private final Duration window;
+    private final Duration streamTimeout;
+
+    // lower-cased categories per user, waiting for the next evaluation
+    private final ConcurrentMap<Long, Set<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean evaluationScheduled = new AtomicBoolean();
+    private final ConcurrentMap<Long, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+    private Thread listener;
+
+    @Autowired
+    public BudgetAlertServiceImpl(JdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  UserRepository userRepository,
+                                  @Value("${budgets.alerts.thresholds:50,80,100}") int[] thresholds,
+                                  @Value("${budgets.alerts.coalesce-window:PT2S}") Duration window,
+                                  @Value("${budgets.alerts.stream-timeout:PT30M}") Duration streamTimeout) {
+        this(jdbcTemplate, dataSource, transactionManager, userRepository, thresholds, window, streamTimeout,
+                // its own thread, so evaluations never queue behind the long-running scheduled jobs
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "budget-alerts");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    public BudgetAlertServiceImpl(JdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  UserRepository userRepository,
+                                  int[] thresholds,
+                                  Duration window,
+                                  Duration streamTimeout,
+                                  ScheduledExecutorService scheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.thresholds = Arrays.stream(thresholds).filter(t -> t > 0).sorted().distinct().toArray();
+        this.window = window;
+        this.streamTimeout = streamTimeout;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts forwarding committed alerts from every instance to the streams held here. The listener keeps one
+     * pooled connection for itself.
+     */
+    @PostConstruct
+    public void startListening() {
+        listener = new Thread(this::listenUntilStopped, "budget-alert-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        scheduler.shutdownNow();
+        streams.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    @Override
+    public void onSpendChanged(Long userId, Collection<String> categories) {
+        if (thresholds.length == 0 || categories.isEmpty()) {
+            return;
+        }
+        Set<String> userCategories = pending.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet());
+        for (String category : categories) {
+            userCategories.add(category.toLowerCase(Locale.ROOT));
+        }
+        if (evaluationScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::evaluatePending, window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public List<BudgetAlertDto> getUserAlerts(Long userId) {
+        requireUser(userId);
+        return jdbcTemplate.query(RECENT_SQL, ALERT_MAPPER, userId);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        requireUser(userId);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Set<SseEmitter> emitters = streams.computeIfAbsent(userId, k -> new CopyOnWriteArraySet<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> emitters.remove(emitter));
+        if (lastEventId != null) {
+            // registered first, so an alert raised meanwhile may arrive twice but never not at all; ids tell apart
+            for (BudgetAlertDto alert : jdbcTemplate.query(AFTER_SQL, ALERT_MAPPER, userId, lastEventId)) {
+                if (!send(emitter, alert)) {
+                    break;
+                }
+            }
+        }
+        return emitter;
+    }
+
+    private void evaluatePending() {
+        // cleared before draining: a change queued from here on schedules the next evaluation
+        evaluationScheduled.set(false);
+        Map<Long, Set<String>> batch = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            Set<String> categories = pending.remove(userId);
+            if (categories != null) {
+                batch.put(userId, categories);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // streamed once the listener hears of them, on this instance like on any other
+            transactionTemplate.executeWithoutResult(status -> evaluate(batch));
+        } catch (DataAccessException | TransactionException ex) {
+            // the next spend change in these categories evaluates them again
+            log.warn("Could not evaluate budget alerts for {} users", batch.size(), ex);
+        }
+    }
+
+    private void listenUntilStopped() {
+        while (!stopped) {
+            try (Connection connection = dataSource.getConnection()) {
+                listen(connection);
+            } catch (SQLException | RuntimeException ex) {
+                if (stopped) {
+                    return;
+                }
+                // alerts committed while not listening reach clients only when they reconnect with Last-Event-ID
+                log.warn("Lost the budget alert listener connection, listening again in {} ms", RELISTEN_DELAY_MILLIS, ex);
+                try {
+                    Thread.sleep(RELISTEN_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (!stopped) {
+            PGNotification[] notifications = pgConnection.getNotifications(LISTEN_POLL_MILLIS);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                forward(notification.getParameter());
+            }
+        }
+    }
+
+    private void forward(String payload) {
+        int separator = payload.indexOf(':');
+        long userId = Long.parseLong(payload.substring(0, separator));
+        Set<SseEmitter> emitters = streams.get(userId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        long alertId = Long.parseLong(payload.substring(separator + 1));
+        jdbcTemplate.query(BY_ID_SQL, ALERT_MAPPER, alertId).forEach(this::publish);
+    }
+
+    private void evaluate(Map<Long, Set<String>> batch) {
+        Long[] userIds = batch.keySet().toArray(new Long[0]);
+        String[] categories = batch.values().stream().flatMap(Set::stream).distinct().toArray(String[]::new);
+        List<Candidate> candidates = jdbcTemplate.query(CANDIDATES_SQL, (rs, rowNum) -> new Candidate(
+                rs.getLong("id"), rs.getLong("user_id"), rs.getString("category"),
+                rs.getBigDecimal("amount"), rs.getBigDecimal("spent"), rs.getInt("alert_level")), userIds, categories);
+
+        for (Candidate budget : candidates) {
+            // the query pairs every user with every category, only the pairs that changed count
+            if (!batch.get(budget.userId).contains(budget.category.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            int level = levelOf(budget.spent, budget.amount);
+            if (level == budget.alertLevel || jdbcTemplate.update(SET_LEVEL_SQL, level, budget.id, budget.alertLevel) == 0) {
+                continue;
+            }
+            if (level > budget.alertLevel) {
+                jdbcTemplate.update(INSERT_SQL, budget.id, budget.userId, budget.category, level, budget.amount, budget.spent);
+            }
+        }
+    }
+
+    private int levelOf(BigDecimal spent, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return 0;
+        }
+        BigDecimal percentTimesAmount = spent.multiply(BigDecimal.valueOf(100));
+        int level = 0;
+        for (int threshold : thresholds) {
+            if (percentTimesAmount.compareTo(amount.multiply(BigDecimal.valueOf(threshold))) < 0) {
+                break;
+            }
+            level = threshold;
+        }
+        return level;
+    }
+
+    private void publish(BudgetAlertDto alert) {
+        Set<SseEmitter> emitters = streams.get(alert.getUserId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            if (!send(emitter, alert)) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, BudgetAlertDto alert) {
+        try {
+            emitter.send(SseEmitter.event().id(String.valueOf(alert.getId())).name(EVENT_NAME).data(alert));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // the client went away
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+    }
+
+    private record Candidate(long id, long userId, String category, BigDecimal amount, BigDecimal spent,
+                             int alertLevel) {
+    }
+}
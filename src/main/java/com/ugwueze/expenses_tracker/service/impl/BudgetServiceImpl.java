@@ -1,20 +1,29 @@
 package com.ugwueze.expenses_tracker.service.impl;
 
+import com.ugwueze.expenses_tracker.config.CacheConfig;
 import com.ugwueze.expenses_tracker.dto.BudgetDto;
+import com.ugwueze.expenses_tracker.dto.BudgetUtilizationDto;
 import com.ugwueze.expenses_tracker.entity.Budget;
 import com.ugwueze.expenses_tracker.entity.User;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
 import com.ugwueze.expenses_tracker.repository.BudgetRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
 import com.ugwueze.expenses_tracker.service.BudgetService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
 import com.ugwueze.expenses_tracker.service.ExpenseService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import com.ugwueze.expenses_tracker.util.BudgetIntervalIndex;
 import com.ugwueze.expenses_tracker.util.BudgetMapper;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -24,33 +33,46 @@ public class BudgetServiceImpl implements BudgetService {
     private final BudgetRepository budgetRepository;
     private final UserRepository userRepository;
     private final ExpenseService expenseService;
+    private final ExpenseRollupService rollupService;
+    private final UserDataVersionService dataVersionService;
+    private final CacheManager cacheManager;
 
     private final BudgetMapper budgetMapper;
 
     public BudgetServiceImpl(BudgetRepository budgetRepository,
                              UserRepository userRepository,
                              ExpenseService expenseService,
+                             ExpenseRollupService rollupService,
+                             UserDataVersionService dataVersionService,
+                             CacheManager cacheManager,
                              BudgetMapper budgetMapper) {
         this.budgetRepository = budgetRepository;
         this.userRepository = userRepository;
         this.expenseService = expenseService;
+        this.rollupService = rollupService;
+        this.dataVersionService = dataVersionService;
+        this.cacheManager = cacheManager;
         this.budgetMapper = budgetMapper;
     }
 
     @Override
+    @Transactional
     public BudgetDto createBudget(BudgetDto budgetDto) {
         if (budgetDto == null || budgetDto.getUserId() == null) {
             throw new IllegalArgumentException("budget and userId are required");
         }
-        User user = userRepository.findById(budgetDto.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + budgetDto.getUserId()));
+        User user = requireUserReference(budgetDto.getUserId());
 
         Budget entity = BudgetMapper.toEntity(budgetDto, user);
         Budget saved = budgetRepository.save(entity);
+        rollupService.recomputeBudgetSpent(user.getId(), saved.getId());
+        evictBudgetIndex(user.getId());
+        dataVersionService.touch(user.getId());
         return budgetMapper.toDto(saved);
     }
 
     @Override
+    @Transactional
     public BudgetDto updateBudget(Long id, BudgetDto budgetDto) {
         if (id == null || budgetDto == null || budgetDto.getUserId() == null) {
             throw new IllegalArgumentException("id, budgetDto and userId are required");
@@ -62,15 +84,18 @@ public class BudgetServiceImpl implements BudgetService {
             throw new ResourceNotFoundException("Budget not found for user: " + budgetDto.getUserId());
         }
 
-        User user = userRepository.findById(budgetDto.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + budgetDto.getUserId()));
+        User user = requireUserReference(budgetDto.getUserId());
 
         BudgetMapper.updateEntity(budgetDto, existing, user);
         Budget saved = budgetRepository.save(existing);
+        rollupService.recomputeBudgetSpent(user.getId(), saved.getId());
+        evictBudgetIndex(user.getId());
+        dataVersionService.touch(user.getId());
         return budgetMapper.toDto(saved);
     }
 
     @Override
+    @Transactional
     public void deleteBudget(Long id, Long userId) {
         if (id == null || userId == null) {
             throw new IllegalArgumentException("id and userId are required");
@@ -81,6 +106,8 @@ public class BudgetServiceImpl implements BudgetService {
             throw new ResourceNotFoundException("Budget not found for user: " + userId);
         }
         budgetRepository.deleteById(id);
+        evictBudgetIndex(userId);
+        dataVersionService.touch(userId);
     }
 
     @Override
@@ -119,14 +146,7 @@ public class BudgetServiceImpl implements BudgetService {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
-        LocalDate today = LocalDate.now();
-        List<Budget> budgets = budgetRepository.findByUserId(userId);
-        return budgets.stream()
-                .filter(b -> category.equalsIgnoreCase(b.getCategory()))
-                .filter(b -> !b.getStartDate().isAfter(today) && !b.getEndDate().isBefore(today))
-                .findFirst()
-                .map(budgetMapper::toDto)
-                .orElse(null);
+        return budgetIndex(userId).findActive(category, LocalDate.now()).orElse(null);
     }
 
     @Override
@@ -139,10 +159,70 @@ public class BudgetServiceImpl implements BudgetService {
         if (current == null) {
             return false;
         }
-        LocalDate start = current.getStartDate();
-        LocalDate end = current.getEndDate();
-        BigDecimal spent = expenseService.getTotalExpensesByDateRange(userId, start, end);
+        BigDecimal spent = budgetRepository.findSpentById(current.getId()).orElse(BigDecimal.ZERO);
         BigDecimal budgetAmount = current.getAmount() != null ? current.getAmount() : BigDecimal.ZERO;
         return spent.compareTo(budgetAmount) > 0;
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BudgetUtilizationDto> getBudgetUtilization(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        List<Budget> budgets = budgetRepository.findActiveBudgetsByUserAndDate(userId, LocalDate.now());
+        if (budgets.isEmpty()) {
+            // only worth a lookup when there is nothing else to show
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User not found with id: " + userId);
+            }
+            return List.of();
+        }
+
+        LocalDate start = budgets.stream().map(Budget::getStartDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate end = budgets.stream().map(Budget::getEndDate).max(Comparator.naturalOrder()).orElseThrow();
+        List<Long> budgetIds = budgets.stream().map(Budget::getId).toList();
+        Map<Long, BigDecimal> spentByBudget = expenseService.getSpentByBudget(userId, budgetIds, start, end);
+
+        return budgets.stream()
+                .sorted(Comparator.comparing(Budget::getCategory, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(Budget::getId))
+                .map(b -> toUtilization(b, spentByBudget.getOrDefault(b.getId(), BigDecimal.ZERO)))
+                .collect(Collectors.toList());
+    }
+
+    private static BudgetUtilizationDto toUtilization(Budget budget, BigDecimal spent) {
+        BigDecimal amount = budget.getAmount() != null ? budget.getAmount() : BigDecimal.ZERO;
+        BigDecimal percentUsed = amount.signum() > 0
+                ? spent.multiply(BigDecimal.valueOf(100)).divide(amount, 2, RoundingMode.HALF_UP)
+                : null;
+        return BudgetUtilizationDto.builder()
+                .budgetId(budget.getId())
+                .category(budget.getCategory())
+                .budgetAmount(amount)
+                .spentAmount(spent)
+                .remainingAmount(amount.subtract(spent))
+                .percentUsed(percentUsed)
+                .build();
+    }
+
+    private BudgetIntervalIndex budgetIndex(Long userId) {
+        // loaded under the cache's per-key lock: an eviction racing the load waits for it and then discards it,
+        // so a write is never hidden by an index read just before it
+        return cacheManager.getCache(CacheConfig.BUDGET_INDEXES).get(userId, () -> BudgetIntervalIndex.of(
+                budgetRepository.findByUserId(userId).stream().map(budgetMapper::toDto).toList()));
+    }
+
+    private void evictBudgetIndex(Long userId) {
+        // deferred to after commit by the transaction-aware cache manager, so a load in between cannot cache the
+        // budgets as they were before this write
+        cacheManager.getCache(CacheConfig.BUDGET_INDEXES).evict(userId);
+    }
+
+    private User requireUserReference(Long userId) {
+        if (!userRepository.existsByIdUncached(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return userRepository.getReferenceById(userId);
+    }
+}
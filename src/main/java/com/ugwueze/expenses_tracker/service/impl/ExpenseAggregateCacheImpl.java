@@ -0,0 +1,162 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ugwueze.expenses_tracker.dto.ExpenseSummaryDto;
+import com.ugwueze.expenses_tracker.service.ExpenseAggregateCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+@Service
+public class ExpenseAggregateCacheImpl implements ExpenseAggregateCache {
+
+    public static final String CACHE_NAME = "expenseAggregates";
+
+    // rough retained sizes; they only have to keep the cache near its memory budget
+    private static final int ENTRY_BYTES = 256;
+    private static final int MAP_ENTRY_BYTES = 128;
+
+    private final AsyncCache<Key, Object> cache;
+    // the cached keys of each user with the load that owns them; a user's map only changes inside compute
+    private final ConcurrentMap<Long, Map<Key, CompletableFuture<Object>>> keysByUser = new ConcurrentHashMap<>();
+
+    public ExpenseAggregateCacheImpl(@Value("${cache.expense-aggregates.max-memory:32MB}") DataSize maxMemory,
+                                     @Value("${cache.expense-aggregates.ttl:PT5M}") Duration ttl,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        // the TTL bounds how long a write made through another instance can go unnoticed here
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher(ExpenseAggregateCacheImpl::weigh)
+                .expireAfterWrite(ttl)
+                .evictionListener((Key key, Object value, RemovalCause cause) -> {
+                    if (key != null) {
+                        unindex(key, null);
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, Aggregate aggregate, LocalDate startDate, LocalDate endDate, Supplier<T> loader) {
+        // a read-write transaction may see its own uncommitted changes, which must not reach other callers
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+
+        Key key = new Key(userId, aggregate, startDate, endDate);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> result = cache.get(key, (k, executor) -> load);
+        if (result == load) {
+            // indexed before loading, so a commit that lands mid-load still finds and drops this entry
+            index(key, load);
+            try {
+                load.complete(loader.get());
+            } catch (RuntimeException | Error ex) {
+                load.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                // failed and null loads are not kept, and an invalidation may have dropped the entry meanwhile
+                if (cache.asMap().get(key) != load) {
+                    unindex(key, load);
+                }
+            }
+        }
+        try {
+            return (T) result.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    @Override
+    public void invalidate(Long userId, Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        NavigableSet<LocalDate> sorted = days instanceof NavigableSet<LocalDate> set ? set : new TreeSet<>(days);
+        List<Key> stale = new ArrayList<>();
+        keysByUser.computeIfPresent(userId, (id, keys) -> {
+            keys.keySet().removeIf(key -> {
+                boolean covered = key.covers(sorted);
+                if (covered) {
+                    stale.add(key);
+                }
+                return covered;
+            });
+            return keys.isEmpty() ? null : keys;
+        });
+        // unindexed first: an entry loaded in between is either dropped here or caught by its loader's check
+        cache.synchronous().invalidateAll(stale);
+    }
+
+    @Override
+    public void invalidateAll() {
+        keysByUser.clear();
+        cache.synchronous().invalidateAll();
+    }
+
+    private void index(Key key, CompletableFuture<Object> load) {
+        keysByUser.compute(key.userId(), (id, keys) -> {
+            Map<Key, CompletableFuture<Object>> result = keys != null ? keys : new HashMap<>();
+            result.put(key, load);
+            return result;
+        });
+    }
+
+    // with a load given, only that load's index entry is removed, never one a later load has put in its place
+    private void unindex(Key key, CompletableFuture<Object> load) {
+        keysByUser.computeIfPresent(key.userId(), (id, keys) -> {
+            if (load == null) {
+                keys.remove(key);
+            } else {
+                keys.remove(key, load);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    static int weigh(Key key, Object value) {
+        int bytes = ENTRY_BYTES;
+        if (value instanceof Map<?, ?> map) {
+            for (Object category : map.keySet()) {
+                bytes += MAP_ENTRY_BYTES + 2 * String.valueOf(category).length();
+            }
+        } else if (value instanceof ExpenseSummaryDto summary) {
+            bytes += 2 * (summary.getPeriod().length() + summary.getTopCategory().length());
+        }
+        return bytes;
+    }
+
+    record Key(Long userId, Aggregate aggregate, LocalDate startDate, LocalDate endDate) {
+
+        boolean covers(NavigableSet<LocalDate> days) {
+            LocalDate first = days.ceiling(startDate);
+            return first != null && !first.isAfter(endDate);
+        }
+    }
+}
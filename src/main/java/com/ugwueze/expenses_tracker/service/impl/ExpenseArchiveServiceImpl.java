@@ -0,0 +1,336 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.exception.LeaseLostException;
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.JobLeaseService;
+import com.ugwueze.expenses_tracker.service.JobLeaseService.Lease;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentReader;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentWriter;
+import com.ugwueze.expenses_tracker.util.MergingIterator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+@Service
+public class ExpenseArchiveServiceImpl implements ExpenseArchiveService {
+
+    static final String JOB_NAME = "expense-archive";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PARTIAL_SUFFIX = ".part";
+    // segments are memory-mapped whole, so they have to stay well below the 2 GiB mapping limit
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final int FETCH_SIZE = 1000;
+
+    // deleting and reading back in one statement means exactly the rows written to the segment leave the table
+    private static final String ARCHIVE_SQL = """
+            WITH moved AS (DELETE FROM expenses WHERE date < ? RETURNING *)
+            SELECT id, user_id, date, description, category, payment_method, amount, notes, created_at, updated_at
+            FROM moved
+            ORDER BY user_id, date, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDataVersionService dataVersionService;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path archiveDir;
+    private final int retentionYears;
+    private final int blockRows;
+    private final Duration leaseTtl;
+    private final List<ExpenseSegmentReader> segments = new CopyOnWriteArrayList<>();
+    // segment files already loaded or found unreadable, so a refresh only opens new ones
+    private final Set<Path> seen = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ExpenseArchiveServiceImpl(JdbcTemplate jdbcTemplate,
+                                     UserDataVersionService dataVersionService,
+                                     JobLeaseService jobLeaseService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${expenses.archive.dir:./data/expense-archive}") Path archiveDir,
+                                     @Value("${expenses.archive.retention-years:0}") int retentionYears,
+                                     @Value("${expenses.archive.block-rows:1024}") int blockRows,
+                                     @Value("${expenses.archive.lease-ttl:PT1H}") Duration leaseTtl) {
+        if (retentionYears < 0) {
+            throw new IllegalArgumentException("expenses.archive.retention-years must not be negative");
+        }
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("expenses.archive.block-rows must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataVersionService = dataVersionService;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveDir = archiveDir;
+        this.retentionYears = retentionYears;
+        this.blockRows = blockRows;
+        this.leaseTtl = leaseTtl;
+        try {
+            Files.createDirectories(archiveDir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create expense archive directory " + archiveDir, ex);
+        }
+        refreshSegments();
+        log.info("Loaded {} expense archive segment(s) from {}", segments.size(), archiveDir);
+    }
+
+    @Override
+    public long archiveBefore(LocalDate cutoff) {
+        Optional<Lease> acquired = jobLeaseService.tryAcquire(JOB_NAME, leaseTtl);
+        if (acquired.isEmpty()) {
+            log.info("Expenses are being archived by another instance");
+            return 0;
+        }
+        Lease lease = acquired.get();
+        long runId = jobLeaseService.startRun(lease);
+        JobRunStatus status = JobRunStatus.FAILED;
+        long moved = 0;
+        try {
+            moved = transactionTemplate.execute(tx -> {
+                // held FOR SHARE until commit, so the lease cannot pass to another instance mid-run
+                jobLeaseService.checkHeld(lease);
+                return archiveLocked(cutoff);
+            });
+            status = JobRunStatus.SUCCEEDED;
+        } catch (LeaseLostException ex) {
+            status = JobRunStatus.LEASE_LOST;
+            throw ex;
+        } finally {
+            jobLeaseService.finishRun(runId, status, (int) Math.min(moved, Integer.MAX_VALUE), 0, 0);
+            jobLeaseService.release(lease);
+        }
+        return moved;
+    }
+
+    private long archiveLocked(LocalDate cutoff) {
+        // a .part file belongs to an archive run that never committed, and only the lease holder writes them
+        deletePartials();
+        PendingSegments pending = new PendingSegments();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ARCHIVE_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, cutoff);
+            return ps;
+        }, (RowCallbackHandler) rs -> pending.write(rs.getLong("user_id"), mapRow(rs)));
+
+        pending.finish();
+        if (pending.rowCount > 0) {
+            log.info("Archived {} expenses dated before {} into {} segment(s)", pending.rowCount, cutoff,
+                    pending.parts.size());
+        }
+        return pending.rowCount;
+    }
+
+    @Override
+    public long archiveExpired() {
+        if (retentionYears == 0) {
+            return 0;
+        }
+        // whole calendar years only, so every run adds one tidy segment instead of a day's worth of rows
+        return archiveBefore(LocalDate.now().minusYears(retentionYears).withDayOfYear(1));
+    }
+
+    @Override
+    public long archivedCount() {
+        return segments.stream().mapToLong(ExpenseSegmentReader::getRowCount).sum();
+    }
+
+    @Override
+    public Stream<Expense> streamArchived(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<Iterator<Expense>> sources = new ArrayList<>();
+        for (ExpenseSegmentReader segment : segments) {
+            Iterator<Expense> rows = segment.read(userId, startDate, endDate);
+            if (rows.hasNext()) {
+                sources.add(rows);
+            }
+        }
+        if (sources.isEmpty()) {
+            return Stream.empty();
+        }
+        Iterator<Expense> merged = sources.size() == 1 ? sources.get(0) : new MergingIterator<>(sources, ORDER);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static Expense mapRow(ResultSet rs) throws SQLException {
+        String paymentMethod = rs.getString("payment_method");
+        return Expense.builder()
+                .id(rs.getLong("id"))
+                .date(rs.getObject("date", LocalDate.class))
+                .description(rs.getString("description"))
+                .category(rs.getString("category"))
+                .paymentMethod(paymentMethod != null ? PaymentMethod.valueOf(paymentMethod) : null)
+                .amount(rs.getBigDecimal("amount"))
+                .notes(rs.getString("notes"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                .build();
+    }
+
+    @Override
+    public synchronized void refreshSegments() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(archiveDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                load(file);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not list expense archive segments in {}", archiveDir, ex);
+        }
+    }
+
+    private void load(Path segment) {
+        if (!seen.add(segment)) {
+            return;
+        }
+        try {
+            segments.add(ExpenseSegmentReader.open(segment));
+        } catch (IOException | RuntimeException ex) {
+            // one bad file should not take the other segments, or the application, down with it
+            log.error("Skipping unreadable expense archive segment {}; its expenses are missing from listings",
+                    segment, ex);
+        }
+    }
+
+    private void deletePartials() {
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(archiveDir, "*" + PARTIAL_SUFFIX)) {
+            for (Path file : partials) {
+                deleteQuietly(file);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not clean up partial archive segments in {}", archiveDir, ex);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete archive file {}", file, ex);
+        }
+    }
+
+    /**
+     * Segment files written by one archive run. They are published only if the delete commits: the files are
+     * renamed into place just before commit and removed again if the transaction does not complete.
+     */
+    private final class PendingSegments implements TransactionSynchronization {
+        private final List<Path> parts = new ArrayList<>();
+        private final List<Path> published = new ArrayList<>();
+        private ExpenseSegmentWriter writer;
+        private long rowCount;
+        private long lastUserId;
+
+        private void write(long userId, Expense expense) {
+            // rows arrive grouped by user; archived rows drop out of the user's live listings
+            if (rowCount == 0 || userId != lastUserId) {
+                dataVersionService.touch(userId);
+                lastUserId = userId;
+            }
+            try {
+                if (writer == null || writer.size() >= MAX_SEGMENT_BYTES) {
+                    closeWriter();
+                    Path part = archiveDir.resolve(SEGMENT_PREFIX + UUID.randomUUID() + PARTIAL_SUFFIX);
+                    parts.add(part);
+                    writer = new ExpenseSegmentWriter(part, blockRows);
+                }
+                writer.write(userId, expense);
+                rowCount++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not write expense archive segment", ex);
+            }
+        }
+
+        private void finish() {
+            try {
+                closeWriter();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not write expense archive segment", ex);
+            }
+        }
+
+        private void closeWriter() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            try {
+                if (!writer.isFinished()) {
+                    writer.finish();
+                }
+            } finally {
+                writer.close();
+                writer = null;
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                for (Path part : parts) {
+                    String name = part.getFileName().toString();
+                    Path segment = part.resolveSibling(name.substring(0, name.length() - PARTIAL_SUFFIX.length())
+                            + SEGMENT_SUFFIX);
+                    Files.move(part, segment, StandardCopyOption.ATOMIC_MOVE);
+                    published.add(segment);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not publish expense archive segment", ex);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                published.forEach(ExpenseArchiveServiceImpl.this::load);
+                return;
+            }
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ex) {
+                    log.debug("Could not close discarded archive segment", ex);
+                }
+            }
+            parts.forEach(ExpenseArchiveServiceImpl::deleteQuietly);
+            published.forEach(ExpenseArchiveServiceImpl::deleteQuietly);
+        }
+    }
+}
@@ -1,90 +1,118 @@
 package com.ugwueze.expenses_tracker.service.impl;
 
 import com.ugwueze.expenses_tracker.entity.Expense;
-import com.ugwueze.expenses_tracker.entity.User;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
 import com.ugwueze.expenses_tracker.service.ExpenseExportService;
-import com.ugwueze.expenses_tracker.util.CsvUtils;
+import com.ugwueze.expenses_tracker.util.CsvWriter;
+import com.ugwueze.expenses_tracker.util.ExpenseArrowWriter;
+import com.ugwueze.expenses_tracker.util.MergingIterator;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ExpenseExportServiceImpl implements ExpenseExportService {
 
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
-
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private final ExpenseArchiveService archiveService;
+    private final EntityManager entityManager;
+    private final int arrowBatchSize;
 
     @Autowired
     public ExpenseExportServiceImpl(ExpenseRepository expenseRepository,
-                                    UserRepository userRepository) {
+                                    UserRepository userRepository,
+                                    ExpenseArchiveService archiveService,
+                                    EntityManager entityManager,
+                                    @Value("${export.arrow.batch-size:8192}") int arrowBatchSize) {
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
+        this.archiveService = archiveService;
+        this.entityManager = entityManager;
+        this.arrowBatchSize = arrowBatchSize;
     }
 
     @Override
     @Transactional(readOnly = true)
     public void streamExpensesAsCsv(Long userId, LocalDate startDate, LocalDate endDate, Writer writer) throws IOException {
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new ResourceNotFoundException("UserNot Found"));
+        requireUser(userId);
 
+        CsvWriter csv = new CsvWriter(writer);
+        csv.row("id", "date", "description", "category", "payment_method", "amount", "notes", "created_at", "updated_at");
+        forEachExpense(userId, startDate, endDate, e -> writeRow(e, csv));
+        csv.flush();
+    }
 
-        List<Expense> expenses;
-        Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("date").ascending());
+    @Override
+    @Transactional(readOnly = true)
+    public void streamExpensesAsArrow(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        requireUser(userId);
 
-        if (startDate != null && endDate != null) {
-            expenses = expenseRepository
-                    .findByUserIdAndDateBetween(userId, startDate, endDate);
-        } else if (startDate != null) {
-            expenses = expenseRepository
-                    .findByUserIdAndDateGreaterThanEqual(userId, startDate, pageable)
-                    .getContent();
-        } else if (endDate != null) {
-            expenses = expenseRepository
-                    .findByUserIdAndDateLessThanEqual(userId, endDate, pageable)
-                    .getContent();
-        } else {
-            expenses = expenseRepository
-                    .findByUserId(userId, pageable)
-                    .getContent();
+        try (ExpenseArrowWriter arrow = new ExpenseArrowWriter(out, arrowBatchSize)) {
+            arrow.start();
+            forEachExpense(userId, startDate, endDate, arrow::write);
+            arrow.finish();
         }
+    }
 
-        writer.write(CsvUtils.joinCsvRow("id", "date", "description", "category", "payment_method", "amount", "notes", "created_at", "updated_at"));
-        writer.write("\n");
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("UserNot Found");
+        }
+    }
 
-        for (Expense e : expenses) {
-            String id = e.getId() == null ? "" : String.valueOf(e.getId());
-            String date = e.getDate() == null ? "" : e.getDate().format(DATE_FORMATTER);
-            String description = e.getDescription();
-            String category = e.getCategory();
-            String paymentMethod = e.getPaymentMethod() == null ? "" : e.getPaymentMethod().name();
-            String amount = formatAmount(e.getAmount());
-            String notes = e.getNotes();
-            String created = e.getCreatedAt() == null ? "" : e.getCreatedAt().toString();
-            String updated = e.getUpdatedAt() == null ? "" : e.getUpdatedAt().toString();
+    private void forEachExpense(Long userId, LocalDate startDate, LocalDate endDate, ExpenseHandler handler) throws IOException {
+        try (Stream<Expense> archived = archiveService.streamArchived(userId, startDate, endDate);
+             Stream<Expense> expenses = openExpenseStream(userId, startDate, endDate)) {
+            Iterator<Expense> iterator = new MergingIterator<>(List.of(archived.iterator(), expenses.iterator()),
+                    ExpenseArchiveService.ORDER);
+            while (iterator.hasNext()) {
+                Expense e = iterator.next();
+                handler.handle(e);
+                // rows are written as soon as they are fetched, so nothing needs to stay managed
+                entityManager.detach(e);
+            }
+        }
+    }
 
-            writer.write(CsvUtils.joinCsvRow(id, date, description, category, paymentMethod, amount, notes, created, updated));
-            writer.write("\n");
+    private Stream<Expense> openExpenseStream(Long userId, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null) {
+            return expenseRepository.streamByUserIdAndDateBetween(userId, startDate, endDate);
+        } else if (startDate != null) {
+            return expenseRepository.streamByUserIdAndDateGreaterThanEqual(userId, startDate);
+        } else if (endDate != null) {
+            return expenseRepository.streamByUserIdAndDateLessThanEqual(userId, endDate);
         }
+        return expenseRepository.streamByUserId(userId);
+    }
 
-        writer.flush();
+    private void writeRow(Expense e, CsvWriter csv) throws IOException {
+        csv.field(e.getId())
+                .field(e.getDate())
+                .field(e.getDescription())
+                .field(e.getCategory())
+                .field(e.getPaymentMethod())
+                .field(e.getAmount())
+                .field(e.getNotes())
+                .field(e.getCreatedAt())
+                .field(e.getUpdatedAt())
+                .endRow();
     }
 
-    private String formatAmount(BigDecimal amount) {
-        if (amount == null) return "";
-        return amount.stripTrailingZeros().toPlainString();
+    @FunctionalInterface
+    private interface ExpenseHandler {
+        void handle(Expense expense) throws IOException;
     }
 }
@@ -0,0 +1,345 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.dto.ExpenseDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseImportResultDto;
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.ExpenseImportService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import com.ugwueze.expenses_tracker.util.CsvReader;
+import com.ugwueze.expenses_tracker.util.CsvWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Digits;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+public class ExpenseImportServiceImpl implements ExpenseImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportServiceImpl.class);
+
+    // same layout as the CSV export; id is accepted but ignored, new ids are always generated
+    private static final List<String> COLUMNS = List.of(
+            "id", "date", "description", "category", "payment_method", "amount", "notes", "created_at", "updated_at");
+    private static final List<String> REQUIRED_COLUMNS = List.of("date", "description", "category", "amount");
+
+    private static final String INSERT_COLUMNS =
+            "id, user_id, date, description, category, payment_method, amount, notes, created_at, updated_at";
+    private static final String INSERT_SQL =
+            "INSERT INTO expenses (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String COPY_SQL =
+            "COPY expenses (" + INSERT_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    // must match the pooled-lo @SequenceGenerator on Expense: each nextval reserves [value, value + 50)
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String ID_BLOCKS_SQL = "SELECT nextval('expenses_seq') FROM generate_series(1, ?)";
+
+    private final UserRepository userRepository;
+    private final ExpenseRollupService rollupService;
+    private final UserDataVersionService dataVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public ExpenseImportServiceImpl(UserRepository userRepository,
+                                    ExpenseRollupService rollupService,
+                                    UserDataVersionService dataVersionService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    Validator validator,
+                                    @Value("${import.batch-size:1000}") int batchSize,
+                                    @Value("${import.max-reported-errors:1000}") int maxReportedErrors) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("import.batch-size must be positive");
+        }
+        this.userRepository = userRepository;
+        this.rollupService = rollupService;
+        this.dataVersionService = dataVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ExpenseImportResultDto importExpensesFromCsv(Long userId, Reader reader) throws IOException {
+        if (!userRepository.existsByIdUncached(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        ExpenseImportResultDto result = new ExpenseImportResultDto();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        int[] columnIndex = resolveColumns(header);
+
+        try {
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+                ImportRow row = parseRow(record, header.size(), columnIndex, csv.getRecordLine(), result);
+                if (row != null) {
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        flush(userId, batch, result);
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (CsvReader.MalformedCsvException ex) {
+            // only detectable at end of input, so everything before it is still imported
+            result.setTotalRows(result.getTotalRows() + 1);
+            recordError(result, csv.getRecordLine(), List.of(ex.getMessage()));
+        }
+        if (!batch.isEmpty()) {
+            flush(userId, batch, result);
+        }
+        return result;
+    }
+
+    private int[] resolveColumns(List<String> header) {
+        int[] index = new int[COLUMNS.size()];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column < 0) {
+                throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+            }
+            if (index[column] >= 0) {
+                throw new IllegalArgumentException("Duplicate CSV column: " + header.get(i));
+            }
+            index[column] = i;
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (index[COLUMNS.indexOf(required)] < 0) {
+                throw new IllegalArgumentException("Missing required CSV column: " + required);
+            }
+        }
+        return index;
+    }
+
+    private ImportRow parseRow(List<String> record, int expectedColumns, int[] columnIndex, long line,
+                               ExpenseImportResultDto result) {
+        if (record.size() != expectedColumns) {
+            recordError(result, line, List.of("Expected " + expectedColumns + " columns but found " + record.size()));
+            return null;
+        }
+        Set<String> errors = new LinkedHashSet<>();
+        ExpenseDto dto = ExpenseDto.builder()
+                .description(value(record, columnIndex, "description"))
+                .category(value(record, columnIndex, "category"))
+                .notes(value(record, columnIndex, "notes"))
+                .date(parse(record, columnIndex, "date", LocalDate::parse, errors))
+                .amount(parse(record, columnIndex, "amount", BigDecimal::new, errors))
+                .paymentMethod(parse(record, columnIndex, "payment_method",
+                        v -> PaymentMethod.valueOf(v.toUpperCase(Locale.ROOT)), errors))
+                .build();
+        LocalDateTime createdAt = parse(record, columnIndex, "created_at", LocalDateTime::parse, errors);
+        LocalDateTime updatedAt = parse(record, columnIndex, "updated_at", LocalDateTime::parse, errors);
+
+        for (ConstraintViolation<ExpenseDto> v : validator.validate(dto)) {
+            errors.add(v.getPropertyPath() + ": " + v.getMessage());
+        }
+        if (dto.getAmount() != null) {
+            // rows skip the entity, so apply its column precision check here
+            for (ConstraintViolation<Expense> v : validator.validateValue(Expense.class, "amount", dto.getAmount())) {
+                if (v.getConstraintDescriptor().getAnnotation() instanceof Digits) {
+                    errors.add("amount: " + v.getMessage());
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            recordError(result, line, new ArrayList<>(errors));
+            return null;
+        }
+
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+        return new ImportRow(line, dto, created, updatedAt != null ? updatedAt : created);
+    }
+
+    private void flush(Long userId, List<ImportRow> batch, ExpenseImportResultDto result) {
+        assignIds(batch);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(userId, batch));
+            result.setImportedRows(result.getImportedRows() + batch.size());
+        } catch (DataAccessException | TransactionException ex) {
+            log.debug("Import batch of {} rows failed, retrying row by row: {}", batch.size(), ex.getMessage());
+            // isolate the offending rows so the rest of the batch still lands
+            for (ImportRow row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, userId, row));
+                        recordRollup(userId, row);
+                    });
+                    result.setImportedRows(result.getImportedRows() + 1);
+                } catch (DataAccessException | TransactionException rowEx) {
+                    recordError(result, row.line, List.of(String.valueOf(NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage())));
+                }
+            }
+        }
+    }
+
+    private void assignIds(List<ImportRow> rows) {
+        int blocks = (rows.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> starts = jdbcTemplate.queryForList(ID_BLOCKS_SQL, Long.class, blocks);
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).id = starts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+        }
+    }
+
+    private void insertBatch(Long userId, List<ImportRow> rows) {
+        Boolean copied = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            if (!con.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            copyRows(con, userId, rows);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(copied)) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, userId, row));
+        }
+        rows.forEach(row -> recordRollup(userId, row));
+    }
+
+    // rows bypass JPA, so the entity listener never sees them
+    private void recordRollup(Long userId, ImportRow row) {
+        ExpenseDto dto = row.expense;
+        rollupService.recordAdded(userId, dto.getDate(), dto.getCategory(), dto.getAmount());
+        dataVersionService.touch(userId);
+    }
+
+    private void copyRows(Connection con, Long userId, List<ImportRow> rows) throws SQLException {
+        try (CsvWriter csv = new CsvWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(con.unwrap(PGConnection.class), COPY_SQL), StandardCharsets.UTF_8))) {
+            for (ImportRow row : rows) {
+                ExpenseDto dto = row.expense;
+                csv.field(row.id)
+                        .field(userId)
+                        .field(dto.getDate())
+                        .field(dto.getDescription())
+                        .field(dto.getCategory())
+                        .field(dto.getPaymentMethod())
+                        .field(dto.getAmount())
+                        .field(dto.getNotes())
+                        .field(row.createdAt)
+                        .field(row.updatedAt)
+                        .endRow();
+            }
+        } catch (IOException ex) {
+            throw new SQLException("COPY into expenses failed", ex);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Long userId, ImportRow row) throws SQLException {
+        ExpenseDto dto = row.expense;
+        ps.setLong(1, row.id);
+        ps.setLong(2, userId);
+        ps.setObject(3, dto.getDate());
+        ps.setString(4, dto.getDescription());
+        ps.setString(5, dto.getCategory());
+        if (dto.getPaymentMethod() != null) {
+            ps.setString(6, dto.getPaymentMethod().name());
+        } else {
+            ps.setNull(6, Types.VARCHAR);
+        }
+        ps.setBigDecimal(7, dto.getAmount());
+        ps.setString(8, dto.getNotes());
+        ps.setObject(9, row.createdAt);
+        ps.setObject(10, row.updatedAt);
+    }
+
+    private void recordError(ExpenseImportResultDto result, long line, List<String> messages) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ExpenseImportResultDto.RowError(line, messages));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String value(List<String> record, int[] columnIndex, String column) {
+        int i = columnIndex[COLUMNS.indexOf(column)];
+        if (i < 0) {
+            return null;
+        }
+        String v = record.get(i);
+        return v.isEmpty() ? null : v;
+    }
+
+    private static <T> T parse(List<String> record, int[] columnIndex, String column, ValueParser<T> parser,
+                               Set<String> errors) {
+        String v = value(record, columnIndex, column);
+        if (v == null || v.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.parse(v.trim());
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            errors.add(column + ": invalid value '" + v + "'");
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueParser<T> {
+        T parse(String value);
+    }
+
+    private static final class ImportRow {
+        private final long line;
+        private final ExpenseDto expense;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private long id;
+
+        private ImportRow(long line, ExpenseDto expense, LocalDateTime createdAt, LocalDateTime updatedAt) {
+            this.line = line;
+            this.expense = expense;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.dto.ExpensePartitionDto;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class ExpensePartitionServiceImpl implements ExpensePartitionService {
+
+    private static final String PARTITION_PREFIX = "expenses_";
+    private static final String ARCHIVE_PREFIX = "expenses_archived_";
+    private static final String DETACHED_SQL =
+            "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = current_schema() AND c.relkind = 'r' AND NOT c.relispartition "
+                    + "AND c.relname LIKE 'expenses\\_archived\\_%' ORDER BY c.relname";
+    private static final Pattern PARTITION_NAME = Pattern.compile("expenses_[a-z0-9_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDataVersionService dataVersionService;
+    private final String interval;
+    private final ChronoUnit unit;
+    private final int premake;
+
+    @Autowired
+    public ExpensePartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                       UserDataVersionService dataVersionService,
+                                       @Value("${expenses.partitions.interval:year}") String interval,
+                                       @Value("${expenses.partitions.premake:2}") int premake) {
+        this.interval = interval.toLowerCase();
+        this.unit = switch (this.interval) {
+            case "year" -> ChronoUnit.YEARS;
+            case "month" -> ChronoUnit.MONTHS;
+            default -> throw new IllegalArgumentException("expenses.partitions.interval must be year or month");
+        };
+        if (premake < 0) {
+            throw new IllegalArgumentException("expenses.partitions.premake must not be negative");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataVersionService = dataVersionService;
+        this.premake = premake;
+    }
+
+    @Override
+    public List<String> createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= premake; i++) {
+            String name = jdbcTemplate.queryForObject("SELECT create_expense_partition(?, ?)", String.class,
+                    interval, today.plus(i, unit));
+            if (name != null) {
+                log.info("Created expense partition {}", name);
+                created.add(name);
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public List<ExpensePartitionDto> listPartitions() {
+        return jdbcTemplate.query("SELECT partition_name, range_start, range_end FROM expense_partitions()",
+                (rs, rowNum) -> new ExpensePartitionDto(rs.getString(1),
+                        rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class)));
+    }
+
+    @Override
+    @Transactional
+    public List<String> detachPartitionsBefore(LocalDate cutoff) {
+        // DETACH needs a brief exclusive lock on expenses; give up rather than queue reads behind it
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        List<String> archived = new ArrayList<>();
+        for (ExpensePartitionDto partition : listPartitions()) {
+            if (partition.getRangeEnd() == null || partition.getRangeEnd().isAfter(cutoff)) {
+                continue;
+            }
+            String name = partition.getName();
+            if (!PARTITION_NAME.matcher(name).matches()) {
+                throw new IllegalStateException("Unexpected expense partition name: " + name);
+            }
+            String archiveName = ARCHIVE_PREFIX + name.substring(PARTITION_PREFIX.length());
+            jdbcTemplate.execute("ALTER TABLE expenses DETACH PARTITION \"" + name + "\"");
+            jdbcTemplate.execute("ALTER TABLE \"" + name + "\" RENAME TO \"" + archiveName + "\"");
+            // the detached rows are gone from every owner's listings
+            jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM \"" + archiveName + "\"", Long.class)
+                    .forEach(dataVersionService::touch);
+            log.info("Detached expense partition {} as {}", name, archiveName);
+            archived.add(archiveName);
+        }
+        return archived;
+    }
+
+    @Override
+    public List<String> listDetachedPartitions() {
+        return jdbcTemplate.queryForList(DETACHED_SQL, String.class);
+    }
+}
@@ -0,0 +1,385 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.service.BudgetAlertService;
+import com.ugwueze.expenses_tracker.service.ExpenseAggregateCache;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ExpenseRollupServiceImpl implements ExpenseRollupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO expense_daily_rollups (user_id, day, category, total, expense_count) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (user_id, day, category) DO UPDATE SET "
+                    + "total = expense_daily_rollups.total + EXCLUDED.total, "
+                    + "expense_count = expense_daily_rollups.expense_count + EXCLUDED.expense_count";
+    private static final String DELETE_EMPTY_SQL =
+            "DELETE FROM expense_daily_rollups WHERE user_id = ? AND day = ? AND category = ? AND expense_count <= 0";
+    private static final String REBUILD_SQL =
+            "INSERT INTO expense_daily_rollups (user_id, day, category, total, expense_count) "
+                    + "SELECT user_id, date, category, SUM(amount), COUNT(*) FROM expenses GROUP BY user_id, date, category";
+    // self-exclusive, so refreshes and rebuilds never interleave, while readers of the table are not blocked
+    private static final String MONTHLY_LOCK_SQL = "LOCK TABLE expense_monthly_rollups IN SHARE ROW EXCLUSIVE MODE";
+    private static final String MONTHLY_REFRESH_SQL =
+            "INSERT INTO expense_monthly_rollups (month, category, total, expense_count) "
+                    + "SELECT ?, category, SUM(total), SUM(expense_count) FROM expense_daily_rollups "
+                    + "WHERE day >= ? AND day < ? GROUP BY category";
+    private static final String MONTHLY_REBUILD_SQL =
+            "INSERT INTO expense_monthly_rollups (month, category, total, expense_count) "
+                    + "SELECT CAST(date_trunc('month', day) AS date), category, SUM(total), SUM(expense_count) "
+                    + "FROM expense_daily_rollups GROUP BY 1, category";
+    private static final String MONTHS_SQL =
+            "SELECT CAST(date_trunc('month', day) AS date) FROM expense_daily_rollups GROUP BY 1 "
+                    + "UNION SELECT month FROM expense_monthly_rollups";
+    private static final String BUDGET_INCREMENT_SQL =
+            "UPDATE budgets SET spent = spent + ? "
+                    + "WHERE user_id = ? AND LOWER(category) = LOWER(?) AND ? BETWEEN start_date AND end_date";
+    private static final String BUDGET_SPENT_FROM_ROLLUPS =
+            "COALESCE((SELECT SUM(r.total) FROM expense_daily_rollups r WHERE r.user_id = b.user_id "
+                    + "AND LOWER(r.category) = LOWER(b.category) AND r.day BETWEEN b.start_date AND b.end_date), 0)";
+    // Guards the set of budgets an expense change has to move. Writers moving budget spend share it, a budget
+    // write holds it exclusively: either the writer's rollups are committed before the budget's sum is taken, or
+    // the budget is committed before the writer's increment looks for it.
+    private static final String BUDGET_WRITERS_LOCK_SQL =
+            "SELECT id FROM users WHERE id = ANY (?) ORDER BY id FOR KEY SHARE";
+    private static final String BUDGET_OWNER_LOCK_SQL = "SELECT id FROM users WHERE id = ? FOR UPDATE";
+    private static final String BUDGET_LOCK_SQL = "SELECT user_id, category FROM budgets WHERE id = ? FOR UPDATE";
+    private static final String BUDGET_RECOMPUTE_SQL =
+            "UPDATE budgets b SET spent = " + BUDGET_SPENT_FROM_ROLLUPS + " WHERE b.id = ?";
+    private static final String BUDGET_DRIFTED_SQL =
+            "SELECT b.id FROM budgets b WHERE b.spent <> " + BUDGET_SPENT_FROM_ROLLUPS + " ORDER BY b.id";
+    private static final String BUDGET_REBUILD_SQL =
+            "UPDATE budgets b SET spent = " + BUDGET_SPENT_FROM_ROLLUPS + " WHERE b.spent <> " + BUDGET_SPENT_FROM_ROLLUPS;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ExpenseAggregateCache aggregateCache;
+    private final BudgetAlertService budgetAlertService;
+    private final TransactionTemplate transactionTemplate;
+    // first days of months whose daily rollups changed in transactions committed here, not yet refreshed
+    private final Set<LocalDate> changedMonths = ConcurrentHashMap.newKeySet();
+
+    public ExpenseRollupServiceImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                    ExpenseAggregateCache aggregateCache, BudgetAlertService budgetAlertService,
+                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.aggregateCache = aggregateCache;
+        this.budgetAlertService = budgetAlertService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void recordAdded(Long userId, LocalDate day, String category, BigDecimal amount) {
+        record(new Key(userId, day, category), amount, 1);
+    }
+
+    @Override
+    public void recordRemoved(Long userId, LocalDate day, String category, BigDecimal amount) {
+        record(new Key(userId, day, category), amount.negate(), -1);
+    }
+
+    @Override
+    public void bindToCurrentTransaction() {
+        pendingChanges();
+    }
+
+    @Override
+    public void flushPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.applyPending();
+        }
+    }
+
+    @Override
+    @Transactional
+    public long rebuild() {
+        // SHARE blocks expense writers (and waits for in-flight ones) until the new totals are committed
+        jdbcTemplate.execute("LOCK TABLE expenses IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM expense_daily_rollups");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        jdbcTemplate.execute(MONTHLY_LOCK_SQL);
+        jdbcTemplate.update("DELETE FROM expense_monthly_rollups");
+        jdbcTemplate.update(MONTHLY_REBUILD_SQL);
+        // expense writers are blocked, so nothing can move the counters between the read and the write
+        jdbcTemplate.update(BUDGET_REBUILD_SQL);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aggregateCache.invalidateAll();
+            return rows;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aggregateCache.invalidateAll();
+            }
+        });
+        return rows;
+    }
+
+    @Override
+    public int refreshChangedMonths() {
+        List<LocalDate> months = new ArrayList<>(changedMonths);
+        for (LocalDate month : months) {
+            // dropped before the refresh reads, so a commit landing meanwhile marks the month again
+            changedMonths.remove(month);
+            try {
+                transactionTemplate.executeWithoutResult(status -> refreshMonth(month));
+            } catch (RuntimeException ex) {
+                changedMonths.add(month);
+                throw ex;
+            }
+        }
+        return months.size();
+    }
+
+    @Override
+    public int refreshAllMonths() {
+        List<LocalDate> months = jdbcTemplate.queryForList(MONTHS_SQL, LocalDate.class);
+        // one short transaction per month, like the incremental refresh
+        for (LocalDate month : months) {
+            transactionTemplate.executeWithoutResult(status -> refreshMonth(month));
+        }
+        return months.size();
+    }
+
+    // The new rows are computed by a statement that starts after the lock, so it sees every daily rollup change
+    // committed before the refresh began.
+    private void refreshMonth(LocalDate month) {
+        jdbcTemplate.execute(MONTHLY_LOCK_SQL);
+        jdbcTemplate.update("DELETE FROM expense_monthly_rollups WHERE month = ?", month);
+        jdbcTemplate.update(MONTHLY_REFRESH_SQL, month, month, month.plusMonths(1));
+    }
+
+    private void markChanged(Collection<LocalDate> days) {
+        for (LocalDate day : days) {
+            changedMonths.add(day.withDayOfMonth(1));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recomputeBudgetSpent(Long userId, Long budgetId) {
+        // taken before the caller's budget row is written, since expense writers hold it before moving budgets
+        jdbcTemplate.queryForList(BUDGET_OWNER_LOCK_SQL, Long.class, userId);
+        // the caller's budget changes may still be pending in the persistence context, and the sum reads the row
+        flushEntityManager();
+        recomputeLocked(budgetId);
+    }
+
+    @Override
+    public int reconcileBudgetSpent() {
+        List<Long> drifted = jdbcTemplate.queryForList(BUDGET_DRIFTED_SQL, Long.class);
+        // one short transaction per budget, so expense writers wait on at most one budget row at a time
+        for (Long budgetId : drifted) {
+            transactionTemplate.executeWithoutResult(status -> recomputeLocked(budgetId));
+        }
+        return drifted.size();
+    }
+
+    // The lock waits out every uncommitted transaction that has already moved this budget, and the sum is a new
+    // statement, so it sees their rollup changes; writers arriving later add their delta on top once it commits.
+    private void recomputeLocked(Long budgetId) {
+        List<Map<String, Object>> budget = jdbcTemplate.queryForList(BUDGET_LOCK_SQL, budgetId);
+        if (budget.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(BUDGET_RECOMPUTE_SQL, budgetId);
+        // a new amount or category can cross a threshold without any expense changing
+        Long userId = ((Number) budget.get(0).get("user_id")).longValue();
+        Set<String> categories = Set.of((String) budget.get(0).get("category"));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                budgetAlertService.onSpendChanged(userId, categories);
+            }
+        });
+    }
+
+    private void flushEntityManager() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder != null) {
+            holder.getEntityManager().flush();
+        }
+    }
+
+    private void record(Key key, BigDecimal amount, int count) {
+        PendingChanges pending = pendingChanges();
+        if (pending == null) {
+            apply(Map.of(key, new Delta(amount, count)));
+            markChanged(Set.of(key.day));
+            aggregateCache.invalidate(key.userId, Set.of(key.day));
+            budgetAlertService.onSpendChanged(key.userId, Set.of(key.category));
+            return;
+        }
+        pending.add(key, amount, count);
+    }
+
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void apply(Map<Key, Delta> deltas) {
+        List<Object[]> upserts = new ArrayList<>(deltas.size());
+        List<Object[]> emptied = new ArrayList<>();
+        for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.count == 0 && delta.amount.signum() == 0) {
+                continue;
+            }
+            upserts.add(new Object[]{key.userId, key.day, key.category, delta.amount, delta.count});
+            if (delta.count < 0) {
+                emptied.add(new Object[]{key.userId, key.day, key.category});
+            }
+        }
+        if (upserts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        if (!emptied.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, emptied);
+        }
+        applyBudgets(deltas);
+    }
+
+    private void applyBudgets(Map<Key, Delta> deltas) {
+        // budgets match categories ignoring case, so they are locked in that order rather than the rollups'
+        TreeMap<Key, BigDecimal> ordered = new TreeMap<>(Key.BUDGET_ORDER);
+        for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+            if (entry.getValue().amount.signum() != 0) {
+                ordered.merge(entry.getKey(), entry.getValue().amount, BigDecimal::add);
+            }
+        }
+        if (ordered.isEmpty()) {
+            return;
+        }
+        Long[] userIds = ordered.keySet().stream().map(key -> key.userId).distinct().toArray(Long[]::new);
+        jdbcTemplate.queryForList(BUDGET_WRITERS_LOCK_SQL, Long.class, (Object) userIds);
+        List<Object[]> increments = new ArrayList<>(ordered.size());
+        ordered.forEach((key, amount) -> increments.add(new Object[]{amount, key.userId, key.category, key.day}));
+        jdbcTemplate.batchUpdate(BUDGET_INCREMENT_SQL, increments);
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        // sorted so concurrent transactions lock rollup rows in the same order
+        private final TreeMap<Key, Delta> deltas = new TreeMap<>();
+        // kept past applyPending, cached aggregates of these days go stale only once the transaction commits
+        private final Map<Long, TreeSet<LocalDate>> touchedDays = new TreeMap<>();
+        // likewise, budget alerts must only see committed spend
+        private final Map<Long, Set<String>> touchedCategories = new TreeMap<>();
+
+        void add(Key key, BigDecimal amount, int count) {
+            deltas.computeIfAbsent(key, k -> new Delta(BigDecimal.ZERO, 0)).add(amount, count);
+            touchedDays.computeIfAbsent(key.userId, k -> new TreeSet<>()).add(key.day);
+            touchedCategories.computeIfAbsent(key.userId, k -> new TreeSet<>()).add(key.category);
+        }
+
+        void applyPending() {
+            // runs the Post* entity callbacks for changes not yet flushed, which record into this instance
+            flushEntityManager();
+            if (!deltas.isEmpty()) {
+                apply(deltas);
+                deltas.clear();
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            // ahead of the user data version bump, which locks the users' rows
+            return LOWEST_PRECEDENCE - 1;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            applyPending();
+        }
+
+        @Override
+        public void afterCommit() {
+            touchedDays.values().forEach(ExpenseRollupServiceImpl.this::markChanged);
+            touchedDays.forEach(aggregateCache::invalidate);
+            touchedCategories.forEach(budgetAlertService::onSpendChanged);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ExpenseRollupServiceImpl.this);
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.<Key, Long>comparing(k -> k.userId)
+                .thenComparing(k -> k.day)
+                .thenComparing(k -> k.category);
+        private static final Comparator<Key> BUDGET_ORDER = Comparator.<Key, Long>comparing(k -> k.userId)
+                .thenComparing(k -> k.category.toLowerCase(Locale.ROOT))
+                .thenComparing(k -> k.day)
+                .thenComparing(k -> k.category);
+
+        private final Long userId;
+        private final LocalDate day;
+        private final String category;
+
+        private Key(Long userId, LocalDate day, String category) {
+            this.userId = userId;
+            this.day = day;
+            this.category = category;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal amount;
+        private int count;
+
+        private Delta(BigDecimal amount, int count) {
+            this.amount = amount;
+            this.count = count;
+        }
+
+        private Delta add(BigDecimal amount, int count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+            return this;
+        }
+    }
+}
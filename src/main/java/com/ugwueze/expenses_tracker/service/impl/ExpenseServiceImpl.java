@@ -1,34 +1,57 @@
 package com.ugwueze.expenses_tracker.service.impl;
 
+import com.ugwueze.expenses_tracker.dto.CursorPageDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchRequestDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchResultDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseSummaryDto;
 import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
 import com.ugwueze.expenses_tracker.entity.Expense;
 import com.ugwueze.expenses_tracker.entity.User;
+import com.ugwueze.expenses_tracker.enums.BatchOperationType;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.ExpenseDailyRollupRepository;
+import com.ugwueze.expenses_tracker.repository.ExpenseMonthlyRollupRepository;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.ExpenseAggregateCache;
+import com.ugwueze.expenses_tracker.service.ExpenseAggregateCache.Aggregate;
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
 import com.ugwueze.expenses_tracker.service.ExpenseService;
+import com.ugwueze.expenses_tracker.util.ExpenseCursor;
 import com.ugwueze.expenses_tracker.util.ExpenseMapper;
+import com.ugwueze.expenses_tracker.util.MergingIterator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @Transactional
 public class ExpenseServiceImpl implements ExpenseService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
@@ -38,6 +61,21 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Autowired
     private ExpenseMapper expenseMapper;
 
+    @Autowired
+    private ExpenseDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Autowired
+    private ExpenseAggregateCache aggregateCache;
+
 
     public ExpenseServiceImpl() {
 
@@ -46,8 +84,7 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Override
     public ExpenseDto createExpense(ExpenseDto expenseDto) {
 
-        User user = userRepository.findById(expenseDto.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + expenseDto.getUserId()));
+        User user = requireUserReference(expenseDto.getUserId());
 
         Expense expense = expenseMapper.toEntity(expenseDto);
         expense.setUser(user);
@@ -76,6 +113,114 @@ public class ExpenseServiceImpl implements ExpenseService {
         expenseRepository.deleteByIdAndUserId(id, userId);
     }
 
+    @Override
+    public ExpenseBatchResultDto applyBatch(ExpenseBatchRequestDto request) {
+        Long userId = request.getUserId();
+        User user = requireUserReference(userId);
+
+        List<ExpenseBatchRequestDto.Operation> operations = request.getOperations();
+        Set<Long> referencedIds = new HashSet<>();
+        Set<Long> duplicateIds = new HashSet<>();
+        for (ExpenseBatchRequestDto.Operation operation : operations) {
+            if (operation.getOp() != BatchOperationType.CREATE && operation.getId() != null
+                    && !referencedIds.add(operation.getId())) {
+                duplicateIds.add(operation.getId());
+            }
+        }
+        Map<Long, Expense> existing = new HashMap<>();
+        if (!referencedIds.isEmpty()) {
+            for (Expense expense : expenseRepository.findByUserIdAndIdIn(userId, referencedIds)) {
+                existing.put(expense.getId(), expense);
+            }
+        }
+
+        // check every operation before writing anything, so a rejected batch leaves no partial changes
+        ExpenseBatchResultDto result = new ExpenseBatchResultDto();
+        boolean valid = true;
+        for (int i = 0; i < operations.size(); i++) {
+            ExpenseBatchRequestDto.Operation operation = operations.get(i);
+            ExpenseBatchResultDto.ItemResult item =
+                    new ExpenseBatchResultDto.ItemResult(i, operation.getOp(), operation.getId());
+            String error = checkBatchOperation(operation, existing, duplicateIds);
+            if (error != null) {
+                item.setSuccess(false);
+                item.setError(error);
+                valid = false;
+            }
+            result.getResults().add(item);
+        }
+        if (!valid) {
+            return result;
+        }
+
+        Expense[] touched = new Expense[operations.size()];
+        List<Expense> toCreate = new ArrayList<>();
+        List<Expense> toDelete = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            ExpenseBatchRequestDto.Operation operation = operations.get(i);
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    Expense expense = expenseMapper.toEntity(operation.getExpense());
+                    expense.setId(null);
+                    expense.setUser(user);
+                    toCreate.add(expense);
+                    touched[i] = expense;
+                }
+                case UPDATE -> {
+                    Expense expense = existing.get(operation.getId());
+                    expenseMapper.updateEntityFromDto(operation.getExpense(), expense);
+                    expense.setUser(user);
+                    touched[i] = expense;
+                }
+                case DELETE -> toDelete.add(existing.get(operation.getId()));
+            }
+        }
+
+        // persisted and removed in one flush, so Hibernate groups the statements into JDBC batches
+        expenseRepository.saveAll(toCreate);
+        expenseRepository.deleteAll(toDelete);
+        expenseRepository.flush();
+
+        for (int i = 0; i < operations.size(); i++) {
+            if (touched[i] != null) {
+                ExpenseBatchResultDto.ItemResult item = result.getResults().get(i);
+                item.setId(touched[i].getId());
+                item.setExpense(expenseMapper.toDto(touched[i]));
+            }
+        }
+        result.setCreated(toCreate.size());
+        result.setDeleted(toDelete.size());
+        result.setUpdated(operations.size() - toCreate.size() - toDelete.size());
+        result.setApplied(true);
+        return result;
+    }
+
+    private static String checkBatchOperation(ExpenseBatchRequestDto.Operation operation,
+                                              Map<Long, Expense> existing,
+                                              Set<Long> duplicateIds) {
+        BatchOperationType op = operation.getOp();
+        if (op == BatchOperationType.CREATE) {
+            if (operation.getId() != null) {
+                return "Id must not be set for CREATE";
+            }
+            return operation.getExpense() == null ? "Expense is required for CREATE" : null;
+        }
+        Long id = operation.getId();
+        if (id == null) {
+            return "Id is required for " + op;
+        }
+        if (op == BatchOperationType.UPDATE && operation.getExpense() == null) {
+            return "Expense is required for UPDATE";
+        }
+        if (duplicateIds.contains(id)) {
+            return "Expense " + id + " is referenced by more than one operation";
+        }
+        if (!existing.containsKey(id)) {
+            return "Expense not found with id: " + id;
+        }
+        return null;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ExpenseDto getExpenseById(Long id, Long userId) {
@@ -96,6 +241,41 @@ public class ExpenseServiceImpl implements ExpenseService {
                 .map(expenseMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ExpenseDto> getUserExpensesByCursor(Long userId, String cursor, int size, boolean descending) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        ExpenseCursor position = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        if (position != null) {
+            descending = position.isDescending();
+        }
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Expense> slice;
+        if (position == null) {
+            slice = descending
+                    ? expenseRepository.findFirstSliceByUserIdDesc(userId, pageable)
+                    : expenseRepository.findFirstSliceByUserIdAsc(userId, pageable);
+            // only check the user when there is nothing to return, keeping the common path to a single query
+            if (slice.isEmpty() && !userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User not found with id: " + userId);
+            }
+        } else if (descending) {
+            slice = expenseRepository.findSliceByUserIdBefore(userId, position.getDate(), position.getId(), pageable);
+        } else {
+            slice = expenseRepository.findSliceByUserIdAfter(userId, position.getDate(), position.getId(), pageable);
+        }
+
+        List<ExpenseDto> content = slice.map(expenseMapper::toDto).getContent();
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Expense last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new ExpenseCursor(last.getDate(), last.getId(), descending).encode();
+        }
+        return new CursorPageDto<>(content, size, slice.hasNext(), nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ExpenseDto> getExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
@@ -103,27 +283,52 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
 
-        return expenseRepository.findByUserIdAndDateBetween(userId, startDate, endDate)
-                .stream()
-                .map(expenseMapper::toDto)
-                .collect(Collectors.toList());
+        List<Expense> live = expenseRepository.findByUserIdAndDateBetweenOrderByDateAscIdAsc(userId, startDate, endDate);
+        List<ExpenseDto> result = new ArrayList<>(live.size());
+        try (Stream<Expense> archived = archiveService.streamArchived(userId, startDate, endDate)) {
+            Iterator<Expense> merged = new MergingIterator<>(List.of(archived.iterator(), live.iterator()),
+                    ExpenseArchiveService.ORDER);
+            merged.forEachRemaining(e -> result.add(expenseMapper.toDto(e)));
+        }
+        return result;
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        return expenseRepository.getTotalExpensesByUserAndDateRange(userId, startDate, endDate)
-                .orElse(BigDecimal.ZERO);
+        return aggregateCache.get(userId, Aggregate.TOTAL, startDate, endDate, () -> {
+            rollupService.flushPending();
+            return rollupRepository.sumTotal(userId, startDate, endDate)
+                    .orElse(BigDecimal.ZERO);
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> getCategoryWiseExpenses(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = expenseRepository.getCategoryWiseExpenses(userId, startDate, endDate);
+        return aggregateCache.get(userId, Aggregate.CATEGORY_WISE, startDate, endDate, () -> {
+            rollupService.flushPending();
+            List<Object[]> results = rollupRepository.sumTotalByCategory(userId, startDate, endDate);
+
+            return Collections.unmodifiableMap(results.stream()
+                    .collect(Collectors.toMap(
+                            result -> (String) result[0],
+                            result -> (BigDecimal) result[1]
+                    )));
+        });
+    }
 
-        return results.stream()
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getSpentByBudget(Long userId, Collection<Long> budgetIds,
+                                                  LocalDate startDate, LocalDate endDate) {
+        if (budgetIds.isEmpty()) {
+            return Map.of();
+        }
+        rollupService.flushPending();
+        return rollupRepository.sumTotalByBudget(userId, budgetIds, startDate, endDate).stream()
                 .collect(Collectors.toMap(
-                        result -> (String) result[0],
+                        result -> (Long) result[0],
                         result -> (BigDecimal) result[1]
                 ));
     }
@@ -131,22 +336,41 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Override
     @Transactional(readOnly = true)
     public ExpenseSummaryDto getExpenseSummary(Long userId, LocalDate startDate, LocalDate endDate) {
+        ExpenseSummaryDto summary = aggregateCache.get(userId, Aggregate.SUMMARY, startDate, endDate,
+                () -> summarize(userId, startDate, endDate));
+        // the cached instance is shared, callers get their own copy
+        return new ExpenseSummaryDto(summary.getPeriod(), summary.getTotalAmount(), summary.getTotalExpenses(),
+                summary.getTopCategory(), summary.getTopCategoryAmount());
+    }
 
-        BigDecimal totalAmount = getTotalExpensesByDateRange(userId, startDate, endDate);
-        List<ExpenseDto> expenses = getExpensesByDateRange(userId, startDate, endDate);
-        Map<String, BigDecimal> categoryWise = getCategoryWiseExpenses(userId, startDate, endDate);
-
-        String topCategory = categoryWise.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("No expenses");
+    private ExpenseSummaryDto summarize(Long userId, LocalDate startDate, LocalDate endDate) {
+        rollupService.flushPending();
+        List<Object[]> categories = rollupRepository.summarizeByCategory(userId, startDate, endDate);
+        if (categories.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
 
-        BigDecimal topCategoryAmount = categoryWise.getOrDefault(topCategory, BigDecimal.ZERO);
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long expenseCount = 0;
+        String topCategory = null;
+        BigDecimal topCategoryAmount = BigDecimal.ZERO;
+        for (Object[] row : categories) {
+            BigDecimal amount = (BigDecimal) row[1];
+            totalAmount = totalAmount.add(amount);
+            expenseCount += ((Number) row[2]).longValue();
+            if (topCategory == null || amount.compareTo(topCategoryAmount) > 0) {
+                topCategory = (String) row[0];
+                topCategoryAmount = amount;
+            }
+        }
+        if (topCategory == null) {
+            topCategory = "No expenses";
+        }
 
         return ExpenseSummaryDto.builder()
                 .period(startDate + " to " + endDate)
                 .totalAmount(totalAmount)
-                .totalExpenses((long) expenses.size())
+                .totalExpenses(expenseCount)
                 .topCategory(topCategory)
                 .topCategoryAmount(topCategoryAmount)
                 .build();
@@ -182,52 +406,48 @@ public class ExpenseServiceImpl implements ExpenseService {
         LocalDate start = LocalDate.of(year, 1, 1);
         LocalDate end = LocalDate.of(year, 12, 31);
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndDateBetween(userId, start, end);
-
-        Map<Integer, BigDecimal> monthly = java.util.stream.IntStream.rangeClosed(1, 12)
-                .boxed()
-                .collect(Collectors.toMap(m -> m, m -> BigDecimal.ZERO, (a, b) -> a, java.util.LinkedHashMap::new));
-
-        for (Expense e : expenses) {
-            if (e == null) {
-                continue;
-            }
-            LocalDate d = e.getDate();
-            if (d == null) {
-                continue;
-            }
-            int month = d.getMonthValue();
-            BigDecimal amount = e.getAmount() != null ? e.getAmount() : BigDecimal.ZERO;
-            amount = amount.setScale(2, java.math.RoundingMode.HALF_UP);
-            monthly.merge(month, amount, BigDecimal::add);
+        rollupService.flushPending();
+        Map<Integer, BigDecimal> result = new java.util.LinkedHashMap<>();
+        for (Object[] row : rollupRepository.sumPositiveTotalByMonth(userId, start, end)) {
+            result.put(((Number) row[0]).intValue(), ((BigDecimal) row[1]).setScale(2, java.math.RoundingMode.HALF_UP));
         }
 
-        Map<Integer, BigDecimal> result = monthly.entrySet().stream()
-                .filter(entry -> entry.getValue() != null && entry.getValue().compareTo(BigDecimal.ZERO) > 0)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (a, b) -> a,
-                        java.util.LinkedHashMap::new
-                ));
-
         return result;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlySummaryDto> getUserMonthlySummary(Long userId, int year, int month) {
+        LocalDate from = LocalDate.of(year, month, 1);
+        rollupService.flushPending();
+        List<Object[]> rows = rollupRepository.findCategoryTotals(userId, from, from.plusMonths(1));
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return toMonthlySummary(rows);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<MonthlySummaryDto> getMonthlySummary(int year, int month) {
-        List<Object[]> rows = expenseRepository.findCategoryTotalsByYearAndMonth(year, month);
-        List<MonthlySummaryDto> result = new ArrayList<>(rows.size());
-        BigDecimal overall = BigDecimal.ZERO;
+        return toMonthlySummary(monthlyRollupRepository.findCategoryTotals(LocalDate.of(year, month, 1)));
+    }
 
+    private List<MonthlySummaryDto> toMonthlySummary(List<Object[]> rows) {
+        List<MonthlySummaryDto> result = new ArrayList<>(rows.size());
         for (Object[] row : rows) {
             String category = row[0] != null ? row[0].toString() : "Uncategorized";
             BigDecimal total = row[1] instanceof BigDecimal ? (BigDecimal) row[1] : new BigDecimal(row[1].toString());
-            overall = overall.add(total);
             result.add(new MonthlySummaryDto(category, total));
         }
         return result;
     }
 
+    // the reference is an unloaded proxy that only carries the id
+    private User requireUserReference(Long userId) {
+        if (!userRepository.existsByIdUncached(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return userRepository.getReferenceById(userId);
+    }
 }
@@ -0,0 +1,225 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.config.ExportJobConfig;
+import com.ugwueze.expenses_tracker.dto.ExportJobDto;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+import com.ugwueze.expenses_tracker.exception.ExportJobNotReadyException;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.ExpenseExportService;
+import com.ugwueze.expenses_tracker.service.ExportJobService;
+import com.ugwueze.expenses_tracker.service.ExportJobStore;
+import com.ugwueze.expenses_tracker.service.ExportJobStore.ExportJob;
+import com.ugwueze.expenses_tracker.util.CompressionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobServiceImpl.class);
+    private static final String FILE_PREFIX = "export-";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final ExpenseExportService expenseExportService;
+    private final UserRepository userRepository;
+    private final ExportJobStore jobStore;
+    private final TaskExecutor exportJobExecutor;
+    private final Path spoolDir;
+    private final Duration ttl;
+    private final Duration maxRuntime;
+
+    @Autowired
+    public ExportJobServiceImpl(ExpenseExportService expenseExportService,
+                                UserRepository userRepository,
+                                ExportJobStore jobStore,
+                                @Qualifier(ExportJobConfig.EXPORT_JOB_EXECUTOR) TaskExecutor exportJobExecutor,
+                                @Value("${export.jobs.spool-dir:${java.io.tmpdir}/expense-exports}") Path spoolDir,
+                                @Value("${export.jobs.ttl:PT1H}") Duration ttl,
+                                @Value("${export.jobs.max-runtime:PT1H}") Duration maxRuntime) {
+        this.expenseExportService = expenseExportService;
+        this.userRepository = userRepository;
+        this.jobStore = jobStore;
+        this.exportJobExecutor = exportJobExecutor;
+        this.spoolDir = spoolDir;
+        this.ttl = ttl;
+        this.maxRuntime = maxRuntime;
+        initSpoolDir();
+    }
+
+    @Override
+    public ExportJobDto submitJob(Long userId, LocalDate startDate, LocalDate endDate, ExportFormat format) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        ExportFormat exportFormat = format == null ? ExportFormat.CSV : format;
+        // identical concurrent requests share one job, whichever instance they reach
+        String key = userId + "|" + startDate + "|" + endDate + "|" + exportFormat;
+
+        ExportJob candidate = new ExportJob(UUID.randomUUID().toString(), key, userId, startDate, endDate,
+                exportFormat, ExportJobStatus.PENDING, null, null, null, Instant.now(), null, null);
+        ExportJob job = jobStore.insertOrGetInFlight(candidate);
+        if (!job.id().equals(candidate.id())) {
+            return toDto(job);
+        }
+
+        try {
+            exportJobExecutor.execute(() -> run(candidate));
+        } catch (TaskRejectedException ex) {
+            jobStore.delete(candidate.id());
+            throw ex;
+        }
+        return toDto(candidate);
+    }
+
+    @Override
+    public ExportJobDto getJob(Long userId, String jobId) {
+        return toDto(findJob(userId, jobId));
+    }
+
+    @Override
+    public Path getResultFile(Long userId, String jobId) {
+        ExportJob job = findJob(userId, jobId);
+        if (job.status() != ExportJobStatus.COMPLETED) {
+            throw new ExportJobNotReadyException("Export job " + jobId + " is " + job.status());
+        }
+        Path file = Path.of(job.file());
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Export file no longer available for job: " + jobId);
+        }
+        return file;
+    }
+
+    @Override
+    public int purgeExpiredJobs() {
+        Instant now = Instant.now();
+        // jobs of an instance that stopped would otherwise stay in flight and absorb identical requests forever
+        List<String> stale = jobStore.failStale(now.minus(maxRuntime),
+                "Export did not finish within " + maxRuntime, now, now.plus(ttl));
+        for (String jobId : stale) {
+            deleteQuietly(partialFile(jobId));
+        }
+        if (!stale.isEmpty()) {
+            log.warn("Gave up on {} export jobs that did not finish within {}", stale.size(), maxRuntime);
+        }
+
+        List<ExportJob> expired = jobStore.deleteExpired(now);
+        for (ExportJob job : expired) {
+            if (job.file() != null) {
+                deleteQuietly(Path.of(job.file()));
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.debug("Purged {} expired export jobs", expired.size());
+        }
+        return expired.size();
+    }
+
+    private void run(ExportJob job) {
+        if (!jobStore.markRunning(job.id())) {
+            // given up on while it was queued
+            return;
+        }
+        Path partial = partialFile(job.id());
+        Path target = spoolDir.resolve(FILE_PREFIX + job.id() + job.format().getFileExtension());
+        try {
+            if (job.format() == ExportFormat.ARROW) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                    expenseExportService.streamExpensesAsArrow(job.userId(), job.startDate(), job.endDate(), out);
+                }
+            } else {
+                try (Writer writer = openWriter(partial, job.format())) {
+                    expenseExportService.streamExpensesAsCsv(job.userId(), job.startDate(), job.endDate(), writer);
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            Instant completedAt = Instant.now();
+            if (!jobStore.complete(job.id(), target.toAbsolutePath().toString(), Files.size(target),
+                    completedAt, completedAt.plus(ttl))) {
+                deleteQuietly(target);
+            }
+        } catch (Exception ex) {
+            log.warn("Export job {} for user {} failed", job.id(), job.userId(), ex);
+            deleteQuietly(partial);
+            deleteQuietly(target);
+            Instant failedAt = Instant.now();
+            jobStore.fail(job.id(), ex.getMessage(), failedAt, failedAt.plus(ttl));
+        }
+    }
+
+    private Path partialFile(String jobId) {
+        return spoolDir.resolve(FILE_PREFIX + jobId + PARTIAL_SUFFIX);
+    }
+
+    private Writer openWriter(Path file, ExportFormat format) throws IOException {
+        if (format == ExportFormat.CSV) {
+            return Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+        return CompressionUtils.newCsvWriter(Files.newOutputStream(file), format);
+    }
+
+    private ExportJob findJob(Long userId, String jobId) {
+        return jobStore.find(jobId)
+                .filter(job -> Objects.equals(job.userId(), userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Export job not found with id: " + jobId));
+    }
+
+    private void initSpoolDir() {
+        try {
+            // files already here belong to jobs in the table, possibly another instance's; purging removes them
+            Files.createDirectories(spoolDir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not prepare export spool directory " + spoolDir, ex);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", file, ex);
+        }
+    }
+
+    private static ExportJobDto toDto(ExportJob job) {
+        return ExportJobDto.builder()
+                .jobId(job.id())
+                .userId(job.userId())
+                .startDate(job.startDate())
+                .endDate(job.endDate())
+                .format(job.format())
+                .status(job.status())
+                .sizeBytes(job.sizeBytes())
+                .errorMessage(job.errorMessage())
+                .createdAt(job.createdAt())
+                .completedAt(job.completedAt())
+                .expiresAt(job.expiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+import com.ugwueze.expenses_tracker.service.ExportJobStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ExportJobStoreImpl implements ExportJobStore {
+
+    private static final String COLUMNS = "id, dedupe_key, user_id, start_date, end_date, format, status, file, "
+            + "size_bytes, error_message, created_at, completed_at, expires_at";
+    private static final String IN_FLIGHT = "status IN ('PENDING', 'RUNNING')";
+    private static final String INSERT_SQL =
+            "INSERT INTO export_jobs (id, dedupe_key, user_id, start_date, end_date, format, status, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 'PENDING', ?) "
+                    + "ON CONFLICT (dedupe_key) WHERE " + IN_FLIGHT + " DO NOTHING";
+    private static final String FIND_IN_FLIGHT_SQL =
+            "SELECT " + COLUMNS + " FROM export_jobs WHERE dedupe_key = ? AND " + IN_FLIGHT;
+    private static final String FIND_SQL = "SELECT " + COLUMNS + " FROM export_jobs WHERE id = ?";
+    private static final String RUNNING_SQL = "UPDATE export_jobs SET status = 'RUNNING' WHERE id = ? AND status = 'PENDING'";
+    private static final String COMPLETE_SQL =
+            "UPDATE export_jobs SET status = 'COMPLETED', file = ?, size_bytes = ?, completed_at = ?, expires_at = ? "
+                    + "WHERE id = ? AND " + IN_FLIGHT;
+    private static final String FAIL_SQL =
+            "UPDATE export_jobs SET status = 'FAILED', error_message = ?, completed_at = ?, expires_at = ? "
+                    + "WHERE id = ? AND " + IN_FLIGHT;
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM export_jobs WHERE expires_at <= ? AND status IN ('COMPLETED', 'FAILED') RETURNING " + COLUMNS;
+    private static final String FAIL_STALE_SQL =
+            "UPDATE export_jobs SET status = 'FAILED', error_message = ?, completed_at = ?, expires_at = ? "
+                    + "WHERE created_at < ? AND " + IN_FLIGHT + " RETURNING id";
+
+    private static final RowMapper<ExportJob> ROW_MAPPER = ExportJobStoreImpl::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportJobStoreImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public ExportJob insertOrGetInFlight(ExportJob job) {
+        while (true) {
+            int inserted = jdbcTemplate.update(INSERT_SQL, job.id(), job.dedupeKey(), job.userId(), job.startDate(),
+                    job.endDate(), job.format().name(), toTimestamp(job.createdAt()));
+            if (inserted == 1) {
+                return job;
+            }
+            List<ExportJob> existing = jdbcTemplate.query(FIND_IN_FLIGHT_SQL, ROW_MAPPER, job.dedupeKey());
+            if (!existing.isEmpty()) {
+                return existing.get(0);
+            }
+            // the conflicting job finished in between, so the insert goes through this time
+        }
+    }
+
+    @Override
+    public Optional<ExportJob> find(String id) {
+        return jdbcTemplate.query(FIND_SQL, ROW_MAPPER, id).stream().findFirst();
+    }
+
+    @Override
+    public boolean markRunning(String id) {
+        return jdbcTemplate.update(RUNNING_SQL, id) == 1;
+    }
+
+    @Override
+    public boolean complete(String id, String file, long sizeBytes, Instant completedAt, Instant expiresAt) {
+        return jdbcTemplate.update(COMPLETE_SQL, file, sizeBytes, toTimestamp(completedAt), toTimestamp(expiresAt), id) == 1;
+    }
+
+    @Override
+    public boolean fail(String id, String errorMessage, Instant completedAt, Instant expiresAt) {
+        return jdbcTemplate.update(FAIL_SQL, errorMessage, toTimestamp(completedAt), toTimestamp(expiresAt), id) == 1;
+    }
+
+    @Override
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM export_jobs WHERE id = ?", id);
+    }
+
+    @Override
+    public List<ExportJob> deleteExpired(Instant now) {
+        return jdbcTemplate.query(DELETE_EXPIRED_SQL, ROW_MAPPER, toTimestamp(now));
+    }
+
+    @Override
+    public List<String> failStale(Instant createdBefore, String errorMessage, Instant completedAt, Instant expiresAt) {
+        return jdbcTemplate.queryForList(FAIL_STALE_SQL, String.class, errorMessage, toTimestamp(completedAt),
+                toTimestamp(expiresAt), toTimestamp(createdBefore));
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static Instant toInstant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+    private static ExportJob mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ExportJob(
+                rs.getString("id"),
+                rs.getString("dedupe_key"),
+                rs.getLong("user_id"),
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("end_date", LocalDate.class),
+                ExportFormat.valueOf(rs.getString("format")),
+                ExportJobStatus.valueOf(rs.getString("status")),
+                rs.getString("file"),
+                rs.getObject("size_bytes", Long.class),
+                rs.getString("error_message"),
+                toInstant(rs, "created_at"),
+                toInstant(rs, "completed_at"),
+                toInstant(rs, "expires_at"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
+import com.ugwueze.expenses_tracker.exception.LeaseLostException;
+import com.ugwueze.expenses_tracker.service.JobLeaseService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class JobLeaseServiceImpl implements JobLeaseService {
+
+    // taking over an expired lease moves the fence on; the WHERE makes an unexpired one return no row
+    private static final String ACQUIRE_SQL =
+            "INSERT INTO job_leases (name, owner, fence, expires_at) "
+                    + "VALUES (?, ?, 1, LOCALTIMESTAMP + ? * INTERVAL '1 millisecond') "
+                    + "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, fence = job_leases.fence + 1, "
+                    + "expires_at = EXCLUDED.expires_at WHERE job_leases.expires_at <= LOCALTIMESTAMP "
+                    + "RETURNING fence";
+    private static final String RENEW_SQL =
+            "UPDATE job_leases SET expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 millisecond' WHERE name = ? AND fence = ?";
+    private static final String CHECK_SQL = "SELECT fence FROM job_leases WHERE name = ? FOR SHARE";
+    private static final String RELEASE_SQL = "UPDATE job_leases SET expires_at = LOCALTIMESTAMP WHERE name = ? AND fence = ?";
+    private static final String START_RUN_SQL =
+            "INSERT INTO job_runs (job_name, owner, fence, status) VALUES (?, ?, ?, ?) RETURNING id";
+    private static final String FINISH_RUN_SQL =
+            "UPDATE job_runs SET status = ?, finished_at = LOCALTIMESTAMP, "
+                    + "duration_ms = (EXTRACT(EPOCH FROM LOCALTIMESTAMP - started_at) * 1000)::bigint, "
+                    + "items_processed = ?, items_failed = ?, items_created = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    public JobLeaseServiceImpl(JdbcTemplate jdbcTemplate, @Value("${jobs.instance-id:}") String instanceId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    }
+
+    @Override
+    public Optional<Lease> tryAcquire(String jobName, Duration ttl) {
+        List<Long> fence = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class, jobName, owner, ttl.toMillis());
+        return fence.isEmpty() ? Optional.empty() : Optional.of(new Lease(jobName, owner, fence.get(0)));
+    }
+
+    @Override
+    public boolean renew(Lease lease, Duration ttl) {
+        return jdbcTemplate.update(RENEW_SQL, ttl.toMillis(), lease.jobName(), lease.fence()) == 1;
+    }
+
+    @Override
+    public void checkHeld(Lease lease) {
+        List<Long> fence = jdbcTemplate.queryForList(CHECK_SQL, Long.class, lease.jobName());
+        if (fence.isEmpty() || fence.get(0) != lease.fence()) {
+            throw new LeaseLostException("Lease on job " + lease.jobName() + " with fence " + lease.fence()
+                    + " has passed to another instance");
+        }
+    }
+
+    @Override
+    public void release(Lease lease) {
+        jdbcTemplate.update(RELEASE_SQL, lease.jobName(), lease.fence());
+    }
+
+    @Override
+    public long startRun(Lease lease) {
+        return jdbcTemplate.queryForObject(START_RUN_SQL, Long.class,
+                lease.jobName(), lease.owner(), lease.fence(), JobRunStatus.RUNNING.name());
+    }
+
+    @Override
+    public void finishRun(long runId, JobRunStatus status, int processed, int failed, int created) {
+        jdbcTemplate.update(FINISH_RUN_SQL, status.name(), processed, failed, created, runId);
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -4,53 +4,291 @@ package com.ugwueze.expenses_tracker.service.impl;
 import com.ugwueze.expenses_tracker.entity.Expense;
 import com.ugwueze.expenses_tracker.entity.RecurringExpense;
 import com.ugwueze.expenses_tracker.entity.User;
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
 import com.ugwueze.expenses_tracker.enums.RecurrenceType;
+import com.ugwueze.expenses_tracker.exception.LeaseLostException;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.RecurringExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.JobLeaseService;
+import com.ugwueze.expenses_tracker.service.JobLeaseService.Lease;
 import com.ugwueze.expenses_tracker.service.RecurringExpenseService;
 import com.ugwueze.expenses_tracker.util.RecurrenceUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 @Service
 public class RecurringExpenseServiceImpl implements RecurringExpenseService {
 
+    static final String JOB_NAME = "recurring-expenses";
+
     private final RecurringExpenseRepository recurringExpenseRepository;
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration leaseTtl;
+    private final ScheduledExecutorService heartbeatScheduler;
+
+    @Autowired
+    public RecurringExpenseServiceImpl(RecurringExpenseRepository recurringExpenseRepository,
+                                       ExpenseRepository expenseRepository,
+                                       UserRepository userRepository,
+                                       JobLeaseService jobLeaseService,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${recurring.processing.chunk-size:100}") int chunkSize,
+                                       @Value("${recurring.processing.parallelism:4}") int parallelism,
+                                       @Value("${recurring.processing.lease-ttl:PT10M}") Duration leaseTtl) {
+        this(recurringExpenseRepository, expenseRepository, userRepository, jobLeaseService, transactionManager,
+                chunkSize, parallelism, leaseTtl, Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, JOB_NAME + "-lease");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
 
-    public RecurringExpenseServiceImpl(RecurringExpenseRepository recurringExpenseRepository, ExpenseRepository expenseRepository, UserRepository userRepository) {
+    public RecurringExpenseServiceImpl(RecurringExpenseRepository recurringExpenseRepository,
+                                       ExpenseRepository expenseRepository,
+                                       UserRepository userRepository,
+                                       JobLeaseService jobLeaseService,
+                                       PlatformTransactionManager transactionManager,
+                                       int chunkSize,
+                                       int parallelism,
+                                       Duration leaseTtl,
+                                       ScheduledExecutorService heartbeatScheduler) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("recurring.processing.chunk-size and parallelism must be positive");
+        }
         this.recurringExpenseRepository = recurringExpenseRepository;
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.leaseTtl = leaseTtl;
+        this.heartbeatScheduler = heartbeatScheduler;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeatScheduler.shutdownNow();
     }
 
-    @Transactional
     @Override
     public void processDueRecurringExpenses() {
-        LocalDate today = LocalDate.now();
-        List<RecurringExpense> due = recurringExpenseRepository.findDueByDate(today);
-        for (RecurringExpense template : due) {
-            processRecurringTemplate(template);
+        Optional<Lease> acquired = jobLeaseService.tryAcquire(JOB_NAME, leaseTtl);
+        if (acquired.isEmpty()) {
+            log.info("Recurring expenses are being processed by another instance");
+            return;
+        }
+        Run run = new Run(acquired.get(), LocalDate.now());
+        long runId = jobLeaseService.startRun(run.lease);
+        JobRunStatus status = JobRunStatus.FAILED;
+        ScheduledFuture<?> heartbeat = startHeartbeat(run);
+        try {
+            processChunks(run);
+            sweep(run);
+            status = JobRunStatus.SUCCEEDED;
+        } catch (LeaseLostException ex) {
+            // chunks committed before the takeover stand, the new holder processes whatever is still due
+            status = JobRunStatus.LEASE_LOST;
+            log.warn("Stopped processing recurring expenses: {}", ex.getMessage());
+        } catch (InterruptedException ex) {
+            // committed chunks stand; the run is recorded as failed and the next one picks up the rest
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while processing recurring expenses");
+        } finally {
+            stopHeartbeat(run, heartbeat);
+            jobLeaseService.finishRun(runId, status, run.processed.get(), run.failed.get(), run.created.get());
+            jobLeaseService.release(run.lease);
+        }
+        log.info("Processed {} recurring expense templates ({} failed), created {} expenses",
+                run.processed.get(), run.failed.get(), run.created.get());
+    }
+
+    /**
+     * Renews the lease every third of its time to live for as long as the run lasts. Renewing from the workers
+     * instead would have each chunk's UPDATE wait for the others' share locks on the lease row.
+     */
+    private ScheduledFuture<?> startHeartbeat(Run run) {
+        long period = Math.max(1, leaseTtl.toMillis() / 3);
+        return heartbeatScheduler.scheduleAtFixedRate(() -> renewLease(run), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void renewLease(Run run) {
+        synchronized (run) {
+            if (run.finished) {
+                return;
+            }
+            try {
+                if (!jobLeaseService.renew(run.lease, leaseTtl)) {
+                    run.leaseLost = true;
+                }
+            } catch (RuntimeException ex) {
+                // two more beats are left before the lease expires
+                log.warn("Could not renew the lease on job {}", JOB_NAME, ex);
+            }
+        }
+    }
+
+    private void stopHeartbeat(Run run, ScheduledFuture<?> heartbeat) {
+        heartbeat.cancel(false);
+        // waits out a renewal in flight, so it cannot extend the lease after the release
+        synchronized (run) {
+            run.finished = true;
+        }
+    }
+
+    private void processChunks(Run run) throws InterruptedException {
+        List<Callable<Void>> workers = Collections.nCopies(parallelism, () -> {
+            while (processChunk(run, run.cursor)) {
+                // claim the next chunk
+            }
+            return null;
+        });
+        // each worker holds one connection at a time, so parallelism stays within the connection pool
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<Void> worker : executor.invokeAll(workers)) {
+                worker.get();
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Claims due templates from the start once more. SKIP LOCKED passed over any template that was locked, by an
+     * edit for instance, when the workers' cursor went by; templates this run already attempted are left alone.
+     */
+    private void sweep(Run run) {
+        int before = run.processed.get();
+        AtomicLong cursor = new AtomicLong();
+        while (processChunk(run, cursor)) {
+            // claim the next chunk
+        }
+        int pickedUp = run.processed.get() - before;
+        if (pickedUp > 0) {
+            log.info("Processed {} recurring expense templates that were locked during the first pass", pickedUp);
+        }
+    }
+
+    /**
+     * Claims and processes one chunk past {@code cursor} in its own transaction. Returns false once nothing is
+     * left to claim.
+     */
+    private boolean processChunk(Run run, AtomicLong cursor) {
+        if (run.leaseLost) {
+            throw new LeaseLostException("Lease on job " + JOB_NAME + " expired and was taken over");
+        }
+        List<Long> claimed = new ArrayList<>(chunkSize);
+        int[] created = new int[1];
+        boolean[] more = new boolean[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jobLeaseService.checkHeld(run.lease);
+                List<RecurringExpense> chunk = recurringExpenseRepository.claimDue(run.today, cursor.get(), chunkSize);
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                more[0] = true;
+                cursor.accumulateAndGet(chunk.get(chunk.size() - 1).getId(), Math::max);
+                List<RecurringExpense> fresh = chunk.stream().filter(t -> run.attempted.add(t.getId())).toList();
+                fresh.forEach(template -> claimed.add(template.getId()));
+                for (RecurringExpense template : fresh) {
+                    created[0] += processRecurringTemplate(template, run.today);
+                }
+            });
+        } catch (LeaseLostException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (claimed.isEmpty()) {
+                throw ex;
+            }
+            // the chunk was rolled back, redo it one template per transaction so only the failing ones are lost
+            log.warn("Recurring expense chunk of {} templates failed, retrying them one by one", claimed.size(), ex);
+            claimed.forEach(id -> processAlone(id, run));
+            return true;
         }
+        run.processed.addAndGet(claimed.size());
+        run.created.addAndGet(created[0]);
+        return more[0];
     }
 
+    private void processAlone(Long id, Run run) {
+        try {
+            Integer created = transactionTemplate.execute(status -> {
+                jobLeaseService.checkHeld(run.lease);
+                // null when the template is no longer due or another worker holds it
+                return recurringExpenseRepository.claimDueById(id, run.today)
+                        .map(template -> processRecurringTemplate(template, run.today))
+                        .orElse(null);
+            });
+            if (created != null) {
+                run.processed.incrementAndGet();
+                run.created.addAndGet(created);
+            }
+        } catch (LeaseLostException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            // the template stays due, the next run tries it again
+            run.failed.incrementAndGet();
+            log.warn("Could not process recurring expense template {}", id, ex);
+        }
+    }
+
+    /**
+     * Number of expenses created.
+     */
+    @Transactional
+    public int processRecurringTemplate(RecurringExpense template) {
+        return processRecurringTemplate(template, LocalDate.now());
+    }
 
+    /**
+     * Number of expenses created for occurrences up to and including {@code processingDate}.
+     */
     @Transactional
-    public void processRecurringTemplate(RecurringExpense template) {
+    public int processRecurringTemplate(RecurringExpense template, LocalDate processingDate) {
         if (template == null) {
-            return;
+            return 0;
         }
         if (!template.isActive()) {
-            return;
+            return 0;
         }
 
-        LocalDate processingDate = LocalDate.now();
         LocalDate candidate = template.getNextOccurrenceDate();
         LocalDate endDate = template.getEndDate();
         RecurrenceType recurrenceType = template.getRecurrenceType();
@@ -59,13 +297,13 @@ public class RecurringExpenseServiceImpl implements RecurringExpenseService {
         if (candidate == null) {
             template.setActive(false);
             recurringExpenseRepository.save(template);
-            return;
+            return 0;
         }
 
         if (interval <= 0) {
             template.setActive(false);
             recurringExpenseRepository.save(template);
-            return;
+            return 0;
         }
 
         RecurrenceType utilsType = convertToUtilsType(recurrenceType);
@@ -73,7 +311,7 @@ public class RecurringExpenseServiceImpl implements RecurringExpenseService {
         if (!RecurrenceUtils.isOccurrenceWithinEndDate(candidate, endDate)) {
             template.setActive(false);
             recurringExpenseRepository.save(template);
-            return;
+            return 0;
         }
 
         int createdCount = 0;
@@ -95,7 +333,7 @@ public class RecurringExpenseServiceImpl implements RecurringExpenseService {
         if (iterations >= safetyLimit) {
 
             recurringExpenseRepository.save(template);
-            return;
+            return createdCount;
         }
 
         if (!RecurrenceUtils.isOccurrenceWithinEndDate(candidate, endDate)) {
@@ -103,6 +341,7 @@ public class RecurringExpenseServiceImpl implements RecurringExpenseService {
         }
         template.setNextOccurrenceDate(candidate);
         recurringExpenseRepository.save(template);
+        return createdCount;
     }
 
     private void createExpenseFromTemplate(RecurringExpense template, LocalDate occurrenceDate) {
@@ -128,4 +367,28 @@ public class RecurringExpenseServiceImpl implements RecurringExpenseService {
             case YEARLY -> RecurrenceType.YEARLY;
         };
     }
+
+    // state shared by the workers of one run; counts only include committed work
+    private static final class Run {
+
+        private final Lease lease;
+        private final LocalDate today;
+        // the highest id claimed so far by the workers
+        private final AtomicLong cursor = new AtomicLong();
+        // a template still due after processing, such as one that hit the safety limit or failed, is left for
+        // the next run instead of being claimed again
+        private final Set<Long> attempted = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        // set by the heartbeat once a renewal finds the lease taken over
+        private volatile boolean leaseLost;
+        // guarded by the run's monitor, no renewal starts once it is set
+        private boolean finished;
+
+        Run(Lease lease, LocalDate today) {
+            this.lease = lease;
+            this.today = today;
+        }
+    }
 }
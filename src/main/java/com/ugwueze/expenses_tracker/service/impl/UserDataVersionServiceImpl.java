@@ -0,0 +1,100 @@
+package com.ugwueze.expenses_tracker.service.impl;
+
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+@Service
+public class UserDataVersionServiceImpl implements UserDataVersionService {
+
+    // strictly increasing even for two commits within the same microsecond
+    private static final String TOUCH_SQL = "UPDATE users SET data_updated_at = "
+            + "GREATEST(LOCALTIMESTAMP, data_updated_at + INTERVAL '1 microsecond') WHERE id = ?";
+    private static final String SELECT_SQL = "SELECT data_updated_at FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public UserDataVersionServiceImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void touch(Long userId) {
+        PendingTouches pending = pendingTouches();
+        if (pending == null) {
+            jdbcTemplate.update(TOUCH_SQL, userId);
+            return;
+        }
+        pending.userIds.add(userId);
+    }
+
+    @Override
+    public void bindToCurrentTransaction() {
+        pendingTouches();
+    }
+
+    @Override
+    public Optional<LocalDateTime> getDataVersion(Long userId) {
+        List<LocalDateTime> versions = jdbcTemplate.queryForList(SELECT_SQL, LocalDateTime.class, userId);
+        return versions.stream().findFirst();
+    }
+
+    private PendingTouches pendingTouches() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingTouches pending = (PendingTouches) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingTouches();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class PendingTouches implements TransactionSynchronization {
+
+        // sorted so concurrent transactions lock user rows in the same order
+        private final TreeSet<Long> userIds = new TreeSet<>();
+
+        @Override
+        public int getOrder() {
+            // after the rollup's own flush and upserts, so the user rows are the last locks taken and held briefly
+            return LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // runs the Post* entity callbacks for changes not yet flushed, which touch this instance
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+            if (holder != null) {
+                holder.getEntityManager().flush();
+            }
+            if (userIds.isEmpty()) {
+                return;
+            }
+            List<Object[]> args = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                args.add(new Object[]{userId});
+            }
+            jdbcTemplate.batchUpdate(TOUCH_SQL, args);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UserDataVersionServiceImpl.this);
+        }
+    }
+}
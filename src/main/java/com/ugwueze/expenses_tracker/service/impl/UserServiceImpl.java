@@ -1,5 +1,6 @@
 package com.ugwueze.expenses_tracker.service.impl;
 
+import com.ugwueze.expenses_tracker.config.CacheConfig;
 import com.ugwueze.expenses_tracker.dto.UserDto;
 import com.ugwueze.expenses_tracker.entity.User;
 import com.ugwueze.expenses_tracker.exception.DuplicateResourceException;
@@ -9,6 +10,7 @@ import com.ugwueze.expenses_tracker.service.UserService;
 import com.ugwueze.expenses_tracker.util.UserMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -66,8 +68,9 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.USER_IDS, CacheConfig.BUDGET_INDEXES}, key = "#id")
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        if (!userRepository.existsByIdUncached(id)) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
 
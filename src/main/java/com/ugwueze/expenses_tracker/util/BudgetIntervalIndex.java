@@ -0,0 +1,126 @@
+package com.ugwueze.expenses_tracker.util;
+
+import com.ugwueze.expenses_tracker.dto.BudgetDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable index of one user's budgets by category and date range. Each category's budgets are sorted by start
+ * date alongside the running maximum of their end dates, so finding the budget that covers a date takes two
+ * binary searches, even when ranges overlap.
+ */
+public final class BudgetIntervalIndex {
+
+    private static final Comparator<BudgetDto> BY_START = Comparator.comparing(BudgetDto::getStartDate)
+            .thenComparing(BudgetDto::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<String, Intervals> byCategory;
+    private final int size;
+
+    private BudgetIntervalIndex(Map<String, Intervals> byCategory, int size) {
+        this.byCategory = byCategory;
+        this.size = size;
+    }
+
+    public static BudgetIntervalIndex of(Collection<BudgetDto> budgets) {
+        Map<String, List<BudgetDto>> grouped = new HashMap<>();
+        int size = 0;
+        for (BudgetDto budget : budgets) {
+            if (budget.getCategory() == null || budget.getStartDate() == null || budget.getEndDate() == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(normalize(budget.getCategory()), k -> new ArrayList<>()).add(copy(budget));
+            size++;
+        }
+        Map<String, Intervals> byCategory = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((category, list) -> byCategory.put(category, new Intervals(list)));
+        return new BudgetIntervalIndex(byCategory, size);
+    }
+
+    /**
+     * The budget for the category, compared ignoring case, whose range includes the date. Where several do, the
+     * one that starts first.
+     */
+    public Optional<BudgetDto> findActive(String category, LocalDate date) {
+        Intervals intervals = byCategory.get(normalize(category));
+        return intervals == null ? Optional.empty() : intervals.find(date).map(BudgetIntervalIndex::copy);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String normalize(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    // BudgetDto is mutable and the index is shared, so nothing handed in or out is the stored instance
+    private static BudgetDto copy(BudgetDto budget) {
+        return BudgetDto.builder()
+                .id(budget.getId())
+                .category(budget.getCategory())
+                .amount(budget.getAmount())
+                .startDate(budget.getStartDate())
+                .endDate(budget.getEndDate())
+                .userId(budget.getUserId())
+                .build();
+    }
+
+    private static final class Intervals {
+
+        private final BudgetDto[] budgets;
+        private final LocalDate[] maxEnd;
+
+        Intervals(List<BudgetDto> list) {
+            budgets = list.toArray(new BudgetDto[0]);
+            Arrays.sort(budgets, BY_START);
+            maxEnd = new LocalDate[budgets.length];
+            LocalDate max = LocalDate.MIN;
+            for (int i = 0; i < budgets.length; i++) {
+                if (budgets[i].getEndDate().isAfter(max)) {
+                    max = budgets[i].getEndDate();
+                }
+                maxEnd[i] = max;
+            }
+        }
+
+        Optional<BudgetDto> find(LocalDate date) {
+            // last budget starting on or before the date
+            int lo = 0;
+            int hi = budgets.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (budgets[mid].getStartDate().isAfter(date)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            int last = lo - 1;
+            if (last < 0 || maxEnd[last].isBefore(date)) {
+                return Optional.empty();
+            }
+            // the first position where the running maximum reaches the date is a budget ending on or after it
+            lo = 0;
+            hi = last;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (maxEnd[mid].isBefore(date)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return Optional.of(budgets[lo]);
+        }
+    }
+}
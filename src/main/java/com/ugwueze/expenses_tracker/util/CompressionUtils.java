@@ -0,0 +1,85 @@
+package com.ugwueze.expenses_tracker.util;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public final class CompressionUtils {
+
+    private CompressionUtils() {
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int ZSTD_LEVEL = 3;
+
+    public static OutputStream compress(OutputStream out, ExportFormat format) throws IOException {
+        return switch (format) {
+            case CSV_GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case CSV_ZSTD -> new ZstdOutputStream(out, ZSTD_LEVEL);
+            default -> out;
+        };
+    }
+
+    /**
+     * Wraps {@code out} in a UTF-8 writer that compresses on the fly. Closing the writer
+     * finishes the compressed frame; leave it open on failure so clients see a truncated stream.
+     */
+    public static Writer newCsvWriter(OutputStream out, ExportFormat format) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(compress(out, format), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Picks the best supported compressed CSV variant from an {@code Accept-Encoding} header.
+     * zstd wins ties with gzip; returns {@link ExportFormat#CSV} when neither is acceptable.
+     */
+    public static ExportFormat negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return ExportFormat.CSV;
+        }
+        Double gzip = null;
+        Double zstd = null;
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double quality = parseQuality(tokens);
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "zstd" -> zstd = quality;
+                case "*" -> wildcard = quality;
+                default -> {
+                }
+            }
+        }
+        double gzipQuality = gzip != null ? gzip : wildcard;
+        double zstdQuality = zstd != null ? zstd : 0;
+        if (zstdQuality > 0 && zstdQuality >= gzipQuality) {
+            return ExportFormat.CSV_ZSTD;
+        }
+        if (gzipQuality > 0) {
+            return ExportFormat.CSV_GZIP;
+        }
+        return ExportFormat.CSV;
+    }
+
+    private static double parseQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
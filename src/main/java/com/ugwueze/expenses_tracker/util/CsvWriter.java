@@ -0,0 +1,315 @@
+package com.ugwueze.expenses_tracker.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Streaming CSV writer that escapes fields in a single pass straight into a reusable char buffer.
+ * Produces the same output as {@link CsvUtils#joinCsvRow(String...)} without allocating per row.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final char QUOTE = '"';
+    private static final char COMMA = ',';
+    private static final char NEWLINE = '\n';
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        long p = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = p;
+            p *= 10;
+        }
+    }
+
+    private final Writer out;
+    private final char[] buf;
+    private int pos;
+    private boolean rowStarted;
+
+    public CsvWriter(Writer out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvWriter(Writer out, int bufferSize) {
+        if (out == null) {
+            throw new IllegalArgumentException("writer must not be null");
+        }
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("bufferSize must be at least " + MIN_BUFFER_SIZE);
+        }
+        this.out = out;
+        this.buf = new char[bufferSize];
+    }
+
+    public CsvWriter row(String... fields) throws IOException {
+        if (fields != null) {
+            for (String field : fields) {
+                field(field);
+            }
+        }
+        return endRow();
+    }
+
+    public CsvWriter field(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int len = value.length();
+        if (2 * len + 2 > buf.length) {
+            writeLargeField(value);
+            return this;
+        }
+        ensure(2 * len + 2);
+        int start = pos;
+        int p = start;
+        boolean quote = false;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                buf[p++] = QUOTE;
+                quote = true;
+            } else if (c == COMMA || c == NEWLINE || c == '\r') {
+                quote = true;
+            }
+            buf[p++] = c;
+        }
+        if (quote) {
+            System.arraycopy(buf, start, buf, start + 1, p - start);
+            buf[start] = QUOTE;
+            p++;
+            buf[p++] = QUOTE;
+        }
+        pos = p;
+        return this;
+    }
+
+    public CsvWriter field(Enum<?> value) throws IOException {
+        return field(value == null ? null : value.name());
+    }
+
+    public CsvWriter field(Long value) throws IOException {
+        if (value == null) {
+            separator();
+            return this;
+        }
+        return field(value.longValue());
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        ensure(20);
+        appendLong(value);
+        return this;
+    }
+
+    public CsvWriter field(LocalDate value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (!isFourDigitYear(value.getYear())) {
+            appendPlain(value.toString());
+            return this;
+        }
+        ensure(10);
+        appendDate(value);
+        return this;
+    }
+
+    public CsvWriter field(LocalDateTime value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (!isFourDigitYear(value.getYear())) {
+            appendPlain(value.toString());
+            return this;
+        }
+        ensure(29);
+        appendDate(value.toLocalDate());
+        buf[pos++] = 'T';
+        appendTwoDigits(value.getHour());
+        buf[pos++] = ':';
+        appendTwoDigits(value.getMinute());
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            buf[pos++] = ':';
+            appendTwoDigits(second);
+            if (nano > 0) {
+                buf[pos++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    appendPadded(nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    appendPadded(nano / 1000, 6);
+                } else {
+                    appendPadded(nano, 9);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the amount the way {@code stripTrailingZeros().toPlainString()} would.
+     */
+    public CsvWriter field(BigDecimal value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int scale = value.scale();
+        if (scale < 0 || scale >= POWERS_OF_TEN.length || value.precision() >= POWERS_OF_TEN.length) {
+            appendPlain(value.stripTrailingZeros().toPlainString());
+            return this;
+        }
+        long unscaled = value.unscaledValue().longValue();
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        ensure(21);
+        if (unscaled < 0) {
+            buf[pos++] = '-';
+            unscaled = -unscaled;
+        }
+        if (scale == 0) {
+            appendLong(unscaled);
+            return this;
+        }
+        long divisor = POWERS_OF_TEN[scale];
+        appendLong(unscaled / divisor);
+        buf[pos++] = '.';
+        appendPadded(unscaled % divisor, scale);
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        ensure(1);
+        buf[pos++] = NEWLINE;
+        rowStarted = false;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (rowStarted) {
+            ensure(1);
+            buf[pos++] = COMMA;
+        } else {
+            rowStarted = true;
+        }
+    }
+
+    private void ensure(int chars) throws IOException {
+        if (pos + chars > buf.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private void writeLargeField(CharSequence value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == QUOTE || c == COMMA || c == NEWLINE || c == '\r';
+        }
+        if (quote) {
+            ensure(1);
+            buf[pos++] = QUOTE;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            ensure(2);
+            if (c == QUOTE) {
+                buf[pos++] = QUOTE;
+            }
+            buf[pos++] = c;
+        }
+        if (quote) {
+            ensure(1);
+            buf[pos++] = QUOTE;
+        }
+    }
+
+    private void appendPlain(String value) throws IOException {
+        ensure(value.length());
+        if (value.length() > buf.length) {
+            // the buffer is empty after ensure, keep the order by writing straight through
+            out.write(value);
+            return;
+        }
+        value.getChars(0, value.length(), buf, pos);
+        pos += value.length();
+    }
+
+    private void appendDate(LocalDate date) {
+        appendPadded(date.getYear(), 4);
+        buf[pos++] = '-';
+        appendTwoDigits(date.getMonthValue());
+        buf[pos++] = '-';
+        appendTwoDigits(date.getDayOfMonth());
+    }
+
+    private void appendTwoDigits(int value) {
+        buf[pos++] = (char) ('0' + value / 10);
+        buf[pos++] = (char) ('0' + value % 10);
+    }
+
+    private void appendPadded(long value, int width) {
+        int end = pos + width;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        pos = end;
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            String s = Long.toString(value);
+            s.getChars(0, s.length(), buf, pos);
+            pos += s.length();
+            return;
+        }
+        if (value < 0) {
+            buf[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        appendPadded(value, digits);
+    }
+
+    private static boolean isFourDigitYear(int year) {
+        return year >= 0 && year <= 9999;
+    }
+}
@@ -0,0 +1,242 @@
+package com.ugwueze.expenses_tracker.util;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes expenses as an Arrow IPC stream in record batches of a fixed row count, with ZSTD-compressed buffers.
+ * Amounts are decimal(12,2), dates are date32 and the payment method is dictionary-encoded.
+ */
+public final class ExpenseArrowWriter implements Closeable {
+
+    public static final int AMOUNT_PRECISION = 12;
+    public static final int AMOUNT_SCALE = 2;
+
+    private static final long PAYMENT_METHOD_DICTIONARY_ID = 0L;
+    private static final DictionaryEncoding PAYMENT_METHOD_ENCODING =
+            new DictionaryEncoding(PAYMENT_METHOD_DICTIONARY_ID, false, new ArrowType.Int(8, true));
+
+    public static final Schema SCHEMA = new Schema(List.of(
+            new Field("id", FieldType.notNullable(new ArrowType.Int(64, true)), null),
+            new Field("date", FieldType.nullable(new ArrowType.Date(DateUnit.DAY)), null),
+            new Field("description", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("category", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("payment_method", new FieldType(true, new ArrowType.Int(8, true), PAYMENT_METHOD_ENCODING), null),
+            new Field("amount", FieldType.nullable(new ArrowType.Decimal(AMOUNT_PRECISION, AMOUNT_SCALE, 128)), null),
+            new Field("notes", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("created_at", FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), null),
+            new Field("updated_at", FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), null)
+    ));
+
+    private final OutputStream out;
+    private final int batchSize;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final VarCharVector paymentMethodDictionary;
+    private final NonClosingChannel channel;
+    private final ArrowStreamWriter writer;
+
+    private final BigIntVector id;
+    private final DateDayVector date;
+    private final VarCharVector description;
+    private final VarCharVector category;
+    private final TinyIntVector paymentMethod;
+    private final DecimalVector amount;
+    private final VarCharVector notes;
+    private final TimeStampMicroVector createdAt;
+    private final TimeStampMicroVector updatedAt;
+
+    private int rowsInBatch;
+    private boolean finished;
+
+    public ExpenseArrowWriter(OutputStream out, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.out = out;
+        this.batchSize = batchSize;
+        this.allocator = new RootAllocator();
+        try {
+            this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+            this.paymentMethodDictionary = buildPaymentMethodDictionary(allocator);
+            DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+            provider.put(new Dictionary(paymentMethodDictionary, PAYMENT_METHOD_ENCODING));
+            this.channel = new NonClosingChannel(out);
+            this.writer = new ArrowStreamWriter(root, provider, channel, IpcOption.DEFAULT,
+                    CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD);
+        } catch (RuntimeException ex) {
+            close();
+            throw ex;
+        }
+        this.id = (BigIntVector) root.getVector("id");
+        this.date = (DateDayVector) root.getVector("date");
+        this.description = (VarCharVector) root.getVector("description");
+        this.category = (VarCharVector) root.getVector("category");
+        this.paymentMethod = (TinyIntVector) root.getVector("payment_method");
+        this.amount = (DecimalVector) root.getVector("amount");
+        this.notes = (VarCharVector) root.getVector("notes");
+        this.createdAt = (TimeStampMicroVector) root.getVector("created_at");
+        this.updatedAt = (TimeStampMicroVector) root.getVector("updated_at");
+    }
+
+    public void start() throws IOException {
+        writer.start();
+        root.allocateNew();
+    }
+
+    public void write(Expense e) throws IOException {
+        int row = rowsInBatch;
+        id.setSafe(row, e.getId() == null ? 0L : e.getId());
+        if (e.getDate() != null) {
+            date.setSafe(row, (int) e.getDate().toEpochDay());
+        }
+        setText(description, row, e.getDescription());
+        setText(category, row, e.getCategory());
+        if (e.getPaymentMethod() != null) {
+            paymentMethod.setSafe(row, e.getPaymentMethod().ordinal());
+        }
+        if (e.getAmount() != null) {
+            amount.setSafe(row, e.getAmount().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP));
+        }
+        setText(notes, row, e.getNotes());
+        setTimestamp(createdAt, row, e.getCreatedAt());
+        setTimestamp(updatedAt, row, e.getUpdatedAt());
+
+        rowsInBatch++;
+        if (rowsInBatch == batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Writes the last partial batch and the end-of-stream marker. The underlying stream is flushed, not closed.
+     */
+    public void finish() throws IOException {
+        if (rowsInBatch > 0) {
+            flushBatch();
+        }
+        writer.end();
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() {
+        if (writer != null) {
+            if (!finished) {
+                // closing the Arrow writer ends the stream; an aborted export must not look complete
+                channel.discard();
+            }
+            writer.close();
+        }
+        if (root != null) {
+            root.close();
+        }
+        if (paymentMethodDictionary != null) {
+            paymentMethodDictionary.close();
+        }
+        allocator.close();
+    }
+
+    private void flushBatch() throws IOException {
+        root.setRowCount(rowsInBatch);
+        writer.writeBatch();
+        rowsInBatch = 0;
+        root.allocateNew();
+    }
+
+    private static VarCharVector buildPaymentMethodDictionary(BufferAllocator allocator) {
+        PaymentMethod[] methods = PaymentMethod.values();
+        VarCharVector dictionary = new VarCharVector("payment_method_dictionary", allocator);
+        dictionary.allocateNew(methods.length);
+        for (PaymentMethod method : methods) {
+            dictionary.setSafe(method.ordinal(), method.name().getBytes(StandardCharsets.UTF_8));
+        }
+        dictionary.setValueCount(methods.length);
+        return dictionary;
+    }
+
+    /**
+     * Lets the Arrow writer be closed to release its buffers without closing the caller's stream.
+     */
+    private static final class NonClosingChannel implements WritableByteChannel {
+        private final WritableByteChannel delegate;
+        private boolean open = true;
+        private boolean discarding;
+
+        private NonClosingChannel(OutputStream out) {
+            this.delegate = Channels.newChannel(out);
+        }
+
+        private void discard() {
+            discarding = true;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (discarding) {
+                int remaining = src.remaining();
+                src.position(src.limit());
+                return remaining;
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    private static void setText(VarCharVector vector, int row, String value) {
+        if (value != null) {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void setTimestamp(TimeStampMicroVector vector, int row, LocalDateTime value) {
+        if (value != null) {
+            long seconds = value.toEpochSecond(ZoneOffset.UTC);
+            vector.setSafe(row, Math.addExact(Math.multiplyExact(seconds, 1_000_000L), value.getNano() / 1000));
+        }
+    }
+}
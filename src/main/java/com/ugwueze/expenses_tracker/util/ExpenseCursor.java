@@ -0,0 +1,55 @@
+package com.ugwueze.expenses_tracker.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a (date, id) ordered expense listing. Serialized as an opaque URL-safe token that also
+ * records the sort direction, so a cursor can only continue the listing it was issued for.
+ */
+public final class ExpenseCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final LocalDate date;
+    private final long id;
+    private final boolean descending;
+
+    public ExpenseCursor(LocalDate date, long id, boolean descending) {
+        this.date = date;
+        this.id = id;
+        this.descending = descending;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public String encode() {
+        String raw = (descending ? "d" : "a") + "|" + date + "|" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length == 3 && (parts[0].equals("d") || parts[0].equals("a"))) {
+                return new ExpenseCursor(LocalDate.parse(parts[1]), Long.parseLong(parts[2]), parts[0].equals("d"));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
@@ -0,0 +1,191 @@
+package com.ugwueze.expenses_tracker.util;
+
+import com.github.luben.zstd.Zstd;
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.entity.User;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentWriter.BlockRef;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a segment written by {@link ExpenseSegmentWriter}. The file is memory-mapped once and
+ * its sparse index kept on the heap; a query decompresses only the blocks of that user whose date span
+ * overlaps the requested range. Instances are immutable and safe to share between threads.
+ */
+public final class ExpenseSegmentReader {
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final Map<Long, List<BlockRef>> blocksByUser;
+    private final long rowCount;
+
+    private ExpenseSegmentReader(Path file, MappedByteBuffer buffer, Map<Long, List<BlockRef>> blocksByUser,
+                                 long rowCount) {
+        this.file = file;
+        this.buffer = buffer;
+        this.blocksByUser = blocksByUser;
+        this.rowCount = rowCount;
+    }
+
+    public static ExpenseSegmentReader open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + file);
+            }
+            if (size < ExpenseSegmentWriter.HEADER_BYTES + ExpenseSegmentWriter.FOOTER_BYTES) {
+                throw new IOException("Truncated segment: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int footer = buffer.capacity() - ExpenseSegmentWriter.FOOTER_BYTES;
+        if (buffer.getInt(0) != ExpenseSegmentWriter.MAGIC || buffer.getInt(footer + 12) != ExpenseSegmentWriter.MAGIC) {
+            throw new IOException("Not an expense segment: " + file);
+        }
+        if (buffer.getInt(4) != ExpenseSegmentWriter.VERSION) {
+            throw new IOException("Unsupported segment version " + buffer.getInt(4) + ": " + file);
+        }
+        long indexOffset = buffer.getLong(footer);
+        int blockCount = buffer.getInt(footer + 8);
+        if (indexOffset + (long) blockCount * ExpenseSegmentWriter.INDEX_ENTRY_BYTES != footer) {
+            throw new IOException("Corrupt segment index: " + file);
+        }
+
+        Map<Long, List<BlockRef>> blocksByUser = new HashMap<>();
+        long rowCount = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int at = (int) indexOffset + i * ExpenseSegmentWriter.INDEX_ENTRY_BYTES;
+            BlockRef ref = new BlockRef(buffer.getLong(at), buffer.getInt(at + 8), buffer.getInt(at + 12),
+                    buffer.getLong(at + 16), buffer.getInt(at + 24), buffer.getInt(at + 28), buffer.getInt(at + 32));
+            blocksByUser.computeIfAbsent(ref.userId(), k -> new ArrayList<>()).add(ref);
+            rowCount += ref.rowCount();
+        }
+        return new ExpenseSegmentReader(file, buffer, blocksByUser, rowCount);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Lazily yields the user's expenses dated within [from, to] (either bound may be null) in (date, id) order.
+     * The returned expenses are detached copies whose user only carries its id.
+     */
+    public Iterator<Expense> read(long userId, LocalDate from, LocalDate to) {
+        List<BlockRef> blocks = blocksByUser.getOrDefault(userId, Collections.emptyList());
+        return new BlockIterator(userId, blocks.stream().filter(b -> b.overlaps(from, to)).iterator(), from, to);
+    }
+
+    private List<Expense> decode(long userId, BlockRef ref) {
+        byte[] compressed = new byte[ref.compressedLength()];
+        // absolute bulk get leaves the shared buffer's position alone
+        buffer.get((int) ref.offset(), compressed);
+        byte[] raw = Zstd.decompress(compressed, ref.rawLength());
+
+        User user = new User();
+        user.setId(userId);
+        List<Expense> rows = new ArrayList<>(ref.rowCount());
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            for (int i = 0; i < ref.rowCount(); i++) {
+                Expense e = new Expense();
+                e.setId(in.readLong());
+                e.setDate(LocalDate.ofEpochDay(in.readInt()));
+                e.setDescription(in.readUTF());
+                e.setCategory(in.readUTF());
+                String paymentMethod = readNullable(in);
+                e.setPaymentMethod(paymentMethod != null ? PaymentMethod.valueOf(paymentMethod) : null);
+                int scale = in.readByte();
+                e.setAmount(BigDecimal.valueOf(in.readLong(), scale));
+                e.setNotes(readNullable(in));
+                e.setCreatedAt(readTimestamp(in));
+                e.setUpdatedAt(readTimestamp(in));
+                e.setUser(user);
+                rows.add(e);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Corrupt block at offset " + ref.offset() + " in " + file, ex);
+        }
+        return rows;
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    private final class BlockIterator implements Iterator<Expense> {
+        private final long userId;
+        private final Iterator<BlockRef> blocks;
+        private final LocalDate from;
+        private final LocalDate to;
+        private Iterator<Expense> rows = Collections.emptyIterator();
+        private Expense next;
+
+        private BlockIterator(long userId, Iterator<BlockRef> blocks, LocalDate from, LocalDate to) {
+            this.userId = userId;
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (!rows.hasNext()) {
+                    if (!blocks.hasNext()) {
+                        return false;
+                    }
+                    rows = decode(userId, blocks.next()).iterator();
+                    continue;
+                }
+                Expense candidate = rows.next();
+                if ((from == null || !candidate.getDate().isBefore(from)) && (to == null || !candidate.getDate().isAfter(to))) {
+                    next = candidate;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Expense next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Expense result = next;
+            next = null;
+            return result;
+        }
+    }
+}
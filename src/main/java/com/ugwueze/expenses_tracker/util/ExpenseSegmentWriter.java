@@ -0,0 +1,177 @@
+package com.ugwueze.expenses_tracker.util;
+
+import com.github.luben.zstd.Zstd;
+import com.ugwueze.expenses_tracker.entity.Expense;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an immutable archive segment. Expenses must arrive sorted by (user, date, id); they are packed into
+ * ZSTD-compressed blocks of at most {@code blockRows} rows that never span two users. The file ends with a
+ * sparse index holding one entry per block (user, first and last date, position) and a fixed-size footer,
+ * so {@link ExpenseSegmentReader} only has to decompress the blocks a query can touch.
+ */
+public final class ExpenseSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x45585347; // "EXSG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int INDEX_ENTRY_BYTES = 36;
+    static final int FOOTER_BYTES = 16;
+
+    private static final int ZSTD_LEVEL = 9;
+
+    private final FileChannel channel;
+    private final int blockRows;
+    private final List<BlockRef> blocks = new ArrayList<>();
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+
+    private long position;
+    private long rowCount;
+    private long blockUserId;
+    private int blockFirstDay;
+    private int blockLastDay;
+    private int blockRowCount;
+    private long lastId;
+    private boolean finished;
+
+    public ExpenseSegmentWriter(Path file, int blockRows) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows must be positive: " + blockRows);
+        }
+        this.blockRows = blockRows;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        writeFully(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip());
+    }
+
+    public void write(long userId, Expense expense) throws IOException {
+        int day = (int) expense.getDate().toEpochDay();
+        if (blockRowCount > 0) {
+            if (userId < blockUserId || (userId == blockUserId
+                    && (day < blockLastDay || (day == blockLastDay && expense.getId() <= lastId)))) {
+                throw new IllegalStateException("Expenses must be written in (user, date, id) order, got id "
+                        + expense.getId() + " after " + lastId);
+            }
+            if (userId != blockUserId || blockRowCount == blockRows) {
+                flushBlock();
+            }
+        }
+        if (blockRowCount == 0) {
+            blockUserId = userId;
+            blockFirstDay = day;
+        }
+        writeRow(expense, day);
+        blockLastDay = day;
+        lastId = expense.getId();
+        blockRowCount++;
+        rowCount++;
+    }
+
+    /** Bytes written so far, excluding the block being filled. */
+    public long size() {
+        return position;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /** Writes the pending block, the index and the footer, and forces everything to disk. */
+    public void finish() throws IOException {
+        flushBlock();
+        long indexOffset = position;
+        ByteBuffer index = ByteBuffer.allocate(blocks.size() * INDEX_ENTRY_BYTES + FOOTER_BYTES);
+        for (BlockRef ref : blocks) {
+            index.putLong(ref.userId)
+                    .putInt(ref.firstDay)
+                    .putInt(ref.lastDay)
+                    .putLong(ref.offset)
+                    .putInt(ref.compressedLength)
+                    .putInt(ref.rawLength)
+                    .putInt(ref.rowCount);
+        }
+        index.putLong(indexOffset).putInt(blocks.size()).putInt(MAGIC);
+        writeFully(index.flip());
+        channel.force(true);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void writeRow(Expense e, int day) throws IOException {
+        block.writeLong(e.getId());
+        block.writeInt(day);
+        block.writeUTF(e.getDescription());
+        block.writeUTF(e.getCategory());
+        writeNullable(e.getPaymentMethod() != null ? e.getPaymentMethod().name() : null);
+        BigDecimal amount = e.getAmount();
+        block.writeByte(amount.scale());
+        block.writeLong(amount.unscaledValue().longValueExact());
+        writeNullable(e.getNotes());
+        writeTimestamp(e.getCreatedAt());
+        writeTimestamp(e.getUpdatedAt());
+    }
+
+    private void writeNullable(String value) throws IOException {
+        block.writeBoolean(value != null);
+        if (value != null) {
+            block.writeUTF(value);
+        }
+    }
+
+    private void writeTimestamp(LocalDateTime value) throws IOException {
+        block.writeBoolean(value != null);
+        if (value != null) {
+            block.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            block.writeInt(value.getNano());
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRowCount == 0) {
+            return;
+        }
+        byte[] raw = blockBytes.toByteArray();
+        byte[] compressed = Zstd.compress(raw, ZSTD_LEVEL);
+        blocks.add(new BlockRef(blockUserId, blockFirstDay, blockLastDay, position, compressed.length, raw.length,
+                blockRowCount));
+        writeFully(ByteBuffer.wrap(compressed));
+        blockBytes.reset();
+        blockRowCount = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    record BlockRef(long userId, int firstDay, int lastDay, long offset, int compressedLength, int rawLength,
+                    int rowCount) {
+
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return (to == null || firstDay <= to.toEpochDay()) && (from == null || lastDay >= from.toEpochDay());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ugwueze.expenses_tracker.util;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators that are each sorted by {@code order} into one sorted iterator. Elements that compare
+ * equal to the one returned just before are dropped, so a row present in more than one source appears once.
+ */
+public final class MergingIterator<T> implements Iterator<T> {
+
+    private final Comparator<? super T> order;
+    private final PriorityQueue<Head<T>> heads;
+    private T last;
+    private T next;
+
+    public MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        this.order = order;
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.value, b.value));
+        for (Iterator<? extends T> source : sources) {
+            advance(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            advance(head.source);
+            if (last == null || order.compare(last, head.value) != 0) {
+                next = head.value;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        last = next;
+        next = null;
+        return last;
+    }
+
+    private void advance(Iterator<? extends T> source) {
+        if (source.hasNext()) {
+            heads.add(new Head<>(source.next(), source));
+        }
+    }
+
+    private record Head<T>(T value, Iterator<? extends T> source) {
+    }
+}
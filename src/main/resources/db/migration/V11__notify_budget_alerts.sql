@@ -0,0 +1,15 @@
+-- Alert streams are held by whichever instance the client connected to. Every instance LISTENs on this channel
+-- and forwards the alerts of the users it streams to, so an alert reaches them whichever instance raised it.
+-- NOTIFY is sent on commit, so rolled-back alerts are never streamed.
+CREATE OR REPLACE FUNCTION notify_budget_alert() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM pg_notify('budget_alerts', NEW.user_id || ':' || NEW.id);
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS budget_alerts_notify ON budget_alerts;
+CREATE TRIGGER budget_alerts_notify
+    AFTER INSERT ON budget_alerts
+    FOR EACH ROW EXECUTE FUNCTION notify_budget_alert();
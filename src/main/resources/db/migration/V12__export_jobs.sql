@@ -0,0 +1,23 @@
+-- Asynchronous export jobs, so any instance can report on or serve a job another instance ran. file is where the
+-- result was spooled; the spool directory must be storage every instance shares.
+CREATE TABLE IF NOT EXISTS export_jobs (
+    id            varchar(36)  PRIMARY KEY,
+    dedupe_key    varchar(255) NOT NULL,
+    user_id       bigint       NOT NULL,
+    start_date    date,
+    end_date      date,
+    format        varchar(20)  NOT NULL,
+    status        varchar(20)  NOT NULL,
+    file          varchar(1024),
+    size_bytes    bigint,
+    error_message text,
+    created_at    timestamptz  NOT NULL,
+    completed_at  timestamptz,
+    expires_at    timestamptz
+);
+
+-- at most one pending or running job per identical request; later requests join it
+CREATE UNIQUE INDEX IF NOT EXISTS ux_export_jobs_in_flight ON export_jobs (dedupe_key)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_expires_at ON export_jobs (expires_at);
@@ -0,0 +1,20 @@
+-- Ids now come from pooled sequences (increment = allocation size 50) instead of IDENTITY columns,
+-- so Hibernate can batch inserts. Tables created by earlier versions keep their ids; each sequence
+-- continues after the current max(id). On a fresh database the tables do not exist yet and are
+-- created afterwards by Hibernate.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS expenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS budgets_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS recurring_expenses_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'expenses', 'budgets', 'recurring_expenses'] LOOP
+        IF to_regclass(t) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+            EXECUTE format('SELECT setval(%L, (SELECT COALESCE(max(id), 0) + 1 FROM %I), false)', t || '_seq', t);
+        END IF;
+    END LOOP;
+END $$;
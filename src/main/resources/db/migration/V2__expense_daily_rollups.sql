@@ -0,0 +1,21 @@
+-- Per user, day and category totals, kept in step with expenses by the application.
+CREATE TABLE IF NOT EXISTS expense_daily_rollups (
+    user_id       bigint         NOT NULL,
+    day           date           NOT NULL,
+    category      varchar(255)   NOT NULL,
+    total         numeric(19, 2) NOT NULL,
+    expense_count bigint         NOT NULL,
+    PRIMARY KEY (user_id, day, category)
+);
+
+-- backfill databases that already have expenses; on a fresh database the table is created later by Hibernate
+DO $$
+BEGIN
+    IF to_regclass('expenses') IS NOT NULL THEN
+        INSERT INTO expense_daily_rollups (user_id, day, category, total, expense_count)
+        SELECT user_id, date, category, SUM(amount), COUNT(*)
+        FROM expenses
+        GROUP BY user_id, date, category
+        ON CONFLICT DO NOTHING;
+    END IF;
+END $$;
@@ -0,0 +1,18 @@
+-- Per month and category totals across all users; month is the first day of the month. Recomputed from the
+-- daily rollups in the background rather than on every expense write, so writers never share these rows.
+CREATE TABLE IF NOT EXISTS expense_monthly_rollups (
+    month         date           NOT NULL,
+    category      varchar(255)   NOT NULL,
+    total         numeric(19, 2) NOT NULL,
+    expense_count bigint         NOT NULL,
+    PRIMARY KEY (month, category)
+);
+
+-- a month's refresh reads every user's rollups for that month
+CREATE INDEX IF NOT EXISTS idx_expense_daily_rollups_day ON expense_daily_rollups (day);
+
+INSERT INTO expense_monthly_rollups (month, category, total, expense_count)
+SELECT CAST(date_trunc('month', day) AS date), category, SUM(total), SUM(expense_count)
+FROM expense_daily_rollups
+GROUP BY 1, category
+ON CONFLICT DO NOTHING;
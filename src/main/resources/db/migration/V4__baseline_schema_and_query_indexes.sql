@@ -0,0 +1,59 @@
+-- Hibernate no longer creates or alters tables (ddl-auto=validate), so the schema is owned here.
+-- Databases that were created by Hibernate already have these tables and skip the CREATE TABLEs.
+CREATE TABLE IF NOT EXISTS users (
+    id         bigint       NOT NULL PRIMARY KEY,
+    username   varchar(50)  NOT NULL UNIQUE,
+    email      varchar(255) NOT NULL UNIQUE,
+    first_name varchar(50)  NOT NULL,
+    last_name  varchar(50)  NOT NULL,
+    active     boolean      NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS expenses (
+    id             bigint         NOT NULL PRIMARY KEY,
+    user_id        bigint         NOT NULL REFERENCES users (id),
+    description    varchar(255)   NOT NULL,
+    amount         numeric(12, 2) NOT NULL,
+    date           date           NOT NULL,
+    category       varchar(255)   NOT NULL,
+    payment_method varchar(255)
+        CHECK (payment_method IN ('CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'DIGITAL_WALLET', 'OTHER')),
+    notes          varchar(255),
+    created_at     timestamp(6),
+    updated_at     timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS budgets (
+    id         bigint         NOT NULL PRIMARY KEY,
+    user_id    bigint         NOT NULL REFERENCES users (id),
+    category   varchar(255)   NOT NULL,
+    amount     numeric(38, 2) NOT NULL,
+    start_date date           NOT NULL,
+    end_date   date           NOT NULL,
+    created_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS recurring_expenses (
+    id                   bigint       NOT NULL PRIMARY KEY,
+    user_id              bigint,
+    category             varchar(255),
+    payment_method       smallint CHECK (payment_method BETWEEN 0 AND 5),
+    amount               numeric(38, 2),
+    recurrence_type      varchar(255) CHECK (recurrence_type IN ('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY')),
+    next_occurrence_date date,
+    end_date             date,
+    description          varchar(255),
+    interval             integer,
+    active               boolean      NOT NULL
+);
+
+-- user expense listing, date ranges and keyset pages; (user_id, date) is its prefix
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date_id ON expenses (user_id, date, id);
+-- findByUserIdAndCategory and per-category date ranges
+CREATE INDEX IF NOT EXISTS idx_expenses_user_category_date ON expenses (user_id, category, date);
+-- every budget lookup starts with user_id, most with category and the period
+CREATE INDEX IF NOT EXISTS idx_budgets_user_category_period ON budgets (user_id, category, start_date, end_date);
+-- the recurring generator only ever looks at active templates
+CREATE INDEX IF NOT EXISTS idx_recurring_expenses_due ON recurring_expenses (next_occurrence_date) WHERE active;
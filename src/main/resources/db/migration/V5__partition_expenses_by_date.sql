@@ -0,0 +1,113 @@
+-- Range-partitions expenses by date, one partition per year or month (expenses.partitions.interval).
+-- The primary key becomes (id, date) because it has to include the partition key; ids still come from
+-- expenses_seq and stay unique. Rows outside every partition go to expenses_default until a partition
+-- for their period exists. Partitions ahead of the current period are created by ExpensePartitionService.
+
+CREATE OR REPLACE FUNCTION expense_partition_name(unit text, period_start date) RETURNS text
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT 'expenses_' || CASE lower(unit)
+                              WHEN 'month' THEN to_char(period_start, '"m"YYYY_MM')
+                              ELSE to_char(period_start, '"y"YYYY')
+                          END
+$$;
+
+-- Creates the partition for the period containing the given day, moving any of its rows out of the
+-- default partition. Returns the partition name, or NULL when the period is already covered.
+CREATE OR REPLACE FUNCTION create_expense_partition(unit text, day date) RETURNS text
+    LANGUAGE plpgsql AS $$
+DECLARE
+    period_start date;
+    period_end   date;
+    part         text;
+BEGIN
+    IF lower(unit) NOT IN ('year', 'month') THEN
+        RAISE EXCEPTION 'unsupported expense partition interval: %', unit;
+    END IF;
+    period_start := date_trunc(lower(unit), day);
+    period_end := period_start + ('1 ' || lower(unit))::interval;
+    part := expense_partition_name(unit, period_start);
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    BEGIN
+        EXECUTE format('CREATE TABLE %I (LIKE expenses INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part);
+        IF to_regclass('expenses_default') IS NOT NULL THEN
+            EXECUTE format('WITH moved AS (DELETE FROM expenses_default WHERE date >= %L AND date < %L RETURNING *) '
+                               || 'INSERT INTO %I SELECT * FROM moved', period_start, period_end, part);
+        END IF;
+        EXECUTE format('ALTER TABLE expenses ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part, period_start, period_end);
+    EXCEPTION
+        WHEN invalid_object_definition THEN
+            -- overlaps a partition of the other granularity
+            RETURN NULL;
+    END;
+    RETURN part;
+END
+$$;
+
+DO $$
+DECLARE
+    unit      text := lower('${expense_partition_interval}');
+    pkey      text;
+    first_day date;
+    last_day  date;
+    d         date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'expenses'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE expenses RENAME TO expenses_unpartitioned;
+    SELECT conname INTO pkey FROM pg_constraint
+    WHERE conrelid = 'expenses_unpartitioned'::regclass AND contype = 'p';
+    EXECUTE format('ALTER TABLE expenses_unpartitioned RENAME CONSTRAINT %I TO expenses_unpartitioned_pkey', pkey);
+    DROP INDEX IF EXISTS idx_expenses_user_date_id;
+    DROP INDEX IF EXISTS idx_expenses_user_category_date;
+
+    CREATE TABLE expenses (
+        id             bigint         NOT NULL,
+        user_id        bigint         NOT NULL REFERENCES users (id),
+        description    varchar(255)   NOT NULL,
+        amount         numeric(12, 2) NOT NULL,
+        date           date           NOT NULL,
+        category       varchar(255)   NOT NULL,
+        payment_method varchar(255)
+            CHECK (payment_method IN ('CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'DIGITAL_WALLET', 'OTHER')),
+        notes          varchar(255),
+        created_at     timestamp(6),
+        updated_at     timestamp(6),
+        PRIMARY KEY (id, date)
+    ) PARTITION BY RANGE (date);
+    CREATE TABLE expenses_default PARTITION OF expenses DEFAULT;
+
+    SELECT min(date), max(date) INTO first_day, last_day FROM expenses_unpartitioned;
+    d := date_trunc(unit, least(coalesce(first_day, current_date), current_date));
+    WHILE d <= greatest(coalesce(last_day, current_date), current_date) LOOP
+        PERFORM create_expense_partition(unit, d);
+        d := d + ('1 ' || unit)::interval;
+    END LOOP;
+
+    INSERT INTO expenses (id, user_id, description, amount, date, category, payment_method, notes, created_at, updated_at)
+    SELECT id, user_id, description, amount, date, category, payment_method, notes, created_at, updated_at
+    FROM expenses_unpartitioned;
+    DROP TABLE expenses_unpartitioned;
+
+    CREATE INDEX idx_expenses_user_date_id ON expenses (user_id, date, id);
+    CREATE INDEX idx_expenses_user_category_date ON expenses (user_id, category, date);
+END
+$$;
+
+-- Every partition of expenses with its [range_start, range_end) bounds; both are NULL for the default partition.
+CREATE OR REPLACE FUNCTION expense_partitions()
+    RETURNS TABLE (partition_name text, range_start date, range_end date)
+    LANGUAGE sql STABLE AS $$
+    SELECT c.relname::text,
+           (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \(''([^'']+)''\)'))[1]::date,
+           (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \(''([^'']+)''\)'))[1]::date
+    FROM pg_inherits i
+             JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'expenses'::regclass
+    ORDER BY 2 NULLS LAST
+$$;
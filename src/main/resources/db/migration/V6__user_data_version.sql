@@ -0,0 +1,14 @@
+-- When any of a user's expenses or budgets last changed; the validator for conditional GETs of the user's data.
+-- Kept by the application and only ever moved forward.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS data_updated_at timestamp(6);
+
+-- budgets have no updated_at, their creation time is the best existing evidence of a change
+UPDATE users u
+SET data_updated_at = GREATEST(u.created_at,
+                               (SELECT MAX(COALESCE(e.updated_at, e.created_at)) FROM expenses e WHERE e.user_id = u.id),
+                               (SELECT MAX(b.created_at) FROM budgets b WHERE b.user_id = u.id));
+
+UPDATE users SET data_updated_at = LOCALTIMESTAMP WHERE data_updated_at IS NULL;
+
+ALTER TABLE users ALTER COLUMN data_updated_at SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE users ALTER COLUMN data_updated_at SET NOT NULL;
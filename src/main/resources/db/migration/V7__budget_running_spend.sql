@@ -0,0 +1,14 @@
+-- Running total of the expenses counted against each budget: same category ignoring case, within the budget's
+-- dates. Moved by ExpenseRollupService together with the daily rollups, and repaired from them by its scheduled
+-- reconciliation.
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS spent numeric(38, 2) NOT NULL DEFAULT 0;
+
+UPDATE budgets b
+SET spent = COALESCE((SELECT SUM(r.total)
+                      FROM expense_daily_rollups r
+                      WHERE r.user_id = b.user_id
+                        AND LOWER(r.category) = LOWER(b.category)
+                        AND r.day BETWEEN b.start_date AND b.end_date), 0);
+
+-- every expense write looks up the budgets covering its day in its category
+CREATE INDEX IF NOT EXISTS idx_budgets_user_lower_category_period ON budgets (user_id, LOWER(category), start_date);
@@ -0,0 +1,28 @@
+-- Highest alert threshold (percent of the amount) the budget's running spend has crossed, so each crossing is
+-- reported once; it drops again when the spend falls back. Existing budgets start at the level they are already
+-- at under the default thresholds, so enabling alerts does not report old crossings.
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS alert_level integer NOT NULL DEFAULT 0;
+
+UPDATE budgets
+SET alert_level = CASE
+                      WHEN spent >= amount THEN 100
+                      WHEN spent * 100 >= amount * 80 THEN 80
+                      WHEN spent * 100 >= amount * 50 THEN 50
+                      ELSE 0
+                  END
+WHERE amount > 0;
+
+-- Every threshold crossing, kept for clients that were not connected to the alert stream when it happened.
+CREATE TABLE IF NOT EXISTS budget_alerts (
+    id            bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    budget_id     bigint         NOT NULL REFERENCES budgets (id) ON DELETE CASCADE,
+    user_id       bigint         NOT NULL,
+    category      varchar(255)   NOT NULL,
+    threshold     integer        NOT NULL,
+    budget_amount numeric(38, 2) NOT NULL,
+    spent         numeric(38, 2) NOT NULL,
+    created_at    timestamp(6)   NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_budget_alerts_user_id ON budget_alerts (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_budget_alerts_budget_id ON budget_alerts (budget_id);
@@ -0,0 +1,26 @@
+-- Lease that lets one instance at a time run a cluster-wide scheduled job. The fence grows by one every time the
+-- lease changes hands and the row is never deleted, so a holder whose lease was taken over can tell.
+CREATE TABLE IF NOT EXISTS job_leases (
+    name       varchar(100) PRIMARY KEY,
+    owner      varchar(255) NOT NULL,
+    fence      bigint       NOT NULL,
+    expires_at timestamp(6) NOT NULL
+);
+
+-- One row per run of a leased job. For the recurring expense job the items are templates processed and failed,
+-- and expenses created.
+CREATE TABLE IF NOT EXISTS job_runs (
+    id              bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    job_name        varchar(100) NOT NULL,
+    owner           varchar(255) NOT NULL,
+    fence           bigint       NOT NULL,
+    status          varchar(20)  NOT NULL,
+    started_at      timestamp(6) NOT NULL DEFAULT LOCALTIMESTAMP,
+    finished_at     timestamp(6),
+    duration_ms     bigint,
+    items_processed integer,
+    items_failed    integer,
+    items_created   integer
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_runs_job_name_started_at ON job_runs (job_name, started_at);
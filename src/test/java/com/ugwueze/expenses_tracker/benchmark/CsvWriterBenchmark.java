@@ -0,0 +1,123 @@
+package com.ugwueze.expenses_tracker.benchmark;
+
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.util.CsvUtils;
+import com.ugwueze.expenses_tracker.util.CsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the export row writing of {@link CsvUtils#joinCsvRow(String...)} with {@link CsvWriter}.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}; add {@code -Djmh.args="CsvWriterBenchmark -prof gc"}
+ * to see allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvWriterBenchmark {
+
+    private static final int ROWS = 1024;
+
+    private Row[] rows;
+    private NullWriter sink;
+    private CsvWriter csvWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        PaymentMethod[] methods = PaymentMethod.values();
+        rows = new Row[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            String description = i % 10 == 0 ? "Lunch, \"team\" outing" : "Groceries " + i;
+            String notes = i % 3 == 0 ? null : "note " + random.nextInt(1000);
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            LocalDateTime created = LocalDateTime.of(2024, 1 + i % 12, 1 + i % 28, i % 24, i % 60, i % 60, (i % 1000) * 1_000_000);
+            rows[i] = new Row((long) i + 1, LocalDate.of(2024, 1 + i % 12, 1 + i % 28), description, "Food",
+                    methods[i % methods.length], amount, notes, created, created.plusHours(1));
+        }
+        sink = new NullWriter();
+        csvWriter = new CsvWriter(sink);
+    }
+
+    @Benchmark
+    public long csvUtilsJoinRow() throws IOException {
+        for (Row r : rows) {
+            sink.write(CsvUtils.joinCsvRow(
+                    r.id == null ? "" : String.valueOf(r.id),
+                    r.date == null ? "" : r.date.toString(),
+                    r.description,
+                    r.category,
+                    r.paymentMethod == null ? "" : r.paymentMethod.name(),
+                    r.amount == null ? "" : r.amount.stripTrailingZeros().toPlainString(),
+                    r.notes,
+                    r.createdAt == null ? "" : r.createdAt.toString(),
+                    r.updatedAt == null ? "" : r.updatedAt.toString()));
+            sink.write("\n");
+        }
+        return sink.count;
+    }
+
+    @Benchmark
+    public long csvWriter() throws IOException {
+        for (Row r : rows) {
+            csvWriter.field(r.id)
+                    .field(r.date)
+                    .field(r.description)
+                    .field(r.category)
+                    .field(r.paymentMethod)
+                    .field(r.amount)
+                    .field(r.notes)
+                    .field(r.createdAt)
+                    .field(r.updatedAt)
+                    .endRow();
+        }
+        csvWriter.flush();
+        return sink.count;
+    }
+
+    private record Row(Long id, LocalDate date, String description, String category, PaymentMethod paymentMethod,
+                       BigDecimal amount, String notes, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    private static final class NullWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str) {
+            count += str.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
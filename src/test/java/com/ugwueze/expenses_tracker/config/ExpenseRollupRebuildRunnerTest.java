@@ -0,0 +1,63 @@
+package com.ugwueze.expenses_tracker.config;
+
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExpenseRollupRebuildRunnerTest {
+
+    private ExpenseRollupService rollupService;
+    private ExpenseArchiveService archiveService;
+    private ExpensePartitionService partitionService;
+    private ExpenseRollupRebuildRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = mock(ExpenseRollupService.class);
+        archiveService = mock(ExpenseArchiveService.class);
+        partitionService = mock(ExpensePartitionService.class);
+        runner = new ExpenseRollupRebuildRunner(rollupService, archiveService, partitionService,
+                mock(ConfigurableApplicationContext.class));
+    }
+
+    @Test
+    void withoutOption_doesNothing() {
+        runner.run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(rollupService, archiveService, partitionService);
+    }
+
+    @Test
+    void archivedSegments_refuseTheRebuild() {
+        when(archiveService.archivedCount()).thenReturn(3L);
+        when(partitionService.listDetachedPartitions()).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class,
+                () -> runner.run(new DefaultApplicationArguments("--" + ExpenseRollupRebuildRunner.OPTION)));
+        verify(rollupService, never()).rebuild();
+    }
+
+    @Test
+    void detachedPartitions_refuseTheRebuild() {
+        when(partitionService.listDetachedPartitions()).thenReturn(List.of("expenses_archived_2019"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> runner.run(new DefaultApplicationArguments("--" + ExpenseRollupRebuildRunner.OPTION)));
+        assertTrue(ex.getMessage().contains("expenses_archived_2019"));
+        verify(rollupService, never()).rebuild();
+    }
+
+    @Test
+    void noArchivedHistory_allowsTheRebuild() {
+        assertDoesNotThrow(runner::checkNoArchivedHistory);
+    }
+}
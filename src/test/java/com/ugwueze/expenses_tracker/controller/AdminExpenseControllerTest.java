@@ -0,0 +1,87 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ExpensePartitionDto;
+import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({AdminExpenseController.class, ExpenseMaintenanceController.class})
+class AdminExpenseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExpenseService expenseService;
+
+    @MockBean
+    private ExpensePartitionService expensePartitionService;
+
+    @MockBean
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Test
+    void getMonthlySummary_returnsCategoryTotalsAcrossUsers() throws Exception {
+        when(expenseService.getMonthlySummary(2025, 3)).thenReturn(List.of(
+                new MonthlySummaryDto("Food", new BigDecimal("120.00")),
+                new MonthlySummaryDto("Travel", new BigDecimal("40.00"))));
+
+        mockMvc.perform(get("/api/v1/admin/expenses/monthly").param("year", "2025").param("month", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Food"))
+                .andExpect(jsonPath("$[1].total").value(40.00));
+    }
+
+    @Test
+    void getMonthlySummary_invalidMonth_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/expenses/monthly").param("year", "2025").param("month", "13"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    void listPartitions_returnsRanges() throws Exception {
+        when(expensePartitionService.listPartitions()).thenReturn(List.of(
+                new ExpensePartitionDto("expenses_y2024", LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)),
+                new ExpensePartitionDto("expenses_default", null, null)));
+
+        mockMvc.perform(get("/api/v1/admin/expenses/partitions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("expenses_y2024"))
+                .andExpect(jsonPath("$.data[0].rangeEnd").value("2025-01-01"))
+                .andExpect(jsonPath("$.data[1].rangeStart").isEmpty());
+    }
+
+    @Test
+    void detachPartitions_notMappedUnlessAdminEndpointsAreEnabled() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/expenses/partitions/detach").param("before", "2020-01-01"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(expensePartitionService);
+    }
+
+    @Test
+    void archiveExpenses_notMappedUnlessAdminEndpointsAreEnabled() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/expenses/archive").param("before", "2018-01-01"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(expenseArchiveService);
+    }
+}
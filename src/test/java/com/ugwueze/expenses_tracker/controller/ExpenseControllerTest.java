@@ -0,0 +1,238 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.CursorPageDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchRequestDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchResultDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseDto;
+import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
+import com.ugwueze.expenses_tracker.enums.BatchOperationType;
+import com.ugwueze.expenses_tracker.service.ExpenseService;
+import com.ugwueze.expenses_tracker.service.UserDataVersionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExpenseController.class)
+class ExpenseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExpenseService expenseService;
+
+    @MockBean
+    private UserDataVersionService dataVersionService;
+
+    private static final LocalDateTime DATA_VERSION = LocalDateTime.of(2025, 3, 4, 10, 15, 30, 123_456_000);
+    private static final String DATA_VERSION_ETAG = "\"" + Long.toHexString(1741083330123456L) + "\"";
+
+    @Test
+    void getUserExpenses_returnsDataVersionAsETag() throws Exception {
+        when(dataVersionService.getDataVersion(3L)).thenReturn(Optional.of(DATA_VERSION));
+        when(expenseService.getUserExpenses(eq(3L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(ExpenseDto.builder().id(9L).build())));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}", 3L).header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", DATA_VERSION_ETAG))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.data.content[0].id").value(9));
+    }
+
+    @Test
+    void getUserExpenses_matchingIfNoneMatch_returnsNotModifiedWithoutQuerying() throws Exception {
+        when(dataVersionService.getDataVersion(3L)).thenReturn(Optional.of(DATA_VERSION));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}", 3L).header("If-None-Match", DATA_VERSION_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", DATA_VERSION_ETAG))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    void getUserExpenses_unknownUser_skipsValidators() throws Exception {
+        when(dataVersionService.getDataVersion(3L)).thenReturn(Optional.empty());
+        when(expenseService.getUserExpenses(eq(3L), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}", 3L).header("If-None-Match", "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void applyBatch_applied_returnsOkWithPerItemResults() throws Exception {
+        ExpenseBatchResultDto result = new ExpenseBatchResultDto();
+        result.setApplied(true);
+        result.setCreated(1);
+        result.setDeleted(1);
+        result.getResults().add(new ExpenseBatchResultDto.ItemResult(0, BatchOperationType.CREATE, 51L));
+        result.getResults().add(new ExpenseBatchResultDto.ItemResult(1, BatchOperationType.DELETE, 7L));
+        when(expenseService.applyBatch(any(ExpenseBatchRequestDto.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": 3, "operations": [
+                                  {"op": "CREATE", "expense": {"description": "Lunch", "amount": 12.50,
+                                                               "date": "2024-01-05", "category": "Food"}},
+                                  {"op": "DELETE", "id": 7}
+                                ]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.created").value(1))
+                .andExpect(jsonPath("$.data.results[0].id").value(51))
+                .andExpect(jsonPath("$.data.results[1].op").value("DELETE"));
+
+        ArgumentCaptor<ExpenseBatchRequestDto> captor = ArgumentCaptor.forClass(ExpenseBatchRequestDto.class);
+        verify(expenseService).applyBatch(captor.capture());
+        assertEquals(3L, captor.getValue().getUserId());
+        assertEquals(2, captor.getValue().getOperations().size());
+        assertEquals("Lunch", captor.getValue().getOperations().get(0).getExpense().getDescription());
+    }
+
+    @Test
+    void applyBatch_rejected_returnsUnprocessableEntity() throws Exception {
+        ExpenseBatchResultDto result = new ExpenseBatchResultDto();
+        ExpenseBatchResultDto.ItemResult item = new ExpenseBatchResultDto.ItemResult(0, BatchOperationType.DELETE, 7L);
+        item.setSuccess(false);
+        item.setError("Expense not found with id: 7");
+        result.getResults().add(item);
+        when(expenseService.applyBatch(any(ExpenseBatchRequestDto.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 3, \"operations\": [{\"op\": \"DELETE\", \"id\": 7}]}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.applied").value(false))
+                .andExpect(jsonPath("$.data.results[0].error").value("Expense not found with id: 7"));
+    }
+
+    @Test
+    void applyBatch_invalidPayload_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": 3, "operations": [
+                                  {"op": "CREATE", "expense": {"description": "", "amount": 1, "date": "2024-01-05",
+                                                               "category": "Food"}}
+                                ]}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 3, \"operations\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    void getUserExpensesByCursor_passesCursorAndDirection() throws Exception {
+        ExpenseDto expense = ExpenseDto.builder().id(9L).description("Lunch").build();
+        when(expenseService.getUserExpensesByCursor(3L, "abc", 25, false))
+                .thenReturn(new CursorPageDto<>(List.of(expense), 25, true, "next"));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/cursor", 3L)
+                        .param("cursor", "abc")
+                        .param("size", "25")
+                        .param("direction", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(9))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"));
+    }
+
+    @Test
+    void getUserExpensesByCursor_invalidCursor_returnsBadRequest() throws Exception {
+        when(expenseService.getUserExpensesByCursor(3L, "bad", 10, true))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/cursor", 3L).param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void getMonthlyExpensesSummary_returnsMonthTotals() throws Exception {
+        Map<Integer, BigDecimal> monthly = new LinkedHashMap<>();
+        monthly.put(2, new BigDecimal("42.50"));
+        monthly.put(3, new BigDecimal("10.00"));
+        when(expenseService.getMonthlyExpensesSummary(3L, 2025)).thenReturn(monthly);
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/monthly", 3L).param("year", "2025"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.2").value(42.50))
+                .andExpect(jsonPath("$.data.3").value(10.00));
+    }
+
+    @Test
+    void getMonthlyExpensesSummary_yearOutOfRange_returnsBadRequest() throws Exception {
+        when(expenseService.getMonthlyExpensesSummary(3L, 10))
+                .thenThrow(new IllegalArgumentException("year out of range: 10"));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/monthly", 3L).param("year", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("year out of range: 10"));
+    }
+
+    @Test
+    void getUserMonthlySummary_returnsCategoryTotals() throws Exception {
+        when(expenseService.getUserMonthlySummary(3L, 2025, 2))
+                .thenReturn(List.of(new MonthlySummaryDto("Food", new BigDecimal("42.50"))));
+
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/monthly-categories", 3L)
+                        .param("year", "2025")
+                        .param("month", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].category").value("Food"))
+                .andExpect(jsonPath("$.data[0].total").value(42.50));
+    }
+
+    @Test
+    void getMonthlySummary_legacyPath_servesTheAllUsersSummary() throws Exception {
+        when(expenseService.getMonthlySummary(2025, 3))
+                .thenReturn(List.of(new MonthlySummaryDto("Food", new BigDecimal("120.00"))));
+
+        mockMvc.perform(get("/api/v1/expenses/monthly").param("year", "2025").param("month", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Food"))
+                .andExpect(jsonPath("$[0].total").value(120.00));
+    }
+
+    @Test
+    void getUserMonthlySummary_invalidMonth_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/expenses/user/{userId}/monthly-categories", 3L)
+                        .param("year", "2025")
+                        .param("month", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("month out of range: 0"));
+
+        verifyNoInteractions(expenseService);
+    }
+}
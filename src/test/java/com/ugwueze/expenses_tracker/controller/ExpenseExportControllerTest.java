@@ -1,5 +1,6 @@
 package com.ugwueze.expenses_tracker.controller;
 
+import com.github.luben.zstd.ZstdInputStream;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
 import com.ugwueze.expenses_tracker.service.ExpenseExportService;
 import org.junit.jupiter.api.Test;
@@ -8,7 +9,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
@@ -60,4 +68,91 @@ class ExpenseExportControllerTest {
         mockMvc.perform(get("/api/users/{userId}/expenses/export", 99L))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void exportExpensesAsCsv_withGzipFormat_streamsGzipFile() throws Exception {
+        stubCsvBody();
+
+        MvcResult result = mockMvc.perform(get("/api/users/{userId}/expenses/export", 5L)
+                        .param("format", "csv.gz"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses_user_5.csv.gz\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().contentType("application/gzip"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertEquals("id,date\n1,2023-01-02", decompress(new GZIPInputStream(new ByteArrayInputStream(body))));
+    }
+
+    @Test
+    void exportExpensesAsCsv_withArrowFormat_streamsArrowFromService() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write(new byte[]{1, 2, 3});
+            return null;
+        }).when(expenseExportService).streamExpensesAsArrow(eq(5L), isNull(), isNull(), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/{userId}/expenses/export", 5L)
+                        .param("format", "arrow"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses_user_5.arrow\""))
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andReturn();
+
+        assertEquals(3, result.getResponse().getContentAsByteArray().length);
+        Mockito.verify(expenseExportService, Mockito.never()).streamExpensesAsCsv(anyLong(), any(), any(), any(Writer.class));
+    }
+
+    @Test
+    void exportExpensesAsCsv_withAcceptEncodingZstd_setsContentEncoding() throws Exception {
+        stubCsvBody();
+
+        MvcResult result = mockMvc.perform(get("/api/users/{userId}/expenses/export", 5L)
+                        .header("Accept-Encoding", "gzip;q=0.8, zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "zstd"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses_user_5.csv\""))
+                .andExpect(content().contentType("text/csv"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertEquals("id,date\n1,2023-01-02", decompress(new ZstdInputStream(new ByteArrayInputStream(body))));
+    }
+
+    @Test
+    void exportExpensesAsCsv_withUnsupportedFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}/expenses/export", 5L)
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType("application/json"));
+    }
+
+    @Test
+    void exportExpensesAsCsv_compressed_whenServiceThrowsNotFound_returnsJsonError() throws Exception {
+        doThrow(new ResourceNotFoundException("UserNot Found"))
+                .when(expenseExportService).streamExpensesAsCsv(eq(99L), any(), any(), any(Writer.class));
+
+        mockMvc.perform(get("/api/users/{userId}/expenses/export", 99L)
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("UserNot Found")));
+    }
+
+    private void stubCsvBody() throws Exception {
+        doAnswer(invocation -> {
+            Writer w = invocation.getArgument(3);
+            w.write("id,date\n1,2023-01-02");
+            w.flush();
+            return null;
+        }).when(expenseExportService).streamExpensesAsCsv(anyLong(), isNull(), isNull(), any(Writer.class));
+    }
+
+    private String decompress(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
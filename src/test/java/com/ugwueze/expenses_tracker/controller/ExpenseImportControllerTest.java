@@ -0,0 +1,77 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ExpenseImportResultDto;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.service.ExpenseImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.Reader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExpenseImportController.class)
+class ExpenseImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExpenseImportService expenseImportService;
+
+    @Test
+    void importExpensesFromCsv_streamsBodyToServiceAndReturnsReport() throws Exception {
+        ExpenseImportResultDto result = new ExpenseImportResultDto();
+        result.setTotalRows(2);
+        result.setImportedRows(1);
+        result.setFailedRows(1);
+        result.getErrors().add(new ExpenseImportResultDto.RowError(3, List.of("amount: invalid value 'x'")));
+        when(expenseImportService.importExpensesFromCsv(eq(5L), any(Reader.class))).thenAnswer(invocation -> {
+            Reader reader = invocation.getArgument(1);
+            char[] buf = new char[64];
+            int n = reader.read(buf);
+            assertEquals("date,description", new String(buf, 0, n).lines().findFirst().orElse(""));
+            return result;
+        });
+
+        mockMvc.perform(post("/api/users/{userId}/expenses/import", 5L)
+                        .contentType("text/csv")
+                        .content("date,description\n2024-01-01,x\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.importedRows").value(1))
+                .andExpect(jsonPath("$.data.errors[0].line").value(3))
+                .andExpect(jsonPath("$.data.errors[0].messages[0]").value("amount: invalid value 'x'"));
+    }
+
+    @Test
+    void importExpensesFromCsv_badHeader_returnsBadRequest() throws Exception {
+        when(expenseImportService.importExpensesFromCsv(eq(5L), any(Reader.class)))
+                .thenThrow(new IllegalArgumentException("Missing required CSV column: amount"));
+
+        mockMvc.perform(post("/api/users/{userId}/expenses/import", 5L)
+                        .contentType("text/csv")
+                        .content("date\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Missing required CSV column: amount"));
+    }
+
+    @Test
+    void importExpensesFromCsv_unknownUser_returnsNotFound() throws Exception {
+        when(expenseImportService.importExpensesFromCsv(eq(9L), any(Reader.class)))
+                .thenThrow(new ResourceNotFoundException("User not found with id: 9"));
+
+        mockMvc.perform(post("/api/users/{userId}/expenses/import", 9L)
+                        .contentType("text/csv")
+                        .content("date\n"))
+                .andExpect(status().isNotFound());
+    }
+}
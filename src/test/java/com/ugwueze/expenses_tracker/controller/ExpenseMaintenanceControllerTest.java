@@ -0,0 +1,49 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ExpenseMaintenanceController.class, properties = "expenses.admin.enabled=true")
+class ExpenseMaintenanceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExpensePartitionService expensePartitionService;
+
+    @MockBean
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Test
+    void detachPartitions_passesCutoff() throws Exception {
+        when(expensePartitionService.detachPartitionsBefore(LocalDate.of(2020, 1, 1)))
+                .thenReturn(List.of("expenses_archived_y2019"));
+
+        mockMvc.perform(post("/api/v1/admin/expenses/partitions/detach").param("before", "2020-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0]").value("expenses_archived_y2019"));
+    }
+
+    @Test
+    void archiveExpenses_reportsMovedRows() throws Exception {
+        when(expenseArchiveService.archiveBefore(LocalDate.of(2018, 1, 1))).thenReturn(1250L);
+
+        mockMvc.perform(post("/api/v1/admin/expenses/archive").param("before", "2018-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Archived 1250 expenses"))
+                .andExpect(jsonPath("$.data").value(1250));
+    }
+}
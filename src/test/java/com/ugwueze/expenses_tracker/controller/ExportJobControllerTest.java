@@ -0,0 +1,94 @@
+package com.ugwueze.expenses_tracker.controller;
+
+import com.ugwueze.expenses_tracker.dto.ExportJobDto;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+import com.ugwueze.expenses_tracker.exception.ExportJobNotReadyException;
+import com.ugwueze.expenses_tracker.service.ExportJobService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportJobController.class)
+class ExportJobControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportJobService exportJobService;
+
+    private ExportJobDto job(ExportJobStatus status, ExportFormat format) {
+        return ExportJobDto.builder().jobId("abc").userId(5L).format(format).status(status).build();
+    }
+
+    @Test
+    void createExportJob_returnsAcceptedWithLocation() throws Exception {
+        when(exportJobService.submitJob(eq(5L), isNull(), isNull(), eq(ExportFormat.CSV_GZIP)))
+                .thenReturn(job(ExportJobStatus.PENDING, ExportFormat.CSV_GZIP));
+
+        mockMvc.perform(post("/api/users/{userId}/expenses/export-jobs", 5L).param("format", "csv.gz"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.endsWith("/api/users/5/expenses/export-jobs/abc")))
+                .andExpect(jsonPath("$.data.jobId").value("abc"))
+                .andExpect(jsonPath("$.data.status").value("PENDING"));
+    }
+
+    @Test
+    void createExportJob_withUnsupportedFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/{userId}/expenses/export-jobs", 5L).param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportJobService);
+    }
+
+    @Test
+    void createExportJob_whenPoolIsFull_returnsServiceUnavailable() throws Exception {
+        when(exportJobService.submitJob(anyLong(), any(), any(), any()))
+                .thenThrow(new TaskRejectedException("full"));
+
+        mockMvc.perform(post("/api/users/{userId}/expenses/export-jobs", 5L))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void downloadExportJob_streamsCompletedFile() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("export-abc.csv"), "id,date\n1,2024-01-01\n");
+        when(exportJobService.getJob(5L, "abc")).thenReturn(job(ExportJobStatus.COMPLETED, ExportFormat.CSV));
+        when(exportJobService.getResultFile(5L, "abc")).thenReturn(file);
+
+        mockMvc.perform(get("/api/users/{userId}/expenses/export-jobs/{jobId}/download", 5L, "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses_user_5.csv\""))
+                .andExpect(header().longValue("Content-Length", Files.size(file)))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,date\n1,2024-01-01\n"));
+    }
+
+    @Test
+    void downloadExportJob_whenNotCompleted_returnsConflict() throws Exception {
+        when(exportJobService.getJob(5L, "abc")).thenReturn(job(ExportJobStatus.RUNNING, ExportFormat.CSV));
+        when(exportJobService.getResultFile(5L, "abc")).thenThrow(new ExportJobNotReadyException("Export job abc is RUNNING"));
+
+        mockMvc.perform(get("/api/users/{userId}/expenses/export-jobs/{jobId}/download", 5L, "abc"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Export job abc is RUNNING"));
+    }
+}
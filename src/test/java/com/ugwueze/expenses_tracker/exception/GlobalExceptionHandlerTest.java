@@ -32,6 +32,17 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    @DisplayName("IllegalArgumentException -> 400 with its message")
+    void testIllegalArgument() throws Exception {
+        mvc.perform(get("/__test/bad-argument"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("month out of range: 13"))
+                .andExpect(jsonPath("$.path").value("/__test/bad-argument"));
+    }
+
     @Test
     @DisplayName("DuplicateResourceException -> 409 Conflict")
     void testDuplicate() throws Exception {
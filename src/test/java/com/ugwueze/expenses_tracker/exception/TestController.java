@@ -30,6 +30,11 @@ public class TestController {
         throw new DataIntegrityViolationException("db constraint violated");
     }
 
+    @GetMapping("/bad-argument")
+    public void badArgument() {
+        throw new IllegalArgumentException("month out of range: 13");
+    }
+
     @GetMapping("/access-denied")
     public void accessDenied() throws AccessDeniedException {
         throw new AccessDeniedException("no access");
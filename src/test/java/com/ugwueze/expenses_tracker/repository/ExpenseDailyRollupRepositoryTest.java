@@ -0,0 +1,55 @@
+package com.ugwueze.expenses_tracker.repository;
+
+import com.ugwueze.expenses_tracker.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ExpenseDailyRollupRepositoryTest extends AbstractIntegrationTest {
+
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private ExpenseDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM expense_daily_rollups");
+        // March nets to zero, April is negative, May is positive across two categories
+        insert(LocalDate.of(2025, 3, 2), "Food", "10.00");
+        insert(LocalDate.of(2025, 3, 9), "Refund", "-10.00");
+        insert(LocalDate.of(2025, 4, 4), "Refund", "-10.00");
+        insert(LocalDate.of(2025, 5, 1), "Food", "15.00");
+        insert(LocalDate.of(2025, 5, 31), "Rent", "5.00");
+        insert(LocalDate.of(2026, 1, 1), "Food", "99.00");
+    }
+
+    @Test
+    void sumPositiveTotalByMonth_omitsZeroAndNegativeMonths() {
+        List<Object[]> rows = rollupRepository.sumPositiveTotalByMonth(USER_ID,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+
+        assertEquals(1, rows.size());
+        assertEquals(5, ((Number) rows.get(0)[0]).intValue());
+        assertEquals(0, new BigDecimal("20.00").compareTo((BigDecimal) rows.get(0)[1]));
+    }
+
+    private void insert(LocalDate day, String category, String total) {
+        jdbcTemplate.update("INSERT INTO expense_daily_rollups (user_id, day, category, total, expense_count) "
+                + "VALUES (?, ?, ?, ?, 1)", USER_ID, day, category, new BigDecimal(total));
+    }
+}
@@ -1,13 +1,19 @@
 package com.ugwueze.expenses_tracker.scheduler;
 
+import com.ugwueze.expenses_tracker.service.ExpenseArchiveService;
+import com.ugwueze.expenses_tracker.service.ExpensePartitionService;
+import com.ugwueze.expenses_tracker.service.ExpenseRollupService;
+import com.ugwueze.expenses_tracker.service.ExportJobService;
 import com.ugwueze.expenses_tracker.service.RecurringExpenseService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,6 +22,18 @@ class ScheduledConfigTest {
     @Mock
     private RecurringExpenseService recurringExpenseService;
 
+    @Mock
+    private ExportJobService exportJobService;
+
+    @Mock
+    private ExpensePartitionService expensePartitionService;
+
+    @Mock
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Mock
+    private ExpenseRollupService expenseRollupService;
+
     @InjectMocks
     private ScheduledConfig scheduledConfig;
 
@@ -26,4 +44,46 @@ class ScheduledConfigTest {
         verify(recurringExpenseService).processDueRecurringExpenses();
         verifyNoMoreInteractions(recurringExpenseService);
     }
+
+    @Test
+    void purgeExpiredExportJobs_delegatesToExportJobService() {
+        scheduledConfig.purgeExpiredExportJobs();
+
+        verify(exportJobService).purgeExpiredJobs();
+        verifyNoMoreInteractions(recurringExpenseService);
+    }
+
+    @Test
+    void createUpcomingExpensePartitions_delegatesAndSurvivesDatabaseErrors() {
+        when(expensePartitionService.createUpcomingPartitions()).thenThrow(new QueryTimeoutException("timeout"));
+
+        scheduledConfig.createUpcomingExpensePartitions();
+
+        verify(expensePartitionService).createUpcomingPartitions();
+    }
+
+    @Test
+    void archiveExpiredExpenses_delegatesAndSurvivesDatabaseErrors() {
+        when(expenseArchiveService.archiveExpired()).thenThrow(new QueryTimeoutException("timeout"));
+
+        scheduledConfig.archiveExpiredExpenses();
+
+        verify(expenseArchiveService).archiveExpired();
+    }
+
+    @Test
+    void refreshExpenseArchive_delegatesToArchiveService() {
+        scheduledConfig.refreshExpenseArchive();
+
+        verify(expenseArchiveService).refreshSegments();
+    }
+
+    @Test
+    void reconcileBudgetSpent_delegatesAndSurvivesDatabaseErrors() {
+        when(expenseRollupService.reconcileBudgetSpent()).thenThrow(new QueryTimeoutException("timeout"));
+
+        scheduledConfig.reconcileBudgetSpent();
+
+        verify(expenseRollupService).reconcileBudgetSpent();
+    }
 }
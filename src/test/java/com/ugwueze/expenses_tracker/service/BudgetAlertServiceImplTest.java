@@ -0,0 +1,234 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.impl.BudgetAlertServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BudgetAlertServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSource dataSource;
+    private UserRepository userRepository;
+    private ScheduledExecutorService scheduler;
+    private BudgetAlertServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userRepository = mock(UserRepository.class);
+        scheduler = mock(ScheduledExecutorService.class);
+        dataSource = mock(DataSource.class);
+        service = new BudgetAlertServiceImpl(jdbcTemplate, dataSource, mock(PlatformTransactionManager.class),
+                userRepository, new int[]{80, 50, 100}, Duration.ofSeconds(2), Duration.ofMinutes(1), scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void onSpendChanged_burstIsEvaluatedOnceWithOneQuery() {
+        service.onSpendChanged(1L, List.of("Food"));
+        service.onSpendChanged(1L, List.of("FOOD", "Rent"));
+        service.onSpendChanged(2L, List.of("Travel"));
+
+        ArgumentCaptor<Runnable> evaluation = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(evaluation.capture(), eq(2000L), eq(TimeUnit.MILLISECONDS));
+        stubCandidates();
+        evaluation.getValue().run();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT id, user_id, category"), any(RowMapper.class), args.capture());
+        assertEquals(Set.of(1L, 2L), Set.of((Long[]) args.getValue()[0]));
+        assertEquals(Set.of("food", "rent", "travel"), Set.of((String[]) args.getValue()[1]));
+
+        service.onSpendChanged(1L, List.of("Food"));
+        verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void evaluate_crossingUp_movesLevelAndStoresOneAlertForTheHighestThreshold() {
+        stubCandidates(candidate(10L, 1L, "Food", "100.00", "85.00", 0));
+        when(jdbcTemplate.update(startsWith("UPDATE budgets SET alert_level"), eq(80), eq(10L), eq(0))).thenReturn(1);
+
+        evaluate(1L, "food");
+
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO budget_alerts"),
+                eq(10L), eq(1L), eq("Food"), eq(80), eq(new BigDecimal("100.00")), eq(new BigDecimal("85.00")));
+    }
+
+    @Test
+    void evaluate_levelUnchanged_writesNothing() {
+        stubCandidates(candidate(10L, 1L, "Food", "100.00", "60.00", 50));
+
+        evaluate(1L, "food");
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void evaluate_spendFallsBack_rearmsWithoutAlert() {
+        stubCandidates(candidate(10L, 1L, "Food", "100.00", "40.00", 80));
+        when(jdbcTemplate.update(startsWith("UPDATE budgets SET alert_level"), eq(0), eq(10L), eq(80))).thenReturn(1);
+
+        evaluate(1L, "food");
+
+        verify(jdbcTemplate).update(startsWith("UPDATE budgets SET alert_level"), eq(0), eq(10L), eq(80));
+        verifyNoAlertStored();
+    }
+
+    @Test
+    void evaluate_levelMovedElsewhere_doesNotReportTwice() {
+        stubCandidates(candidate(10L, 1L, "Food", "100.00", "120.00", 80));
+        when(jdbcTemplate.update(startsWith("UPDATE budgets SET alert_level"), eq(100), eq(10L), eq(80))).thenReturn(0);
+
+        evaluate(1L, "food");
+
+        verifyNoAlertStored();
+    }
+
+    @Test
+    void evaluate_ignoresCategoriesChangedOnlyForAnotherUser() {
+        service.onSpendChanged(2L, List.of("Rent"));
+        stubCandidates(candidate(10L, 1L, "Rent", "100.00", "100.00", 0));
+
+        evaluate(1L, "food");
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void evaluate_spendExactlyAtAmount_reachesHundredPercent() {
+        stubCandidates(candidate(10L, 1L, "Food", "200.00", "200.00", 50),
+                candidate(11L, 1L, "food", "200.00", "99.99", 0));
+        when(jdbcTemplate.update(startsWith("UPDATE budgets SET alert_level"), eq(100), eq(10L), eq(50))).thenReturn(1);
+
+        evaluate(1L, "FOOD");
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO budget_alerts"),
+                eq(10L), eq(1L), eq("Food"), eq(100), any(), any());
+        verify(jdbcTemplate, never()).update(anyString(), eq(50), eq(11L), anyInt());
+    }
+
+    @Test
+    void subscribe_unknownUser_throws() {
+        when(userRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.subscribe(9L, null));
+    }
+
+    @Test
+    void subscribe_withLastEventId_replaysLaterAlerts() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertNotNull(service.subscribe(1L, 41L));
+
+        verify(jdbcTemplate).query(contains("id > ?"), any(RowMapper.class), eq(1L), eq(41L));
+    }
+
+    @Test
+    void listener_forwardsNotifiedAlertsOfStreamedUsersOnly() throws Exception {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        service.subscribe(1L, null);
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        PGNotification[] notifications = {notification("2:499"), notification("1:500")};
+        when(pgConnection.getNotifications(anyInt())).thenReturn(notifications).thenReturn(null);
+        when(jdbcTemplate.query(endsWith("WHERE id = ?"), any(RowMapper.class), eq(500L))).thenAnswer(inv ->
+                rows(inv.getArgument(1), Map.of("id", 500L, "budget_id", 10L, "user_id", 1L, "category", "Food",
+                        "threshold", 80, "budget_amount", new BigDecimal("100.00"), "spent", new BigDecimal("85.00"),
+                        "created_at", Timestamp.valueOf(LocalDateTime.of(2025, 3, 4, 10, 0)))));
+
+        service.startListening();
+
+        verify(jdbcTemplate, timeout(5000)).query(endsWith("WHERE id = ?"), any(RowMapper.class), eq(500L));
+        verify(jdbcTemplate, never()).query(endsWith("WHERE id = ?"), any(RowMapper.class), eq(499L));
+    }
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    private void evaluate(Long userId, String category) {
+        service.onSpendChanged(userId, List.of(category));
+        ArgumentCaptor<Runnable> evaluation = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(evaluation.capture(), anyLong(), any(TimeUnit.class));
+        evaluation.getValue().run();
+    }
+
+    private void verifyNoAlertStored() {
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO budget_alerts"), any(Object[].class));
+    }
+
+    @SafeVarargs
+    private void stubCandidates(Map<String, Object>... candidates) {
+        when(jdbcTemplate.query(startsWith("SELECT id, user_id, category"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(inv -> rows(inv.getArgument(1), candidates));
+    }
+
+    private static Map<String, Object> candidate(Long id, Long userId, String category, String amount, String spent,
+                                                 int alertLevel) {
+        return Map.of("id", id, "user_id", userId, "category", category, "amount", new BigDecimal(amount),
+                "spent", new BigDecimal(spent), "alert_level", alertLevel);
+    }
+
+    @SafeVarargs
+    private static <T> List<T> rows(RowMapper<T> mapper, Map<String, Object>... rows) throws SQLException {
+        List<T> result = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                Object value = column.getValue();
+                if (value instanceof Long l) {
+                    when(rs.getLong(column.getKey())).thenReturn(l);
+                } else if (value instanceof Integer i) {
+                    when(rs.getInt(column.getKey())).thenReturn(i);
+                } else if (value instanceof BigDecimal d) {
+                    when(rs.getBigDecimal(column.getKey())).thenReturn(d);
+                } else if (value instanceof Timestamp t) {
+                    when(rs.getTimestamp(column.getKey())).thenReturn(t);
+                } else {
+                    when(rs.getString(column.getKey())).thenReturn((String) value);
+                }
+            }
+            result.add(mapper.mapRow(rs, result.size()));
+        }
+        return result;
+    }
+}
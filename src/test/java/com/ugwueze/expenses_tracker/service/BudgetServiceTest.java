@@ -1,6 +1,8 @@
 package com.ugwueze.expenses_tracker.service;
 
+import com.ugwueze.expenses_tracker.config.CacheConfig;
 import com.ugwueze.expenses_tracker.dto.BudgetDto;
+import com.ugwueze.expenses_tracker.dto.BudgetUtilizationDto;
 import com.ugwueze.expenses_tracker.entity.Budget;
 import com.ugwueze.expenses_tracker.entity.User;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
@@ -16,10 +18,14 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +43,15 @@ class BudgetServiceTest {
     @Mock
     private ExpenseService expenseService;
 
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private UserDataVersionService dataVersionService;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @Mock
     private BudgetMapper budgetMapper;
 
@@ -48,8 +63,11 @@ class BudgetServiceTest {
 
     private User user;
 
+    private final Cache budgetIndexes = new ConcurrentMapCache(CacheConfig.BUDGET_INDEXES);
+
     @BeforeEach
     void setup() {
+        lenient().when(cacheManager.getCache(CacheConfig.BUDGET_INDEXES)).thenReturn(budgetIndexes);
         user = new User();
         user.setId(1L);
         user.setUsername("alice");
@@ -67,7 +85,8 @@ class BudgetServiceTest {
                 .endDate(LocalDate.now().plusDays(5))
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsByIdUncached(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
 
         Budget saved = new Budget();
         saved.setId(10L);
@@ -95,7 +114,10 @@ class BudgetServiceTest {
         assertNotNull(result);
         assertEquals(10L, result.getId());
         assertEquals("Food", result.getCategory());
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).getReferenceById(1L);
+        verify(userRepository, never()).findById(any());
+        verify(dataVersionService).touch(1L);
+        verify(rollupService).recomputeBudgetSpent(1L, 10L);
         verify(budgetRepository, times(1)).save(budgetCaptor.capture());
         Budget captured = budgetCaptor.getValue();
         assertEquals("Food", captured.getCategory());
@@ -127,7 +149,8 @@ class BudgetServiceTest {
                 .build();
 
         when(budgetRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.existsByIdUncached(2L)).thenReturn(true);
+        when(userRepository.getReferenceById(2L)).thenReturn(existingUser);
 
         Budget updated = new Budget();
         updated.setId(id);
@@ -156,8 +179,9 @@ class BudgetServiceTest {
         assertEquals("New", result.getCategory());
         assertEquals(dto.getAmount(), result.getAmount());
         verify(budgetRepository, times(1)).findById(id);
-        verify(userRepository, times(1)).findById(2L);
+        verify(userRepository, times(1)).getReferenceById(2L);
         verify(budgetRepository, times(1)).save(existing);
+        verify(rollupService).recomputeBudgetSpent(2L, id);
     }
 
     @Test
@@ -201,6 +225,7 @@ class BudgetServiceTest {
 
         verify(budgetRepository, times(1)).findById(id);
         verify(budgetRepository, times(1)).deleteById(id);
+        verify(dataVersionService).touch(userId);
     }
 
     @Test
@@ -218,6 +243,7 @@ class BudgetServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> budgetService.deleteBudget(id, userId));
         verify(budgetRepository).findById(id);
         verify(budgetRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(dataVersionService);
     }
 
     @Test
@@ -310,6 +336,29 @@ class BudgetServiceTest {
         verify(budgetRepository).findByUserId(userId);
     }
 
+    @Test
+    void getCurrentBudgetForCategory_servedFromIndexUntilBudgetWrite() {
+        Long userId = user.getId();
+        LocalDate today = LocalDate.now();
+        Budget old = budget(20L, "Groceries", "90.00", today.minusMonths(2), today.minusMonths(1));
+        Budget current = budget(21L, "Groceries", "120.00", today.minusDays(1), today.plusDays(1));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(budgetRepository.findByUserId(userId)).thenReturn(List.of(old, current));
+        when(budgetMapper.toDto(any(Budget.class))).thenAnswer(inv -> toDto(inv.getArgument(0), userId));
+
+        assertEquals(21L, budgetService.getCurrentBudgetForCategory(userId, "Groceries").getId());
+        assertEquals(21L, budgetService.getCurrentBudgetForCategory(userId, "GROCERIES").getId());
+        assertNull(budgetService.getCurrentBudgetForCategory(userId, "Rent"));
+        verify(budgetRepository, times(1)).findByUserId(userId);
+
+        when(budgetRepository.findById(20L)).thenReturn(Optional.of(old));
+        budgetService.deleteBudget(20L, userId);
+        assertNull(budgetIndexes.get(userId));
+
+        budgetService.getCurrentBudgetForCategory(userId, "Groceries");
+        verify(budgetRepository, times(2)).findByUserId(userId);
+    }
+
     @Test
     void getCurrentBudgetForCategory_notFound_returnsNull() {
         Long userId = 4L;
@@ -348,11 +397,11 @@ class BudgetServiceTest {
 
         when(budgetMapper.toDto(b)).thenReturn(dto);
 
-        when(expenseService.getTotalExpensesByDateRange(eq(userId), eq(b.getStartDate()), eq(b.getEndDate())))
-                .thenReturn(new BigDecimal("250.00"));
+        when(budgetRepository.findSpentById(30L)).thenReturn(Optional.of(new BigDecimal("250.00")));
 
         boolean exceeded = budgetService.isBudgetExceeded(userId, category);
         assertTrue(exceeded);
+        verifyNoInteractions(expenseService);
     }
 
     @Test
@@ -365,4 +414,71 @@ class BudgetServiceTest {
         boolean exceeded = budgetService.isBudgetExceeded(userId, category);
         assertFalse(exceeded);
     }
+
+    @Test
+    void getBudgetUtilization_singleAggregateOverUnionOfRanges() {
+        Long userId = 1L;
+        LocalDate today = LocalDate.now();
+        Budget food = budget(40L, "Food", "200.00", today.minusDays(3), today.plusDays(10));
+        Budget bills = budget(41L, "Bills", "100.00", today.minusDays(20), today.plusDays(2));
+        Budget travel = budget(42L, "travel", "0", today, today);
+        when(budgetRepository.findActiveBudgetsByUserAndDate(userId, today)).thenReturn(List.of(food, bills, travel));
+        when(expenseService.getSpentByBudget(userId, List.of(40L, 41L, 42L), today.minusDays(20), today.plusDays(10)))
+                .thenReturn(Map.of(40L, new BigDecimal("50.00"), 41L, new BigDecimal("125.00")));
+
+        List<BudgetUtilizationDto> result = budgetService.getBudgetUtilization(userId);
+
+        assertEquals(List.of(41L, 40L, 42L), result.stream().map(BudgetUtilizationDto::getBudgetId).toList());
+        BudgetUtilizationDto billsUsage = result.get(0);
+        assertEquals(new BigDecimal("125.00"), billsUsage.getSpentAmount());
+        assertEquals(new BigDecimal("-25.00"), billsUsage.getRemainingAmount());
+        assertEquals(new BigDecimal("125.00"), billsUsage.getPercentUsed());
+        BudgetUtilizationDto foodUsage = result.get(1);
+        assertEquals(new BigDecimal("150.00"), foodUsage.getRemainingAmount());
+        assertEquals(new BigDecimal("25.00"), foodUsage.getPercentUsed());
+        BudgetUtilizationDto travelUsage = result.get(2);
+        assertEquals(BigDecimal.ZERO, travelUsage.getSpentAmount());
+        assertNull(travelUsage.getPercentUsed());
+        verify(expenseService, times(1)).getSpentByBudget(any(), any(), any(), any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getBudgetUtilization_noActiveBudgets_returnsEmpty() {
+        when(budgetRepository.findActiveBudgetsByUserAndDate(eq(2L), any(LocalDate.class))).thenReturn(List.of());
+        when(userRepository.existsById(2L)).thenReturn(true);
+
+        assertTrue(budgetService.getBudgetUtilization(2L).isEmpty());
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    void getBudgetUtilization_unknownUser_throws() {
+        when(budgetRepository.findActiveBudgetsByUserAndDate(eq(3L), any(LocalDate.class))).thenReturn(List.of());
+        when(userRepository.existsById(3L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> budgetService.getBudgetUtilization(3L));
+    }
+
+    private Budget budget(Long id, String category, String amount, LocalDate start, LocalDate end) {
+        Budget b = new Budget();
+        b.setId(id);
+        b.setCategory(category);
+        b.setAmount(new BigDecimal(amount));
+        b.setStartDate(start);
+        b.setEndDate(end);
+        b.setUser(user);
+        return b;
+    }
+
+    private BudgetDto toDto(Budget b, Long userId) {
+        return BudgetDto.builder()
+                .id(b.getId())
+                .userId(userId)
+                .category(b.getCategory())
+                .amount(b.getAmount())
+                .startDate(b.getStartDate())
+                .endDate(b.getEndDate())
+                .build();
+    }
 }
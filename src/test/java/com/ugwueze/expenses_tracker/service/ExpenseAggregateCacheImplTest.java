@@ -0,0 +1,160 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.service.ExpenseAggregateCache.Aggregate;
+import com.ugwueze.expenses_tracker.service.impl.ExpenseAggregateCacheImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseAggregateCacheImplTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2025, 1, 31);
+    private static final LocalDate FEB_1 = LocalDate.of(2025, 2, 1);
+    private static final LocalDate FEB_28 = LocalDate.of(2025, 2, 28);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpenseAggregateCacheImpl cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        cache = new ExpenseAggregateCacheImpl(DataSize.ofMegabytes(1), Duration.ofMinutes(5),
+                beanFactory.getBeanProvider(MeterRegistry.class));
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void get_cachesPerUserAggregateAndRange() {
+        assertEquals(BigDecimal.ONE, total(1L, JAN_1, JAN_31));
+        assertEquals(BigDecimal.ONE, total(1L, JAN_1, JAN_31));
+        assertEquals(1, loads.get());
+
+        total(2L, JAN_1, JAN_31);
+        total(1L, JAN_1, FEB_28);
+        cache.get(1L, Aggregate.CATEGORY_WISE, JAN_1, JAN_31, counting(Map.of("Food", BigDecimal.ONE)));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidate_dropsOnlyTheUsersEntriesWhoseRangeContainsAChangedDay() {
+        total(1L, JAN_1, JAN_31);
+        total(1L, FEB_1, FEB_28);
+        total(1L, JAN_1, FEB_28);
+        total(2L, JAN_1, JAN_31);
+        loads.set(0);
+
+        cache.invalidate(1L, List.of(JAN_31));
+
+        total(1L, JAN_1, JAN_31);
+        total(1L, JAN_1, FEB_28);
+        assertEquals(2, loads.get());
+        total(1L, FEB_1, FEB_28);
+        total(2L, JAN_1, JAN_31);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_duringLoad_doesNotKeepTheLoadedValue() {
+        cache.get(1L, Aggregate.TOTAL, JAN_1, JAN_31, () -> {
+            loads.incrementAndGet();
+            // a write to the user's January commits while the aggregate is being read
+            cache.invalidate(1L, List.of(JAN_1));
+            return BigDecimal.ONE;
+        });
+
+        total(1L, JAN_1, JAN_31);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateAll_dropsEveryEntry() {
+        total(1L, JAN_1, JAN_31);
+        total(2L, FEB_1, FEB_28);
+
+        cache.invalidateAll();
+
+        total(1L, JAN_1, JAN_31);
+        total(2L, FEB_1, FEB_28);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_failedLoadIsNotCached() {
+        Supplier<Object> missingUser = () -> {
+            loads.incrementAndGet();
+            throw new ResourceNotFoundException("User not found with id: 9");
+        };
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(9L, Aggregate.SUMMARY, JAN_1, JAN_31, missingUser));
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(9L, Aggregate.SUMMARY, JAN_1, JAN_31, missingUser));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_insideReadWriteTransaction_bypassesCache() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        total(1L, JAN_1, JAN_31);
+        total(1L, JAN_1, JAN_31);
+        assertEquals(2, loads.get());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        total(1L, JAN_1, JAN_31);
+        total(1L, JAN_1, JAN_31);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_recordsHitsAndMissesAsCacheMetrics() {
+        total(1L, JAN_1, JAN_31);
+        total(1L, JAN_1, JAN_31);
+        total(1L, JAN_1, JAN_31);
+
+        assertEquals(2.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    private BigDecimal total(Long userId, LocalDate start, LocalDate end) {
+        return cache.get(userId, Aggregate.TOTAL, start, end, counting(BigDecimal.ONE));
+    }
+
+    private <T> Supplier<T> counting(T value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ExpenseAggregateCacheImpl.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,215 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
+import com.ugwueze.expenses_tracker.service.JobLeaseService.Lease;
+import com.ugwueze.expenses_tracker.service.impl.ExpenseArchiveServiceImpl;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExpenseArchiveServiceImplTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserDataVersionService dataVersionService;
+    private JobLeaseService jobLeaseService;
+    private final Lease lease = new Lease("expense-archive", "node-a", 3L);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        dataVersionService = mock(UserDataVersionService.class);
+        jobLeaseService = mock(JobLeaseService.class);
+        when(jobLeaseService.tryAcquire(eq("expense-archive"), any(Duration.class)))
+                .thenReturn(Optional.of(lease));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Expense expense(long id, LocalDate date) {
+        return Expense.builder().id(id).date(date).description("d" + id).category("Food")
+                .amount(new BigDecimal("2.00")).build();
+    }
+
+    private void writeSegment(String name, long userId, Expense... expenses) throws IOException {
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(dir.resolve(name), 2)) {
+            for (Expense e : expenses) {
+                writer.write(userId, e);
+            }
+            writer.finish();
+        }
+    }
+
+    private ExpenseArchiveServiceImpl service(int retentionYears) {
+        return new ExpenseArchiveServiceImpl(jdbcTemplate, dataVersionService, jobLeaseService,
+                mock(PlatformTransactionManager.class), dir, retentionYears, 2, Duration.ofHours(1));
+    }
+
+    private static List<Long> ids(Stream<Expense> expenses) {
+        try (expenses) {
+            return expenses.map(Expense::getId).toList();
+        }
+    }
+
+    private void stubArchiveQuery(Object[]... rows) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Object[] row : rows) {
+                when(rs.getLong("user_id")).thenReturn((Long) row[0]);
+                when(rs.getLong("id")).thenReturn((Long) row[1]);
+                when(rs.getObject("date", LocalDate.class)).thenReturn((LocalDate) row[2]);
+                when(rs.getString("description")).thenReturn("archived");
+                when(rs.getString("category")).thenReturn("Food");
+                when(rs.getString("payment_method")).thenReturn("CASH");
+                when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal("9.99"));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(s -> s.beforeCommit(false));
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    @Test
+    void streamArchived_mergesSegmentsInDateAndIdOrder() throws IOException {
+        writeSegment("segment-a.seg", 1L, expense(1L, LocalDate.of(2015, 1, 1)), expense(5L, LocalDate.of(2015, 6, 1)),
+                expense(2L, LocalDate.of(2016, 1, 1)));
+        writeSegment("segment-b.seg", 1L, expense(3L, LocalDate.of(2015, 3, 1)), expense(9L, LocalDate.of(2016, 1, 1)));
+
+        ExpenseArchiveServiceImpl service = service(0);
+
+        assertEquals(List.of(1L, 3L, 5L, 2L, 9L), ids(service.streamArchived(1L, null, null)));
+        assertEquals(List.of(3L, 5L), ids(service.streamArchived(1L, LocalDate.of(2015, 2, 1), LocalDate.of(2015, 12, 31))));
+        assertEquals(List.of(), ids(service.streamArchived(2L, null, null)));
+    }
+
+    @Test
+    void unreadableSegment_isSkipped() throws IOException {
+        writeSegment("segment-a.seg", 1L, expense(1L, LocalDate.of(2015, 1, 1)));
+        Files.writeString(dir.resolve("segment-b.seg"), "not a segment");
+
+        ExpenseArchiveServiceImpl service = service(0);
+
+        assertEquals(List.of(1L), ids(service.streamArchived(1L, null, null)));
+        assertEquals(1, service.archivedCount());
+    }
+
+    @Test
+    void refreshSegments_loadsSegmentsWrittenElsewhere() throws IOException {
+        writeSegment("segment-a.seg", 1L, expense(1L, LocalDate.of(2015, 1, 1)));
+        ExpenseArchiveServiceImpl service = service(0);
+        writeSegment("segment-b.seg", 1L, expense(2L, LocalDate.of(2015, 2, 1)));
+
+        service.refreshSegments();
+        service.refreshSegments();
+
+        assertEquals(List.of(1L, 2L), ids(service.streamArchived(1L, null, null)));
+    }
+
+    @Test
+    void archiveBefore_publishesSegmentOnCommit() throws Exception {
+        stubArchiveQuery(new Object[]{1L, 10L, LocalDate.of(2014, 2, 1)},
+                new Object[]{1L, 11L, LocalDate.of(2014, 3, 1)},
+                new Object[]{1L, 12L, LocalDate.of(2014, 4, 1)},
+                new Object[]{4L, 13L, LocalDate.of(2014, 1, 1)});
+        Files.writeString(dir.resolve("segment-c.part"), "left over");
+        ExpenseArchiveServiceImpl service = service(0);
+        assertTrue(Files.exists(dir.resolve("segment-c.part")));
+
+        assertEquals(4, service.archiveBefore(LocalDate.of(2015, 1, 1)));
+        assertFalse(Files.exists(dir.resolve("segment-c.part")));
+        verify(jobLeaseService).checkHeld(lease);
+        verify(jobLeaseService).finishRun(anyLong(), eq(JobRunStatus.SUCCEEDED), eq(4), eq(0), eq(0));
+        verify(jobLeaseService).release(lease);
+        assertEquals(List.of(), ids(service.streamArchived(1L, null, null)));
+        verify(dataVersionService).touch(1L);
+        verify(dataVersionService).touch(4L);
+        verifyNoMoreInteractions(dataVersionService);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        List<Expense> archived;
+        try (Stream<Expense> stream = service.streamArchived(1L, null, null)) {
+            archived = stream.toList();
+        }
+        assertEquals(List.of(10L, 11L, 12L), archived.stream().map(Expense::getId).toList());
+        assertEquals(new BigDecimal("9.99"), archived.get(0).getAmount());
+        assertEquals(List.of(13L), ids(service.streamArchived(4L, null, null)));
+        assertEquals(4, service.archivedCount());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.filter(f -> f.toString().endsWith(".seg")).count());
+        }
+    }
+
+    @Test
+    void archiveBefore_discardsSegmentOnRollback() throws Exception {
+        stubArchiveQuery(new Object[]{1L, 10L, LocalDate.of(2014, 2, 1)});
+        ExpenseArchiveServiceImpl service = service(0);
+
+        service.archiveBefore(LocalDate.of(2015, 1, 1));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(List.of(), ids(service.streamArchived(1L, null, null)));
+    }
+
+    @Test
+    void archiveBefore_leaseHeldElsewhere_archivesNothing() {
+        when(jobLeaseService.tryAcquire(eq("expense-archive"), any(Duration.class)))
+                .thenReturn(Optional.empty());
+        ExpenseArchiveServiceImpl service = service(0);
+
+        assertEquals(0, service.archiveBefore(LocalDate.of(2015, 1, 1)));
+        verifyNoInteractions(jdbcTemplate);
+        verify(jobLeaseService, never()).startRun(any());
+    }
+
+    @Test
+    void archiveExpired_disabledByDefault() {
+        ExpenseArchiveServiceImpl service = service(0);
+
+        assertEquals(0, service.archiveExpired());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -1,22 +1,23 @@
 package com.ugwueze.expenses_tracker.service;
 
 import com.ugwueze.expenses_tracker.entity.Expense;
-import com.ugwueze.expenses_tracker.entity.User;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
 import com.ugwueze.expenses_tracker.service.impl.ExpenseExportServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -24,13 +25,17 @@ class ExpenseExportServiceImplTest {
 
     private ExpenseRepository expenseRepository;
     private UserRepository userRepository;
+    private ExpenseArchiveService archiveService;
+    private EntityManager entityManager;
     private ExpenseExportServiceImpl service;
 
     @BeforeEach
     void setup() {
         expenseRepository = mock(ExpenseRepository.class);
         userRepository = mock(UserRepository.class);
-        service = new ExpenseExportServiceImpl(expenseRepository, userRepository);
+        archiveService = mock(ExpenseArchiveService.class);
+        entityManager = mock(EntityManager.class);
+        service = new ExpenseExportServiceImpl(expenseRepository, userRepository, archiveService, entityManager, 2);
     }
 
     private Expense makeExpense(Long id) {
@@ -48,15 +53,13 @@ class ExpenseExportServiceImplTest {
     }
 
     @Test
-    void streamExpensesAsCsv_withDateRange_usesFindByUserIdAndDateBetween_andWritesCsv() throws Exception {
+    void streamExpensesAsCsv_withDateRange_usesStreamByUserIdAndDateBetween_andWritesCsv() throws Exception {
         Long userId = 10L;
-        User user = new User();
-        user.setId(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         Expense e1 = makeExpense(1L);
-        when(expenseRepository.findByUserIdAndDateBetween(eq(userId), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(e1));
+        when(expenseRepository.streamByUserIdAndDateBetween(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Stream.of(e1));
 
         StringWriter writer = new StringWriter();
         service.streamExpensesAsCsv(userId, LocalDate.of(2023,1,1), LocalDate.of(2023,12,31), writer);
@@ -66,74 +69,102 @@ class ExpenseExportServiceImplTest {
         assertTrue(output.contains("1"));
         assertTrue(output.contains("123.45"));
         assertTrue(output.contains("note\nnewline"));
-        verify(expenseRepository, times(1)).findByUserIdAndDateBetween(eq(userId), any(LocalDate.class), any(LocalDate.class));
+        verify(expenseRepository, times(1)).streamByUserIdAndDateBetween(eq(userId), any(LocalDate.class), any(LocalDate.class));
     }
 
     @Test
-    void streamExpensesAsCsv_withStartOnly_usesFindByUserIdAndDateGreaterThanEqual() throws Exception {
+    void streamExpensesAsCsv_withStartOnly_usesStreamByUserIdAndDateGreaterThanEqual() throws Exception {
         Long userId = 11L;
-        User user = new User();
-        user.setId(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         Expense e = makeExpense(2L);
-        when(expenseRepository.findByUserIdAndDateGreaterThanEqual(eq(userId), any(LocalDate.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(e)));
+        when(expenseRepository.streamByUserIdAndDateGreaterThanEqual(eq(userId), any(LocalDate.class)))
+                .thenReturn(Stream.of(e));
 
         StringWriter writer = new StringWriter();
         service.streamExpensesAsCsv(userId, LocalDate.of(2023,1,1), null, writer);
 
         String output = writer.toString();
         assertTrue(output.contains("2"));
-        verify(expenseRepository, times(1)).findByUserIdAndDateGreaterThanEqual(eq(userId), any(LocalDate.class), any(Pageable.class));
+        verify(expenseRepository, times(1)).streamByUserIdAndDateGreaterThanEqual(eq(userId), any(LocalDate.class));
     }
 
     @Test
-    void streamExpensesAsCsv_withEndOnly_usesFindByUserIdAndDateLessThanEqual() throws Exception {
+    void streamExpensesAsCsv_withEndOnly_usesStreamByUserIdAndDateLessThanEqual() throws Exception {
         Long userId = 12L;
-        User user = new User();
-        user.setId(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         Expense e = makeExpense(3L);
-        when(expenseRepository.findByUserIdAndDateLessThanEqual(eq(userId), any(LocalDate.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(e)));
+        when(expenseRepository.streamByUserIdAndDateLessThanEqual(eq(userId), any(LocalDate.class)))
+                .thenReturn(Stream.of(e));
 
         StringWriter writer = new StringWriter();
         service.streamExpensesAsCsv(userId, null, LocalDate.of(2023,12,31), writer);
 
         String output = writer.toString();
         assertTrue(output.contains("3"));
-        verify(expenseRepository, times(1)).findByUserIdAndDateLessThanEqual(eq(userId), any(LocalDate.class), any(Pageable.class));
+        verify(expenseRepository, times(1)).streamByUserIdAndDateLessThanEqual(eq(userId), any(LocalDate.class));
     }
 
     @Test
-    void streamExpensesAsCsv_noFilters_usesFindByUserIdWithPageable() throws Exception {
+    void streamExpensesAsCsv_noFilters_usesStreamByUserId() throws Exception {
         Long userId = 13L;
-        User user = new User();
-        user.setId(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         Expense e = makeExpense(4L);
-        when(expenseRepository.findByUserId(eq(userId), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(e)));
+        when(expenseRepository.streamByUserId(userId)).thenReturn(Stream.of(e));
 
         StringWriter writer = new StringWriter();
         service.streamExpensesAsCsv(userId, null, null, writer);
 
         String output = writer.toString();
         assertTrue(output.contains("4"));
+        verify(expenseRepository).streamByUserId(userId);
+    }
+
+    @Test
+    void streamExpensesAsCsv_detachesEachRow_andClosesStream() throws Exception {
+        Long userId = 14L;
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        Expense e1 = makeExpense(5L);
+        Expense e2 = makeExpense(6L);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        when(expenseRepository.streamByUserId(userId))
+                .thenReturn(Stream.of(e1, e2).onClose(() -> closed.set(true)));
+
+        StringWriter writer = new StringWriter();
+        service.streamExpensesAsCsv(userId, null, null, writer);
+
+        String[] lines = writer.toString().split("\n(?=\\d+,)");
+        assertEquals(3, lines.length);
+        verify(entityManager).detach(e1);
+        verify(entityManager).detach(e2);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamExpensesAsCsv_mergesArchivedRowsBeforeLiveRows() throws Exception {
+        Long userId = 13L;
+        when(userRepository.existsById(userId)).thenReturn(true);
+        Expense archived = makeExpense(1L);
+        archived.setDate(LocalDate.of(2015, 6, 1));
+        Expense live = makeExpense(40L);
+        when(archiveService.streamArchived(userId, null, null)).thenReturn(Stream.of(archived));
+        when(expenseRepository.streamByUserId(userId)).thenReturn(Stream.of(live));
 
-        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
-        verify(expenseRepository).findByUserId(eq(userId), pageableCaptor.capture());
-        Pageable pageable = pageableCaptor.getValue();
-        assertNotNull(pageable);
+        StringWriter writer = new StringWriter();
+        service.streamExpensesAsCsv(userId, null, null, writer);
+
+        String[] lines = writer.toString().split("\n(?=\\d+,)");
+        assertTrue(lines[1].startsWith("1,2015-06-01,"));
+        assertTrue(lines[2].startsWith("40,2023-01-02,"));
     }
 
     @Test
     void streamExpensesAsCsv_userNotFound_throwsResourceNotFoundException() {
         Long userId = 99L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             service.streamExpensesAsCsv(userId, null, null, new StringWriter());
@@ -141,4 +172,45 @@ class ExpenseExportServiceImplTest {
 
         verifyNoInteractions(expenseRepository);
     }
+
+    @Test
+    void streamExpensesAsArrow_writesAllRowsInBatchesAndDetachesEachRow() throws Exception {
+        Long userId = 15L;
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        Expense e1 = makeExpense(7L);
+        Expense e2 = makeExpense(8L);
+        Expense e3 = makeExpense(9L);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        when(expenseRepository.streamByUserId(userId))
+                .thenReturn(Stream.of(e1, e2, e3).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.streamExpensesAsArrow(userId, null, null, out);
+
+        int batches = 0;
+        int rows = 0;
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            while (reader.loadNextBatch()) {
+                batches++;
+                rows += reader.getVectorSchemaRoot().getRowCount();
+            }
+        }
+        assertEquals(2, batches);
+        assertEquals(3, rows);
+        verify(entityManager).detach(e1);
+        verify(entityManager).detach(e3);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamExpensesAsArrow_userNotFound_throwsResourceNotFoundException() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.streamExpensesAsArrow(99L, null, null, new ByteArrayOutputStream()));
+
+        verifyNoInteractions(expenseRepository);
+    }
 }
@@ -0,0 +1,190 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExpenseImportResultDto;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.impl.ExpenseImportServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExpenseImportServiceImplTest {
+
+    private static final String HEADER = "id,date,description,category,payment_method,amount,notes,created_at,updated_at\n";
+
+    private JdbcTemplate jdbcTemplate;
+    private UserRepository userRepository;
+    private ExpenseRollupService rollupService;
+    private UserDataVersionService dataVersionService;
+    private ValidatorFactory validatorFactory;
+    private ExpenseImportServiceImpl service;
+
+    @BeforeEach
+    void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:import;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE expenses_seq START WITH 1 INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE expenses (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "date DATE NOT NULL, description VARCHAR(255) NOT NULL, category VARCHAR(255) NOT NULL, "
+                + "payment_method VARCHAR(255), amount NUMERIC(12,2) NOT NULL, notes VARCHAR(255), "
+                + "created_at TIMESTAMP(6), updated_at TIMESTAMP(6))");
+        userRepository = mock(UserRepository.class);
+        when(userRepository.existsByIdUncached(1L)).thenReturn(true);
+        rollupService = mock(ExpenseRollupService.class);
+        dataVersionService = mock(UserDataVersionService.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        service = new ExpenseImportServiceImpl(userRepository, rollupService, dataVersionService, jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), validatorFactory.getValidator(), 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE expenses");
+        jdbcTemplate.execute("DROP SEQUENCE expenses_seq");
+        validatorFactory.close();
+    }
+
+    private ExpenseImportResultDto importCsv(String csv) throws IOException {
+        return service.importExpensesFromCsv(1L, new StringReader(csv));
+    }
+
+    @Test
+    void importExpensesFromCsv_insertsValidRowsInBatches() throws IOException {
+        ExpenseImportResultDto result = importCsv(HEADER
+                + "99,2024-01-05,\"Lunch, team\",Food,CASH,12.50,\"multi\nline\",2024-01-05T12:00,\n"
+                + ",2024-01-06,Bus,Transport,,2.75,,,\n"
+                + ",2024-01-07,Book,Education,credit_card,20,,,\n");
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(0, result.getFailedRows());
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM expenses ORDER BY date");
+        assertEquals(3, rows.size());
+        assertEquals("Lunch, team", rows.get(0).get("DESCRIPTION"));
+        assertEquals("multi\nline", rows.get(0).get("NOTES"));
+        assertEquals(new BigDecimal("12.50"), rows.get(0).get("AMOUNT"));
+        assertNotEquals(99L, ((Number) rows.get(0).get("ID")).longValue());
+        assertEquals(rows.get(0).get("CREATED_AT"), rows.get(0).get("UPDATED_AT"));
+        assertNull(rows.get(1).get("PAYMENT_METHOD"));
+        assertEquals("CREDIT_CARD", rows.get(2).get("PAYMENT_METHOD"));
+        assertEquals(1L, ((Number) rows.get(2).get("USER_ID")).longValue());
+    }
+
+    @Test
+    void importExpensesFromCsv_allocatesIdsInPooledBlocksFromExpenseSequence() throws IOException {
+        // block [1, 51) already handed out to Hibernate
+        jdbcTemplate.queryForObject("SELECT nextval('expenses_seq')", Long.class);
+
+        importCsv("date,description,category,amount\n"
+                + "2024-01-05,a,Food,1\n"
+                + "2024-01-06,b,Food,1\n"
+                + "2024-01-07,c,Food,1\n");
+
+        assertEquals(List.of(51L, 52L, 101L),
+                jdbcTemplate.queryForList("SELECT id FROM expenses ORDER BY id", Long.class));
+    }
+
+    @Test
+    void importExpensesFromCsv_reportsInvalidRowsWithoutAbortingFile() throws IOException {
+        ExpenseImportResultDto result = importCsv("date,description,category,amount,payment_method\n"
+                + "2024-01-05,Lunch,Food,10.00,CASH\n"
+                + "not-a-date,,Food,-1,CASH\n"
+                + "2024-01-06,Taxi,Transport,1.234,BITCOIN\n"
+                + "2024-01-07,Too,few\n"
+                + "2024-01-08,Coffee,Food,3.20,\n");
+
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(3, result.getFailedRows());
+
+        ExpenseImportResultDto.RowError first = result.getErrors().get(0);
+        assertEquals(3, first.getLine());
+        assertTrue(first.getMessages().contains("date: invalid value 'not-a-date'"));
+        assertTrue(first.getMessages().stream().anyMatch(m -> m.startsWith("description:")));
+        assertTrue(first.getMessages().stream().anyMatch(m -> m.startsWith("amount:")));
+
+        ExpenseImportResultDto.RowError second = result.getErrors().get(1);
+        assertEquals(4, second.getLine());
+        assertTrue(second.getMessages().contains("payment_method: invalid value 'BITCOIN'"));
+        assertTrue(second.getMessages().contains("amount: Amount must have up to 2 decimal places"));
+
+        assertEquals(List.of("Expected 5 columns but found 3"), result.getErrors().get(2).getMessages());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    @Test
+    void importExpensesFromCsv_databaseFailureIsIsolatedToTheOffendingRow() throws IOException {
+        String longCategory = "c".repeat(300);
+        ExpenseImportResultDto result = importCsv("date,description,category,amount\n"
+                + "2024-01-05,Ok,Food,1.00\n"
+                + "2024-01-06,Bad," + longCategory + ",2.00\n"
+                + "2024-01-07,Ok too,Food,3.00\n");
+
+        assertEquals(2, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+
+        // only rows that were actually inserted reach the rollup
+        verify(rollupService).recordAdded(1L, LocalDate.of(2024, 1, 5), "Food", new BigDecimal("1.00"));
+        verify(rollupService).recordAdded(1L, LocalDate.of(2024, 1, 7), "Food", new BigDecimal("3.00"));
+        verify(rollupService, never()).recordAdded(eq(1L), eq(LocalDate.of(2024, 1, 6)), any(), any());
+        verify(dataVersionService, times(2)).touch(1L);
+    }
+
+    @Test
+    void importExpensesFromCsv_capsReportedErrors() throws IOException {
+        StringBuilder csv = new StringBuilder("date,description,category,amount\n");
+        for (int i = 0; i < 15; i++) {
+            csv.append("bad,x,y,1\n");
+        }
+
+        ExpenseImportResultDto result = importCsv(csv.toString());
+
+        assertEquals(15, result.getFailedRows());
+        assertEquals(10, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importExpensesFromCsv_unterminatedQuoteKeepsEarlierRows() throws IOException {
+        ExpenseImportResultDto result = importCsv("date,description,category,amount\n"
+                + "2024-01-05,Ok,Food,1.00\n"
+                + "2024-01-06,\"Broken,Food,2.00\n");
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(3, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importExpensesFromCsv_invalidHeader_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> importCsv("date,description,amount\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv("date,description,category,amount,colour\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(""));
+    }
+
+    @Test
+    void importExpensesFromCsv_unknownUser_throwsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.importExpensesFromCsv(2L, new StringReader(HEADER)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExpensePartitionDto;
+import com.ugwueze.expenses_tracker.service.impl.ExpensePartitionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpensePartitionServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserDataVersionService dataVersionService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        dataVersionService = mock(UserDataVersionService.class);
+    }
+
+    @Test
+    void createUpcomingPartitions_requestsCurrentAndPremadePeriods() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(), any()))
+                .thenReturn(null, "expenses_m2031_02", null);
+        ExpensePartitionServiceImpl service = new ExpensePartitionServiceImpl(jdbcTemplate, dataVersionService, "MONTH", 2);
+
+        List<String> created = service.createUpcomingPartitions();
+
+        assertEquals(List.of("expenses_m2031_02"), created);
+        ArgumentCaptor<Object> days = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(3)).queryForObject(eq("SELECT create_expense_partition(?, ?)"), eq(String.class),
+                eq("month"), days.capture());
+        LocalDate today = LocalDate.now();
+        assertEquals(List.of(today, today.plusMonths(1), today.plusMonths(2)), days.getAllValues());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void detachPartitionsBefore_detachesOnlyPartitionsEndingByCutoff() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(
+                new ExpensePartitionDto("expenses_y2018", LocalDate.of(2018, 1, 1), LocalDate.of(2019, 1, 1)),
+                new ExpensePartitionDto("expenses_y2019", LocalDate.of(2019, 1, 1), LocalDate.of(2020, 1, 1)),
+                new ExpensePartitionDto("expenses_y2020", LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1)),
+                new ExpensePartitionDto("expenses_default", null, null)));
+        when(jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM \"expenses_archived_y2018\"", Long.class))
+                .thenReturn(List.of(3L, 7L));
+        when(jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM \"expenses_archived_y2019\"", Long.class))
+                .thenReturn(List.of(7L));
+        ExpensePartitionServiceImpl service = new ExpensePartitionServiceImpl(jdbcTemplate, dataVersionService, "year", 1);
+
+        List<String> archived = service.detachPartitionsBefore(LocalDate.of(2020, 6, 30));
+
+        assertEquals(List.of("expenses_archived_y2018", "expenses_archived_y2019"), archived);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("SET LOCAL lock_timeout = '5s'");
+        order.verify(jdbcTemplate).execute("ALTER TABLE expenses DETACH PARTITION \"expenses_y2018\"");
+        order.verify(jdbcTemplate).execute("ALTER TABLE \"expenses_y2018\" RENAME TO \"expenses_archived_y2018\"");
+        verify(jdbcTemplate, never()).execute(contains("expenses_y2020"));
+        verify(jdbcTemplate, never()).execute(contains("expenses_default"));
+        verify(dataVersionService).touch(3L);
+        verify(dataVersionService, times(2)).touch(7L);
+        verifyNoMoreInteractions(dataVersionService);
+    }
+
+    @Test
+    void constructor_rejectsUnsupportedInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpensePartitionServiceImpl(jdbcTemplate, dataVersionService, "week", 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExpensePartitionServiceImpl(jdbcTemplate, dataVersionService, "year", -1));
+    }
+}
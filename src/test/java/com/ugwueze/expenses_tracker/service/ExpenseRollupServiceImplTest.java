@@ -0,0 +1,284 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.service.impl.ExpenseRollupServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpenseRollupServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 4);
+
+    private JdbcTemplate jdbcTemplate;
+    private EntityManagerFactory entityManagerFactory;
+    private ExpenseAggregateCache aggregateCache;
+    private BudgetAlertService budgetAlertService;
+    private PlatformTransactionManager transactionManager;
+    private ExpenseRollupServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        aggregateCache = mock(ExpenseAggregateCache.class);
+        budgetAlertService = mock(BudgetAlertService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new ExpenseRollupServiceImpl(jdbcTemplate, entityManagerFactory, aggregateCache, budgetAlertService,
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(service);
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    }
+
+    @Test
+    void recordAdded_outsideTransaction_appliesImmediately() {
+        service.recordAdded(1L, DAY, "Food", new BigDecimal("12.50"));
+
+        List<Object[]> upserts = captureBatch("INSERT INTO expense_daily_rollups");
+        assertEquals(1, upserts.size());
+        assertArrayEquals(new Object[]{1L, DAY, "Food", new BigDecimal("12.50"), 1}, upserts.get(0));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyList());
+        verify(aggregateCache).invalidate(1L, Set.of(DAY));
+        verify(budgetAlertService).onSpendChanged(1L, Set.of("Food"));
+    }
+
+    @Test
+    void pendingChanges_areMergedPerKeyAndAppliedBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        EntityManager entityManager = mock(EntityManager.class);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+
+        service.recordAdded(2L, DAY, "Food", new BigDecimal("5.00"));
+        service.recordAdded(1L, DAY, "Travel", new BigDecimal("7.00"));
+        service.recordAdded(1L, DAY, "Food", new BigDecimal("3.00"));
+        service.recordRemoved(1L, DAY, "Food", new BigDecimal("3.00"));
+        service.recordRemoved(1L, DAY.minusDays(1), "Food", new BigDecimal("4.00"));
+        verifyNoInteractions(jdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCommit(false);
+
+        verify(entityManager).flush();
+        List<Object[]> upserts = captureBatch("INSERT INTO expense_daily_rollups");
+        assertEquals(3, upserts.size());
+        assertArrayEquals(new Object[]{1L, DAY.minusDays(1), "Food", new BigDecimal("-4.00"), -1}, upserts.get(0));
+        assertArrayEquals(new Object[]{1L, DAY, "Travel", new BigDecimal("7.00"), 1}, upserts.get(1));
+        assertArrayEquals(new Object[]{2L, DAY, "Food", new BigDecimal("5.00"), 1}, upserts.get(2));
+
+        List<Object[]> deletes = captureBatch("DELETE FROM expense_daily_rollups");
+        assertEquals(1, deletes.size());
+        assertArrayEquals(new Object[]{1L, DAY.minusDays(1), "Food"}, deletes.get(0));
+
+        // nothing keyed across users is written on this path
+        verify(jdbcTemplate, never()).batchUpdate(contains("monthly"), anyList());
+        verifyNoInteractions(aggregateCache, budgetAlertService);
+
+        synchronizations.get(0).afterCommit();
+        verify(aggregateCache).invalidate(1L, Set.of(DAY.minusDays(1), DAY));
+        verify(aggregateCache).invalidate(2L, Set.of(DAY));
+        verifyNoMoreInteractions(aggregateCache);
+        verify(budgetAlertService).onSpendChanged(1L, Set.of("Food", "Travel"));
+        verify(budgetAlertService).onSpendChanged(2L, Set.of("Food"));
+
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertFalse(TransactionSynchronizationManager.hasResource(service));
+    }
+
+    @Test
+    void flushPending_appliesOnceAndLeavesNothingForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.recordAdded(1L, DAY, "Food", BigDecimal.ONE);
+
+        service.flushPending();
+        TransactionSynchronizationManager.getSynchronizations().get(0).beforeCommit(false);
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO expense_daily_rollups"), anyList());
+    }
+
+    @Test
+    void flushPending_withoutPendingChanges_doesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.flushPending();
+
+        verifyNoInteractions(jdbcTemplate, entityManagerFactory);
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void rebuild_locksExpensesAndRecomputesFromScratch() {
+        when(jdbcTemplate.update(startsWith("INSERT INTO expense_daily_rollups"))).thenReturn(42);
+
+        assertEquals(42, service.rebuild());
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("LOCK TABLE expenses IN SHARE MODE");
+        order.verify(jdbcTemplate).update("DELETE FROM expense_daily_rollups");
+        order.verify(jdbcTemplate).update(contains("GROUP BY user_id, date, category"));
+        order.verify(jdbcTemplate).execute("LOCK TABLE expense_monthly_rollups IN SHARE ROW EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).update("DELETE FROM expense_monthly_rollups");
+        order.verify(jdbcTemplate).update(contains("FROM expense_daily_rollups GROUP BY"));
+        order.verify(jdbcTemplate).update(startsWith("UPDATE budgets b SET spent ="));
+        verify(aggregateCache).invalidateAll();
+    }
+
+    @Test
+    void refreshChangedMonths_recomputesMonthsCommittedSinceTheLastRefresh() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.recordAdded(1L, DAY, "Food", BigDecimal.ONE);
+        service.recordAdded(2L, DAY.withDayOfMonth(20), "Rent", BigDecimal.TEN);
+        TransactionSynchronization pending = TransactionSynchronizationManager.getSynchronizations().get(0);
+        pending.beforeCommit(false);
+
+        assertEquals(0, service.refreshChangedMonths());
+
+        pending.afterCommit();
+        assertEquals(1, service.refreshChangedMonths());
+
+        LocalDate month = DAY.withDayOfMonth(1);
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("LOCK TABLE expense_monthly_rollups IN SHARE ROW EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).update("DELETE FROM expense_monthly_rollups WHERE month = ?", month);
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO expense_monthly_rollups"),
+                eq(month), eq(month), eq(month.plusMonths(1)));
+        assertEquals(0, service.refreshChangedMonths());
+    }
+
+    @Test
+    void refreshChangedMonths_failure_keepsTheMonthForTheNextRun() {
+        service.recordAdded(1L, DAY, "Food", BigDecimal.ONE);
+        when(jdbcTemplate.update(eq("DELETE FROM expense_monthly_rollups WHERE month = ?"), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        assertThrows(QueryTimeoutException.class, () -> service.refreshChangedMonths());
+
+        assertEquals(1, service.refreshChangedMonths());
+        assertEquals(0, service.refreshChangedMonths());
+    }
+
+    @Test
+    void refreshAllMonths_recomputesEveryMonthWithRollups() {
+        LocalDate march = LocalDate.of(2025, 3, 1);
+        LocalDate april = LocalDate.of(2025, 4, 1);
+        when(jdbcTemplate.queryForList(startsWith("SELECT CAST(date_trunc('month', day) AS date)"), eq(LocalDate.class)))
+                .thenReturn(List.of(march, april));
+
+        assertEquals(2, service.refreshAllMonths());
+
+        verify(jdbcTemplate).update("DELETE FROM expense_monthly_rollups WHERE month = ?", march);
+        verify(jdbcTemplate).update("DELETE FROM expense_monthly_rollups WHERE month = ?", april);
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO expense_monthly_rollups"),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void pendingChanges_moveBudgetSpendPerDayInCaseInsensitiveCategoryOrder() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.recordAdded(1L, DAY, "food", new BigDecimal("2.00"));
+        service.recordAdded(1L, DAY, "Travel", new BigDecimal("7.00"));
+        service.recordAdded(1L, DAY.plusDays(1), "Food", new BigDecimal("3.00"));
+        service.recordAdded(1L, DAY, "Rent", new BigDecimal("4.00"));
+        service.recordRemoved(1L, DAY, "Rent", new BigDecimal("4.00"));
+        TransactionSynchronizationManager.getSynchronizations().get(0).beforeCommit(false);
+
+        ArgumentCaptor<Object> lockedUsers = ArgumentCaptor.forClass(Object.class);
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(endsWith("FOR KEY SHARE"), eq(Long.class), lockedUsers.capture());
+        assertArrayEquals(new Long[]{1L}, (Object[]) lockedUsers.getValue());
+        order.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE budgets SET spent = spent + ?"), anyList());
+        List<Object[]> increments = captureBatch("UPDATE budgets SET spent = spent + ?");
+        assertEquals(3, increments.size());
+        assertArrayEquals(new Object[]{new BigDecimal("2.00"), 1L, "food", DAY}, increments.get(0));
+        assertArrayEquals(new Object[]{new BigDecimal("3.00"), 1L, "Food", DAY.plusDays(1)}, increments.get(1));
+        assertArrayEquals(new Object[]{new BigDecimal("7.00"), 1L, "Travel", DAY}, increments.get(2));
+    }
+
+    @Test
+    void recomputeBudgetSpent_locksTheBudgetBeforeSummingAndReevaluatesAlertsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(jdbcTemplate.queryForList(endsWith("FOR UPDATE"), eq(7L)))
+                .thenReturn(List.of(Map.of("user_id", 2L, "category", "Food")));
+
+        service.recomputeBudgetSpent(2L, 7L);
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(endsWith("FOR UPDATE"), eq(7L));
+        order.verify(jdbcTemplate).update(startsWith("UPDATE budgets b SET spent ="), eq(7L));
+        verifyNoInteractions(budgetAlertService);
+        TransactionSynchronizationManager.getSynchronizations().get(0).afterCommit();
+        verify(budgetAlertService).onSpendChanged(2L, Set.of("Food"));
+    }
+
+    @Test
+    void recomputeBudgetSpent_locksTheOwnerThenFlushesTheCallersBudgetChangesBeforeSumming() {
+        TransactionSynchronizationManager.initSynchronization();
+        EntityManager entityManager = mock(EntityManager.class);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        when(jdbcTemplate.queryForList(endsWith("FOR UPDATE"), eq(7L)))
+                .thenReturn(List.of(Map.of("user_id", 2L, "category", "Food")));
+
+        service.recomputeBudgetSpent(2L, 7L);
+
+        var order = inOrder(entityManager, jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, 2L);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).update(startsWith("UPDATE budgets b SET spent ="), eq(7L));
+    }
+
+    @Test
+    void recomputeBudgetSpent_deletedBudget_doesNothing() {
+        service.recomputeBudgetSpent(2L, 7L);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void reconcileBudgetSpent_recomputesOnlyDriftedBudgetsEachInItsOwnTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(jdbcTemplate.queryForList(contains("b.spent <>"), eq(Long.class))).thenReturn(List.of(3L, 9L));
+        when(jdbcTemplate.queryForList(endsWith("FOR UPDATE"), anyLong()))
+                .thenReturn(List.of(Map.of("user_id", 1L, "category", "Food")));
+
+        assertEquals(2, service.reconcileBudgetSpent());
+
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(jdbcTemplate).update(startsWith("UPDATE budgets b SET spent ="), eq(3L));
+        verify(jdbcTemplate).update(startsWith("UPDATE budgets b SET spent ="), eq(9L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureBatch(String sqlPrefix) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(sqlPrefix), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -1,14 +1,22 @@
 package com.ugwueze.expenses_tracker.service;
 
+import com.ugwueze.expenses_tracker.dto.CursorPageDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchRequestDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseBatchResultDto;
 import com.ugwueze.expenses_tracker.dto.ExpenseDto;
+import com.ugwueze.expenses_tracker.dto.ExpenseSummaryDto;
 import com.ugwueze.expenses_tracker.dto.MonthlySummaryDto;
 import com.ugwueze.expenses_tracker.entity.Expense;
 import com.ugwueze.expenses_tracker.entity.User;
+import com.ugwueze.expenses_tracker.enums.BatchOperationType;
 import com.ugwueze.expenses_tracker.enums.PaymentMethod;
 import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.ExpenseDailyRollupRepository;
+import com.ugwueze.expenses_tracker.repository.ExpenseMonthlyRollupRepository;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
 import com.ugwueze.expenses_tracker.service.impl.ExpenseServiceImpl;
+import com.ugwueze.expenses_tracker.util.ExpenseCursor;
 import com.ugwueze.expenses_tracker.util.ExpenseMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,10 +29,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,6 +52,21 @@ class ExpenseServiceUnitTest {
     @Mock
     private ExpenseMapper expenseMapper;
 
+    @Mock
+    private ExpenseDailyRollupRepository rollupRepository;
+
+    @Mock
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private ExpenseArchiveService archiveService;
+
+    @Mock
+    private ExpenseAggregateCache aggregateCache;
+
     @InjectMocks
     private ExpenseServiceImpl expenseService;
 
@@ -50,6 +76,9 @@ class ExpenseServiceUnitTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(aggregateCache.get(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
         testUser = User.builder()
                 .id(1L)
                 .username("testuser")
@@ -81,7 +110,8 @@ class ExpenseServiceUnitTest {
 
     @Test
     void createExpense_ShouldReturnCreatedExpense() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.existsByIdUncached(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         when(expenseMapper.toEntity(testExpenseDto)).thenReturn(testExpense);
         when(expenseRepository.save(testExpense)).thenReturn(testExpense);
         when(expenseMapper.toDto(testExpense)).thenReturn(testExpenseDto);
@@ -91,6 +121,137 @@ class ExpenseServiceUnitTest {
         assertNotNull(result);
         assertEquals(testExpenseDto.getDescription(), result.getDescription());
         verify(expenseRepository).save(testExpense);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void applyBatch_appliesMixedOperationsWithSingleUserLookupAndFlush() {
+        Expense toDelete = Expense.builder().id(2L).description("Old").amount(BigDecimal.ONE)
+                .date(LocalDate.now()).category("Test").user(testUser).build();
+        ExpenseDto newDto = ExpenseDto.builder().description("New").amount(BigDecimal.TEN)
+                .date(LocalDate.now()).category("Food").build();
+        Expense newExpense = new Expense();
+        ExpenseDto update = ExpenseDto.builder().description("Renamed").build();
+
+        when(userRepository.existsByIdUncached(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(expenseRepository.findByUserIdAndIdIn(1L, Set.of(1L, 2L))).thenReturn(List.of(testExpense, toDelete));
+        when(expenseMapper.toEntity(newDto)).thenReturn(newExpense);
+        doCallRealMethod().when(expenseMapper).updateEntityFromDto(update, testExpense);
+        when(expenseMapper.toDto(any(Expense.class))).thenReturn(testExpenseDto);
+
+        ExpenseBatchResultDto result = expenseService.applyBatch(batch(
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.CREATE, null, newDto),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.UPDATE, 1L, update),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.DELETE, 2L, null)));
+
+        assertTrue(result.isApplied());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getDeleted());
+        assertTrue(result.getResults().stream().allMatch(ExpenseBatchResultDto.ItemResult::isSuccess));
+        assertSame(testUser, newExpense.getUser());
+        assertEquals("Renamed", testExpense.getDescription());
+        assertNull(result.getResults().get(2).getExpense());
+
+        verify(userRepository, times(1)).existsByIdUncached(1L);
+        verify(userRepository, never()).findById(any());
+        verify(expenseRepository).saveAll(List.of(newExpense));
+        verify(expenseRepository).deleteAll(List.of(toDelete));
+        verify(expenseRepository).flush();
+    }
+
+    @Test
+    void applyBatch_WhenAnyOperationInvalid_ShouldRejectWholeBatchWithoutWriting() {
+        when(userRepository.existsByIdUncached(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(expenseRepository.findByUserIdAndIdIn(1L, Set.of(1L, 99L))).thenReturn(List.of(testExpense));
+
+        ExpenseBatchResultDto result = expenseService.applyBatch(batch(
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.CREATE, 5L, testExpenseDto),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.UPDATE, 99L, testExpenseDto),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.UPDATE, 1L, testExpenseDto),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.DELETE, 1L, null),
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.DELETE, null, null)));
+
+        assertFalse(result.isApplied());
+        List<ExpenseBatchResultDto.ItemResult> items = result.getResults();
+        assertEquals("Id must not be set for CREATE", items.get(0).getError());
+        assertEquals("Expense not found with id: 99", items.get(1).getError());
+        assertEquals("Expense 1 is referenced by more than one operation", items.get(2).getError());
+        assertEquals("Expense 1 is referenced by more than one operation", items.get(3).getError());
+        assertEquals("Id is required for DELETE", items.get(4).getError());
+
+        verify(expenseRepository, never()).saveAll(any());
+        verify(expenseRepository, never()).deleteAll(any());
+        verify(expenseRepository, never()).flush();
+    }
+
+    @Test
+    void applyBatch_WhenUserNotFound_ShouldThrowException() {
+        when(userRepository.existsByIdUncached(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> expenseService.applyBatch(batch(
+                new ExpenseBatchRequestDto.Operation(BatchOperationType.DELETE, 1L, null))));
+        verifyNoInteractions(expenseRepository);
+    }
+
+    private static ExpenseBatchRequestDto batch(ExpenseBatchRequestDto.Operation... operations) {
+        ExpenseBatchRequestDto request = new ExpenseBatchRequestDto();
+        request.setUserId(1L);
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    @Test
+    void getUserExpensesByCursor_firstPage_returnsNextCursorFromLastRowWithoutCount() {
+        Expense second = Expense.builder().id(7L).description("Older").amount(BigDecimal.ONE)
+                .date(LocalDate.of(2024, 1, 1)).category("Test").user(testUser).build();
+        when(expenseRepository.findFirstSliceByUserIdDesc(1L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(testExpense, second), PageRequest.of(0, 2), true));
+        when(expenseMapper.toDto(any(Expense.class))).thenReturn(testExpenseDto);
+
+        CursorPageDto<ExpenseDto> page = expenseService.getUserExpensesByCursor(1L, null, 2, true);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        ExpenseCursor next = ExpenseCursor.decode(page.getNextCursor());
+        assertEquals(LocalDate.of(2024, 1, 1), next.getDate());
+        assertEquals(7L, next.getId());
+        assertTrue(next.isDescending());
+        verifyNoInteractions(userRepository);
+        verify(expenseRepository, never()).findByUserId(any(), any());
+    }
+
+    @Test
+    void getUserExpensesByCursor_withCursor_seeksInCursorDirection() {
+        String cursor = new ExpenseCursor(LocalDate.of(2024, 1, 1), 7L, false).encode();
+        when(expenseRepository.findSliceByUserIdAfter(1L, LocalDate.of(2024, 1, 1), 7L, PageRequest.of(0, 5)))
+                .thenReturn(new SliceImpl<>(List.of(testExpense), PageRequest.of(0, 5), false));
+        when(expenseMapper.toDto(testExpense)).thenReturn(testExpenseDto);
+
+        // direction argument is ignored once a cursor is given
+        CursorPageDto<ExpenseDto> page = expenseService.getUserExpensesByCursor(1L, cursor, 5, true);
+
+        assertEquals(List.of(testExpenseDto), page.getContent());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUserExpensesByCursor_WhenEmptyAndUserMissing_ShouldThrowException() {
+        when(expenseRepository.findFirstSliceByUserIdDesc(1L, PageRequest.of(0, 10))).thenReturn(new SliceImpl<>(List.of()));
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> expenseService.getUserExpensesByCursor(1L, null, 10, true));
+    }
+
+    @Test
+    void getUserExpensesByCursor_invalidSizeOrCursor_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getUserExpensesByCursor(1L, null, 0, true));
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getUserExpensesByCursor(1L, null, 101, true));
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getUserExpensesByCursor(1L, "garbage", 10, true));
+        verifyNoInteractions(expenseRepository);
     }
 
     @Test
@@ -117,25 +278,51 @@ class ExpenseServiceUnitTest {
     }
 
     @Test
-    void getMonthlyExpensesSummary_ShouldReturnMonthlyTotals() {
+    void getExpensesByDateRange_mergesArchivedAndLiveRowsInDateOrder() {
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        LocalDate end = LocalDate.of(2025, 12, 31);
+        Expense archivedOld = Expense.builder().id(3L).date(LocalDate.of(2015, 5, 1)).build();
+        Expense archivedLate = Expense.builder().id(90L).date(LocalDate.of(2016, 2, 1)).build();
+        Expense liveBackdated = Expense.builder().id(120L).date(LocalDate.of(2015, 9, 1)).build();
+        Expense live = Expense.builder().id(4L).date(LocalDate.of(2024, 1, 1)).build();
         when(userRepository.existsById(1L)).thenReturn(true);
+        when(expenseRepository.findByUserIdAndDateBetweenOrderByDateAscIdAsc(1L, start, end))
+                .thenReturn(List.of(liveBackdated, live));
+        when(archiveService.streamArchived(1L, start, end)).thenReturn(Stream.of(archivedOld, archivedLate));
+        when(expenseMapper.toDto(any(Expense.class)))
+                .thenAnswer(inv -> ExpenseDto.builder().id(inv.<Expense>getArgument(0).getId()).build());
 
-        Expense jan = Expense.builder()
-                .id(10L)
-                .amount(new BigDecimal("100.00"))
-                .date(LocalDate.of(2025, 1, 5))
-                .user(testUser)
-                .build();
+        List<ExpenseDto> result = expenseService.getExpensesByDateRange(1L, start, end);
 
-        Expense feb = Expense.builder()
-                .id(11L)
-                .amount(new BigDecimal("50.00"))
-                .date(LocalDate.of(2025, 2, 15))
-                .user(testUser)
-                .build();
+        assertEquals(List.of(3L, 120L, 90L, 4L), result.stream().map(ExpenseDto::getId).toList());
+    }
+
+    @Test
+    void getSpentByBudget_mapsRowsByBudgetId() {
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        LocalDate end = LocalDate.of(2025, 3, 31);
+        when(rollupRepository.sumTotalByBudget(1L, List.of(10L, 11L, 12L), start, end))
+                .thenReturn(List.of(new Object[]{10L, new BigDecimal("40.00")}, new Object[]{12L, new BigDecimal("5.50")}));
+
+        Map<Long, BigDecimal> result = expenseService.getSpentByBudget(1L, List.of(10L, 11L, 12L), start, end);
 
-        when(expenseRepository.findByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(jan, feb));
+        assertEquals(Map.of(10L, new BigDecimal("40.00"), 12L, new BigDecimal("5.50")), result);
+        verify(rollupService).flushPending();
+    }
+
+    @Test
+    void getSpentByBudget_noBudgets_skipsQuery() {
+        Map<Long, BigDecimal> result = expenseService.getSpentByBudget(1L, List.of(), LocalDate.now(), LocalDate.now());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void getMonthlyExpensesSummary_ShouldReturnMonthlyTotals() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(rollupRepository.sumPositiveTotalByMonth(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(new Object[]{1, new BigDecimal("100.00")}, new Object[]{2, new BigDecimal("50.00")}));
 
         Map<Integer, BigDecimal> result = expenseService.getMonthlyExpensesSummary(1L, 2025);
 
@@ -143,6 +330,8 @@ class ExpenseServiceUnitTest {
         assertEquals(new BigDecimal("100.00"), result.get(1));
         assertEquals(new BigDecimal("50.00"), result.get(2));
         assertEquals(2, result.size());
+        verify(rollupService).flushPending();
+        verify(expenseRepository, never()).findByUserIdAndDateBetweenOrderByDateAscIdAsc(any(), any(), any());
     }
 
     @Test
@@ -155,7 +344,7 @@ class ExpenseServiceUnitTest {
     @Test
     void getMonthlyExpensesSummary_WhenNoExpenses_ShouldReturnEmptyMap() {
         when(userRepository.existsById(1L)).thenReturn(true);
-        when(expenseRepository.findByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+        when(rollupRepository.sumPositiveTotalByMonth(eq(1L), any(LocalDate.class), any(LocalDate.class)))
                 .thenReturn(List.of());
 
         Map<Integer, BigDecimal> result = expenseService.getMonthlyExpensesSummary(1L, 2025);
@@ -169,7 +358,7 @@ class ExpenseServiceUnitTest {
     void getMonthlyExpensesSummary_ShouldUseFullYearRange() {
         when(userRepository.existsById(1L)).thenReturn(true);
 
-        when(expenseRepository.findByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+        when(rollupRepository.sumPositiveTotalByMonth(eq(1L), any(LocalDate.class), any(LocalDate.class)))
                 .thenReturn(List.of());
 
         expenseService.getMonthlyExpensesSummary(1L, 2025);
@@ -177,83 +366,82 @@ class ExpenseServiceUnitTest {
         ArgumentCaptor<LocalDate> startCaptor = ArgumentCaptor.forClass(LocalDate.class);
         ArgumentCaptor<LocalDate> endCaptor = ArgumentCaptor.forClass(LocalDate.class);
 
-        verify(expenseRepository).findByUserIdAndDateBetween(eq(1L), startCaptor.capture(), endCaptor.capture());
+        verify(rollupRepository).sumPositiveTotalByMonth(eq(1L), startCaptor.capture(), endCaptor.capture());
 
         assertEquals(LocalDate.of(2025, 1, 1), startCaptor.getValue());
         assertEquals(LocalDate.of(2025, 12, 31), endCaptor.getValue());
     }
 
     @Test
-    void getMonthlyExpensesSummary_NullAmountTreatedAsZero() {
+    void getMonthlyExpensesSummary_KeepsQueryOrderAndTwoDecimalScale() {
         when(userRepository.existsById(1L)).thenReturn(true);
+        when(rollupRepository.sumPositiveTotalByMonth(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(new Object[]{3, new BigDecimal("25")}, new Object[]{11, new BigDecimal("7.5")}));
 
-        Expense withNull = Expense.builder()
-                .id(20L)
-                .amount(null)
-                .date(LocalDate.of(2025, 6, 10))
-                .user(testUser)
-                .build();
-
-        Expense withValue = Expense.builder()
-                .id(21L)
-                .amount(new BigDecimal("25.00"))
-                .date(LocalDate.of(2025, 6, 12))
-                .user(testUser)
-                .build();
+        Map<Integer, BigDecimal> result = expenseService.getMonthlyExpensesSummary(1L, 2025);
 
-        when(expenseRepository.findByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(withNull, withValue));
+        assertEquals(List.of(3, 11), new ArrayList<>(result.keySet()));
+        assertEquals(new BigDecimal("25.00"), result.get(3));
+        assertEquals(new BigDecimal("7.50"), result.get(11));
+    }
 
-        Map<Integer, BigDecimal> result = expenseService.getMonthlyExpensesSummary(1L, 2025);
 
-        assertNotNull(result);
-        assertEquals(0, result.get(6).compareTo(new BigDecimal("25.00")));
-        assertEquals(1, result.size());
+    @Test
+    void getExpenseSummary_BuildsSummaryFromSingleAggregateQuery() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        LocalDate end = LocalDate.of(2025, 1, 31);
+        when(rollupRepository.summarizeByCategory(1L, start, end)).thenReturn(List.of(
+                new Object[]{"Transport", new BigDecimal("30.00"), 3L},
+                new Object[]{"Food", new BigDecimal("100.00"), 1L}));
+
+        ExpenseSummaryDto summary = expenseService.getExpenseSummary(1L, start, end);
+
+        assertEquals("2025-01-01 to 2025-01-31", summary.getPeriod());
+        assertEquals(new BigDecimal("130.00"), summary.getTotalAmount());
+        assertEquals(4L, summary.getTotalExpenses());
+        assertEquals("Food", summary.getTopCategory());
+        assertEquals(new BigDecimal("100.00"), summary.getTopCategoryAmount());
+        verify(rollupRepository).summarizeByCategory(1L, start, end);
+        verifyNoMoreInteractions(rollupRepository);
+        verifyNoInteractions(userRepository, expenseRepository);
     }
 
     @Test
-    void getMonthlyExpensesSummary_ZeroOrNegativeTotalsOmitted() {
+    void getExpenseSummary_WhenNoExpenses_ReturnsZeroes() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        when(rollupRepository.summarizeByCategory(1L, start, start)).thenReturn(List.of());
         when(userRepository.existsById(1L)).thenReturn(true);
 
-        Expense marPos = Expense.builder()
-                .id(30L)
-                .amount(new BigDecimal("50.00"))
-                .date(LocalDate.of(2025, 3, 5))
-                .user(testUser)
-                .build();
-
-        Expense marNeg = Expense.builder()
-                .id(31L)
-                .amount(new BigDecimal("-50.00"))
-                .date(LocalDate.of(2025, 3, 10))
-                .user(testUser)
-                .build();
-
-
-        Expense aprNeg = Expense.builder()
-                .id(32L)
-                .amount(new BigDecimal("-10.00"))
-                .date(LocalDate.of(2025, 4, 1))
-                .user(testUser)
-                .build();
+        ExpenseSummaryDto summary = expenseService.getExpenseSummary(1L, start, start);
 
-        Expense mayPos = Expense.builder()
-                .id(33L)
-                .amount(new BigDecimal("20.00"))
-                .date(LocalDate.of(2025, 5, 2))
-                .user(testUser)
-                .build();
+        assertEquals(BigDecimal.ZERO, summary.getTotalAmount());
+        assertEquals(0L, summary.getTotalExpenses());
+        assertEquals("No expenses", summary.getTopCategory());
+        assertEquals(BigDecimal.ZERO, summary.getTopCategoryAmount());
+    }
 
-        when(expenseRepository.findByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(marPos, marNeg, aprNeg, mayPos));
+    @Test
+    void getExpenseSummary_WhenCached_ReturnsCopyWithoutQuerying() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        ExpenseSummaryDto cached = new ExpenseSummaryDto("2025-01-01 to 2025-01-01", BigDecimal.TEN, 2L, "Food",
+                BigDecimal.TEN);
+        doReturn(cached).when(aggregateCache)
+                .get(eq(1L), eq(ExpenseAggregateCache.Aggregate.SUMMARY), eq(start), eq(start), any());
+
+        ExpenseSummaryDto summary = expenseService.getExpenseSummary(1L, start, start);
+
+        assertEquals(cached, summary);
+        assertNotSame(cached, summary);
+        verifyNoInteractions(rollupService, rollupRepository, userRepository);
+    }
 
-        Map<Integer, BigDecimal> result = expenseService.getMonthlyExpensesSummary(1L, 2025);
+    @Test
+    void getExpenseSummary_WhenUserNotFound_ShouldThrowException() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        when(rollupRepository.summarizeByCategory(1L, start, start)).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(false);
 
-        assertNotNull(result);
-        assertFalse(result.containsKey(3));
-        assertFalse(result.containsKey(4));
-        assertTrue(result.containsKey(5));
-        assertEquals(0, result.get(5).compareTo(new BigDecimal("20.00")));
+        assertThrows(ResourceNotFoundException.class, () -> expenseService.getExpenseSummary(1L, start, start));
     }
 
 
@@ -261,7 +449,7 @@ class ExpenseServiceUnitTest {
     void getMonthlySummary_returnsMappedDto_whenRepositoryReturnsValidRows() {
         Object[] row1 = new Object[]{"Food", new BigDecimal("100.50")};
         Object[] row2 = new Object[]{"Transport", new BigDecimal("20.00")};
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2025, 10))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2025, 10, 1)))
                 .thenReturn(Arrays.asList(row1, row2));
 
         List<MonthlySummaryDto> result = expenseService.getMonthlySummary(2025, 10);
@@ -277,7 +465,7 @@ class ExpenseServiceUnitTest {
         assertEquals("Transport", second.getCategory());
         assertEquals(new BigDecimal("20.00"), second.getTotal());
 
-        verify(expenseRepository, times(1)).findCategoryTotalsByYearAndMonth(2025, 10);
+        verify(monthlyRollupRepository, times(1)).findCategoryTotals(LocalDate.of(2025, 10, 1));
     }
 
     @Test
@@ -287,7 +475,7 @@ class ExpenseServiceUnitTest {
         Object[] r2 = new Object[]{"Bills", 100L};
         Object[] r3 = new Object[]{"Coffee", 3};
         Object[] r4 = new Object[]{"Misc", "12.34"};
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2025, 9))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2025, 9, 1)))
                 .thenReturn(Arrays.asList(r1, r2, r3, r4));
 
         List<MonthlySummaryDto> result = expenseService.getMonthlySummary(2025, 9);
@@ -302,7 +490,7 @@ class ExpenseServiceUnitTest {
     @Test
     void getMonthlySummary_handlesNullCategory_asUncategorized() {
         Object[] r = new Object[]{null, new BigDecimal("5.00")};
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2024, 12))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2024, 12, 1)))
                 .thenReturn(Collections.singletonList(r));
 
         List<MonthlySummaryDto> result = expenseService.getMonthlySummary(2024, 12);
@@ -315,7 +503,7 @@ class ExpenseServiceUnitTest {
 
     @Test
     void getMonthlySummary_returnsEmptyList_whenRepositoryReturnsEmpty() {
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2023, 1))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2023, 1, 1)))
                 .thenReturn(Collections.emptyList());
 
         List<MonthlySummaryDto> result = expenseService.getMonthlySummary(2023, 1);
@@ -326,7 +514,7 @@ class ExpenseServiceUnitTest {
 
     @Test
     void getMonthlySummary_propagatesException_whenRepositoryThrows() {
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2022, 7))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2022, 7, 1)))
                 .thenThrow(new RuntimeException("DB error"));
 
         RuntimeException ex = assertThrows(RuntimeException.class,
@@ -337,7 +525,7 @@ class ExpenseServiceUnitTest {
     @Test
     void getMonthlySummary_throws_whenTotalIsNull_inRow() {
         Object[] r = new Object[]{"Some", null};
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(2025, 11))
+        when(monthlyRollupRepository.findCategoryTotals(LocalDate.of(2025, 11, 1)))
                 .thenReturn(Collections.singletonList(r));
 
         assertThrows(NullPointerException.class, () -> expenseService.getMonthlySummary(2025, 11));
@@ -345,10 +533,32 @@ class ExpenseServiceUnitTest {
 
     @Test
     void getMonthlySummary_invokesRepository_withProvidedParams() {
-        when(expenseRepository.findCategoryTotalsByYearAndMonth(anyInt(), anyInt()))
+        when(monthlyRollupRepository.findCategoryTotals(any(LocalDate.class)))
                 .thenReturn(Collections.emptyList());
         expenseService.getMonthlySummary(2000, 2);
-        verify(expenseRepository, times(1)).findCategoryTotalsByYearAndMonth(2000, 2);
+        verify(monthlyRollupRepository, times(1)).findCategoryTotals(LocalDate.of(2000, 2, 1));
+    }
+
+    @Test
+    void getUserMonthlySummary_readsHalfOpenMonthRangeForUser() {
+        when(rollupRepository.findCategoryTotals(1L, LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 1)))
+                .thenReturn(List.<Object[]>of(new Object[]{"Food", new BigDecimal("12.00")}));
+
+        List<MonthlySummaryDto> result = expenseService.getUserMonthlySummary(1L, 2024, 12);
+
+        assertEquals(1, result.size());
+        assertEquals("Food", result.get(0).getCategory());
+        assertEquals(new BigDecimal("12.00"), result.get(0).getTotal());
+        verifyNoInteractions(userRepository, expenseRepository, monthlyRollupRepository);
+    }
+
+    @Test
+    void getUserMonthlySummary_WhenUserNotFound_ShouldThrowException() {
+        when(rollupRepository.findCategoryTotals(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> expenseService.getUserMonthlySummary(1L, 2025, 2));
     }
 
 }
@@ -0,0 +1,319 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.dto.ExportJobDto;
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+import com.ugwueze.expenses_tracker.exception.ExportJobNotReadyException;
+import com.ugwueze.expenses_tracker.exception.ResourceNotFoundException;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.ExportJobStore.ExportJob;
+import com.ugwueze.expenses_tracker.service.impl.ExportJobServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExportJobServiceImplTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private ExpenseExportService expenseExportService;
+    private UserRepository userRepository;
+    private InMemoryExportJobStore jobStore;
+    private Deque<Runnable> queued;
+
+    @BeforeEach
+    void setup() {
+        expenseExportService = mock(ExpenseExportService.class);
+        userRepository = mock(UserRepository.class);
+        jobStore = new InMemoryExportJobStore();
+        queued = new ArrayDeque<>();
+        when(userRepository.existsById(1L)).thenReturn(true);
+    }
+
+    private ExportJobServiceImpl newService(Duration ttl) {
+        return new ExportJobServiceImpl(expenseExportService, userRepository, jobStore, queued::add, spoolDir, ttl,
+                Duration.ofHours(1));
+    }
+
+    private void runQueued() {
+        while (!queued.isEmpty()) {
+            queued.poll().run();
+        }
+    }
+
+    private void stubExport(String content) throws IOException {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(3);
+            writer.write(content);
+            return null;
+        }).when(expenseExportService).streamExpensesAsCsv(anyLong(), any(), any(), any(Writer.class));
+    }
+
+    @Test
+    void submitJob_rendersFileAndMarksCompleted() throws IOException {
+        stubExport("id,date\n1,2024-01-01\n");
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+
+        ExportJobDto submitted = service.submitJob(1L, null, null, ExportFormat.CSV);
+        assertEquals(ExportJobStatus.PENDING, submitted.getStatus());
+        assertThrows(ExportJobNotReadyException.class, () -> service.getResultFile(1L, submitted.getJobId()));
+
+        runQueued();
+
+        ExportJobDto done = service.getJob(1L, submitted.getJobId());
+        assertEquals(ExportJobStatus.COMPLETED, done.getStatus());
+        assertNotNull(done.getExpiresAt());
+        Path file = service.getResultFile(1L, submitted.getJobId());
+        assertEquals("id,date\n1,2024-01-01\n", Files.readString(file));
+        assertEquals(Files.size(file), done.getSizeBytes());
+    }
+
+    @Test
+    void submitJob_compressedFormatWritesGzipFile() throws IOException {
+        stubExport("id,date\n");
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+
+        ExportJobDto job = service.submitJob(1L, null, null, ExportFormat.CSV_GZIP);
+        runQueued();
+
+        Path file = service.getResultFile(1L, job.getJobId());
+        assertTrue(file.getFileName().toString().endsWith(".csv.gz"));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals("id,date\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void submitJob_identicalRequestWhileInFlightIsDeduplicated() throws IOException {
+        stubExport("id\n");
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        ExportJobDto first = service.submitJob(1L, start, null, ExportFormat.CSV);
+        ExportJobDto second = service.submitJob(1L, start, null, ExportFormat.CSV);
+        ExportJobDto otherFormat = service.submitJob(1L, start, null, ExportFormat.CSV_GZIP);
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertNotEquals(first.getJobId(), otherFormat.getJobId());
+        assertEquals(2, queued.size());
+
+        runQueued();
+        ExportJobDto afterCompletion = service.submitJob(1L, start, null, ExportFormat.CSV);
+        assertNotEquals(first.getJobId(), afterCompletion.getJobId());
+    }
+
+    @Test
+    void submitJob_failureMarksJobFailedAndRemovesPartialFile() throws IOException {
+        doThrow(new IOException("disk full"))
+                .when(expenseExportService).streamExpensesAsCsv(anyLong(), any(), any(), any(Writer.class));
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+
+        ExportJobDto job = service.submitJob(1L, null, null, ExportFormat.CSV);
+        runQueued();
+
+        ExportJobDto failed = service.getJob(1L, job.getJobId());
+        assertEquals(ExportJobStatus.FAILED, failed.getStatus());
+        assertEquals("disk full", failed.getErrorMessage());
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void submitJob_unknownUserOrInvalidRange_throws() {
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.submitJob(2L, null, null, ExportFormat.CSV));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submitJob(1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), ExportFormat.CSV));
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void submitJob_rejectedByExecutorIsNotRegistered() {
+        ExportJobServiceImpl service = new ExportJobServiceImpl(expenseExportService, userRepository, jobStore,
+                task -> { throw new TaskRejectedException("full"); }, spoolDir, Duration.ofHours(1), Duration.ofHours(1));
+
+        assertThrows(TaskRejectedException.class, () -> service.submitJob(1L, null, null, ExportFormat.CSV));
+
+        ExportJobServiceImpl retry = newService(Duration.ofHours(1));
+        assertNotNull(retry.submitJob(1L, null, null, ExportFormat.CSV).getJobId());
+    }
+
+    @Test
+    void getJob_ofAnotherUser_throwsNotFound() throws IOException {
+        stubExport("id\n");
+        ExportJobServiceImpl service = newService(Duration.ofHours(1));
+        ExportJobDto job = service.submitJob(1L, null, null, ExportFormat.CSV);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob(2L, job.getJobId()));
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob(1L, "missing"));
+    }
+
+    @Test
+    void purgeExpiredJobs_removesJobAndFileAfterTtl() throws IOException {
+        stubExport("id\n");
+        ExportJobServiceImpl service = newService(Duration.ZERO);
+        ExportJobDto job = service.submitJob(1L, null, null, ExportFormat.CSV);
+        ExportJobDto pending = service.submitJob(1L, LocalDate.of(2024, 1, 1), null, ExportFormat.CSV);
+        queued.poll().run();
+        Path file = service.getResultFile(1L, job.getJobId());
+
+        assertEquals(1, service.purgeExpiredJobs());
+
+        assertFalse(Files.exists(file));
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob(1L, job.getJobId()));
+        assertEquals(ExportJobStatus.PENDING, service.getJob(1L, pending.getJobId()).getStatus());
+    }
+
+    @Test
+    void getJob_submittedOnAnotherInstance_isServedFromTheStore() throws IOException {
+        stubExport("id\n");
+        ExportJobServiceImpl submitter = newService(Duration.ofHours(1));
+        ExportJobServiceImpl other = newService(Duration.ofHours(1));
+
+        ExportJobDto job = submitter.submitJob(1L, null, null, ExportFormat.CSV);
+        assertEquals(job.getJobId(), other.submitJob(1L, null, null, ExportFormat.CSV).getJobId());
+        runQueued();
+
+        assertEquals(ExportJobStatus.COMPLETED, other.getJob(1L, job.getJobId()).getStatus());
+        assertEquals("id\n", Files.readString(other.getResultFile(1L, job.getJobId())));
+    }
+
+    @Test
+    void purgeExpiredJobs_failsJobsStuckInFlight_andTheirLateResultIsDiscarded() {
+        ExportJobServiceImpl service = new ExportJobServiceImpl(expenseExportService, userRepository, jobStore,
+                queued::add, spoolDir, Duration.ofHours(1), Duration.ZERO);
+        ExportJobDto job = service.submitJob(1L, null, null, ExportFormat.CSV);
+
+        assertEquals(0, service.purgeExpiredJobs());
+        ExportJobDto failed = service.getJob(1L, job.getJobId());
+        assertEquals(ExportJobStatus.FAILED, failed.getStatus());
+        assertEquals("Export did not finish within PT0S", failed.getErrorMessage());
+
+        runQueued();
+
+        assertEquals(ExportJobStatus.FAILED, service.getJob(1L, job.getJobId()).getStatus());
+        verifyNoInteractions(expenseExportService);
+        assertNotEquals(job.getJobId(), service.submitJob(1L, null, null, ExportFormat.CSV).getJobId());
+    }
+
+    @Test
+    void constructor_keepsFilesAlreadyInTheSpoolDir() throws IOException {
+        Path existing = Files.writeString(spoolDir.resolve("export-other.csv"), "another instance's result");
+
+        newService(Duration.ofHours(1));
+
+        assertTrue(Files.exists(existing));
+    }
+
+    /** Follows the transition rules of the table-backed store. */
+    private static final class InMemoryExportJobStore implements ExportJobStore {
+
+        private final Map<String, ExportJob> jobs = new LinkedHashMap<>();
+
+        @Override
+        public synchronized ExportJob insertOrGetInFlight(ExportJob job) {
+            return jobs.values().stream()
+                    .filter(existing -> existing.dedupeKey().equals(job.dedupeKey()) && inFlight(existing))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        jobs.put(job.id(), job);
+                        return job;
+                    });
+        }
+
+        @Override
+        public synchronized Optional<ExportJob> find(String id) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+
+        @Override
+        public synchronized boolean markRunning(String id) {
+            ExportJob job = jobs.get(id);
+            if (job == null || job.status() != ExportJobStatus.PENDING) {
+                return false;
+            }
+            jobs.put(id, with(job, ExportJobStatus.RUNNING, null, null, null, null, null));
+            return true;
+        }
+
+        @Override
+        public synchronized boolean complete(String id, String file, long sizeBytes, Instant completedAt, Instant expiresAt) {
+            ExportJob job = jobs.get(id);
+            if (job == null || !inFlight(job)) {
+                return false;
+            }
+            jobs.put(id, with(job, ExportJobStatus.COMPLETED, file, sizeBytes, null, completedAt, expiresAt));
+            return true;
+        }
+
+        @Override
+        public synchronized boolean fail(String id, String errorMessage, Instant completedAt, Instant expiresAt) {
+            ExportJob job = jobs.get(id);
+            if (job == null || !inFlight(job)) {
+                return false;
+            }
+            jobs.put(id, with(job, ExportJobStatus.FAILED, null, null, errorMessage, completedAt, expiresAt));
+            return true;
+        }
+
+        @Override
+        public synchronized void delete(String id) {
+            jobs.remove(id);
+        }
+
+        @Override
+        public synchronized List<ExportJob> deleteExpired(Instant now) {
+            List<ExportJob> expired = jobs.values().stream()
+                    .filter(job -> !inFlight(job) && !job.expiresAt().isAfter(now))
+                    .toList();
+            expired.forEach(job -> jobs.remove(job.id()));
+            return expired;
+        }
+
+        @Override
+        public synchronized List<String> failStale(Instant createdBefore, String errorMessage, Instant completedAt,
+                                                  Instant expiresAt) {
+            List<String> stale = jobs.values().stream()
+                    .filter(job -> inFlight(job) && job.createdAt().isBefore(createdBefore))
+                    .map(ExportJob::id)
+                    .toList();
+            stale.forEach(id -> fail(id, errorMessage, completedAt, expiresAt));
+            return stale;
+        }
+
+        private static boolean inFlight(ExportJob job) {
+            return job.status() == ExportJobStatus.PENDING || job.status() == ExportJobStatus.RUNNING;
+        }
+
+        private static ExportJob with(ExportJob job, ExportJobStatus status, String file, Long sizeBytes,
+                                      String errorMessage, Instant completedAt, Instant expiresAt) {
+            return new ExportJob(job.id(), job.dedupeKey(), job.userId(), job.startDate(), job.endDate(),
+                    job.format(), status, file, sizeBytes, errorMessage, job.createdAt(), completedAt, expiresAt);
+        }
+    }
+}
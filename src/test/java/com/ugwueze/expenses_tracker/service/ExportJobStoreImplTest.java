@@ -0,0 +1,82 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.enums.ExportJobStatus;
+import com.ugwueze.expenses_tracker.service.ExportJobStore.ExportJob;
+import com.ugwueze.expenses_tracker.service.impl.ExportJobStoreImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExportJobStoreImplTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-04T10:15:30Z");
+
+    private JdbcTemplate jdbcTemplate;
+    private ExportJobStoreImpl store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        store = new ExportJobStoreImpl(jdbcTemplate);
+    }
+
+    private static ExportJob job(String id, ExportJobStatus status) {
+        return new ExportJob(id, "1|null|null|CSV", 1L, null, null, ExportFormat.CSV, status,
+                null, null, null, NOW, null, null);
+    }
+
+    @Test
+    void insertOrGetInFlight_inserted_returnsTheNewJob() {
+        ExportJob job = job("a", ExportJobStatus.PENDING);
+        when(jdbcTemplate.update(startsWith("INSERT INTO export_jobs"), eq("a"), eq("1|null|null|CSV"), eq(1L),
+                isNull(), isNull(), eq("CSV"), eq(NOW.atOffset(ZoneOffset.UTC)))).thenReturn(1);
+
+        assertSame(job, store.insertOrGetInFlight(job));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertOrGetInFlight_identicalJobInFlight_returnsIt() {
+        ExportJob existing = job("b", ExportJobStatus.RUNNING);
+        when(jdbcTemplate.update(startsWith("INSERT INTO export_jobs"), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.query(contains("WHERE dedupe_key = ?"), any(RowMapper.class), eq("1|null|null|CSV")))
+                .thenReturn(List.of(), List.of(existing));
+
+        // the first conflicting job finished before it could be read, the retried insert meets a second one
+        assertSame(existing, store.insertOrGetInFlight(job("a", ExportJobStatus.PENDING)));
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO export_jobs"), any(Object[].class));
+    }
+
+    @Test
+    void transitions_onlyApplyToJobsStillInFlight() {
+        when(jdbcTemplate.update(startsWith("UPDATE export_jobs SET status = 'COMPLETED'"), any(Object[].class)))
+                .thenReturn(0);
+
+        assertFalse(store.complete("a", "/spool/export-a.csv", 42L, NOW, NOW.plusSeconds(60)));
+
+        verify(jdbcTemplate).update(endsWith("WHERE id = ? AND status IN ('PENDING', 'RUNNING')"),
+                eq("/spool/export-a.csv"), eq(42L), eq(NOW.atOffset(ZoneOffset.UTC)),
+                eq(NOW.plusSeconds(60).atOffset(ZoneOffset.UTC)), eq("a"));
+    }
+
+    @Test
+    void failStale_returnsTheIdsItGaveUpOn() {
+        OffsetDateTime cutoff = NOW.minusSeconds(3600).atOffset(ZoneOffset.UTC);
+        when(jdbcTemplate.queryForList(contains("WHERE created_at < ?"), eq(String.class), eq("timeout"),
+                any(OffsetDateTime.class), any(OffsetDateTime.class), eq(cutoff))).thenReturn(List.of("a", "b"));
+
+        assertEquals(List.of("a", "b"), store.failStale(NOW.minusSeconds(3600), "timeout", NOW, NOW.plusSeconds(60)));
+    }
+}
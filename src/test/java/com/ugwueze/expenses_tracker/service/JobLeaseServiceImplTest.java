@@ -0,0 +1,80 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
+import com.ugwueze.expenses_tracker.exception.LeaseLostException;
+import com.ugwueze.expenses_tracker.service.JobLeaseService.Lease;
+import com.ugwueze.expenses_tracker.service.impl.JobLeaseServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobLeaseServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JobLeaseServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new JobLeaseServiceImpl(jdbcTemplate, "node-a");
+    }
+
+    @Test
+    void tryAcquire_returnsTheNewFence() {
+        when(jdbcTemplate.queryForList(startsWith("INSERT INTO job_leases"), eq(Long.class),
+                eq("recurring-expenses"), eq("node-a"), eq(600_000L))).thenReturn(List.of(7L));
+
+        assertEquals(Optional.of(new Lease("recurring-expenses", "node-a", 7L)),
+                service.tryAcquire("recurring-expenses", Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void tryAcquire_heldElsewhere_isEmpty() {
+        when(jdbcTemplate.queryForList(startsWith("INSERT INTO job_leases"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of());
+
+        assertTrue(service.tryAcquire("recurring-expenses", Duration.ofMinutes(10)).isEmpty());
+    }
+
+    @Test
+    void checkHeld_fenceMovedOn_throws() {
+        Lease lease = new Lease("recurring-expenses", "node-a", 7L);
+        when(jdbcTemplate.queryForList(contains("FOR SHARE"), eq(Long.class), eq("recurring-expenses")))
+                .thenReturn(List.of(7L), List.of(8L));
+
+        service.checkHeld(lease);
+        assertThrows(LeaseLostException.class, () -> service.checkHeld(lease));
+    }
+
+    @Test
+    void renewAndRelease_onlyTouchTheirOwnFence() {
+        Lease lease = new Lease("recurring-expenses", "node-a", 7L);
+        when(jdbcTemplate.update(startsWith("UPDATE job_leases SET expires_at = LOCALTIMESTAMP +"),
+                eq(60_000L), eq("recurring-expenses"), eq(7L))).thenReturn(0);
+
+        assertFalse(service.renew(lease, Duration.ofMinutes(1)));
+        service.release(lease);
+
+        verify(jdbcTemplate).update(contains("WHERE name = ? AND fence = ?"), eq("recurring-expenses"), eq(7L));
+    }
+
+    @Test
+    void startAndFinishRun_recordTheRun() {
+        Lease lease = new Lease("recurring-expenses", "node-a", 7L);
+        when(jdbcTemplate.queryForObject(startsWith("INSERT INTO job_runs"), eq(Long.class),
+                eq("recurring-expenses"), eq("node-a"), eq(7L), eq("RUNNING"))).thenReturn(3L);
+
+        long runId = service.startRun(lease);
+        service.finishRun(runId, JobRunStatus.SUCCEEDED, 10, 1, 12);
+
+        verify(jdbcTemplate).update(startsWith("UPDATE job_runs"), eq("SUCCEEDED"), eq(10), eq(1), eq(12), eq(3L));
+    }
+}
@@ -4,8 +4,10 @@ package com.ugwueze.expenses_tracker.service;
 import com.ugwueze.expenses_tracker.entity.Expense;
 import com.ugwueze.expenses_tracker.entity.RecurringExpense;
 import com.ugwueze.expenses_tracker.entity.User;
+import com.ugwueze.expenses_tracker.enums.JobRunStatus;
 import com.ugwueze.expenses_tracker.enums.PaymentMethod;
 import com.ugwueze.expenses_tracker.enums.RecurrenceType;
+import com.ugwueze.expenses_tracker.exception.LeaseLostException;
 import com.ugwueze.expenses_tracker.repository.ExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.RecurringExpenseRepository;
 import com.ugwueze.expenses_tracker.repository.UserRepository;
@@ -16,12 +18,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -40,7 +48,20 @@ class RecurringExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepo;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private ScheduledExecutorService heartbeatScheduler;
+
+    @Mock
+    private ScheduledFuture<?> heartbeat;
+
+    private final JobLeaseService.Lease lease = new JobLeaseService.Lease("recurring-expenses", "node-a", 3L);
+
     private RecurringExpenseServiceImpl service;
 
     @Captor
@@ -60,11 +81,19 @@ class RecurringExpenseServiceTest {
                 .firstName("Test")
                 .lastName("User")
                 .build();
+        service = new RecurringExpenseServiceImpl(recurringRepo, expenseRepo, userRepository, jobLeaseService,
+                transactionManager, 2, 1, Duration.ofMinutes(10), heartbeatScheduler);
+        lenient().doReturn(heartbeat).when(heartbeatScheduler)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        lenient().when(jobLeaseService.tryAcquire(eq("recurring-expenses"), any(Duration.class)))
+                .thenReturn(Optional.of(lease));
+        lenient().when(jobLeaseService.renew(eq(lease), any(Duration.class))).thenReturn(true);
+        lenient().when(jobLeaseService.startRun(lease)).thenReturn(42L);
     }
 
     @Test
     void whenNoDueTemplates_thenNothingHappens() {
-        lenient().when(recurringRepo.findDueByDate(any(LocalDate.class)))
+        when(recurringRepo.claimDue(any(LocalDate.class), anyLong(), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         service.processDueRecurringExpenses();
@@ -89,8 +118,8 @@ class RecurringExpenseServiceTest {
         template.setActive(true);
         template.setInterval(1);
 
-        when(recurringRepo.findDueByDate(any(LocalDate.class)))
-                .thenReturn(List.of(template));
+        when(recurringRepo.claimDue(any(LocalDate.class), anyLong(), anyInt()))
+                .thenReturn(List.of(template), List.of());
 
         when(userRepository.findById(testUser.getId()))
                 .thenReturn(Optional.ofNullable(testUser));
@@ -133,8 +162,8 @@ class RecurringExpenseServiceTest {
         when(userRepository.findById(testUser.getId()))
                 .thenReturn(Optional.ofNullable(testUser));
 
-        when(recurringRepo.findDueByDate(any(LocalDate.class)))
-                .thenReturn(List.of(template));
+        when(recurringRepo.claimDue(any(LocalDate.class), anyLong(), anyInt()))
+                .thenReturn(List.of(template), List.of());
 
         when(expenseRepo.save(any(Expense.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -277,6 +306,7 @@ class RecurringExpenseServiceTest {
     void processDueRecurringExpenses_processesAllDueTemplates() {
         LocalDate today = LocalDate.now();
         RecurringExpense t1 = new RecurringExpense();
+        t1.setId(1L);
         t1.setUserId(1L);
         t1.setNextOccurrenceDate(today);
         t1.setRecurrenceType(RecurrenceType.DAILY);
@@ -286,6 +316,7 @@ class RecurringExpenseServiceTest {
         t1.setActive(true);
 
         RecurringExpense t2 = new RecurringExpense();
+        t2.setId(2L);
         t2.setUserId(1L);
         t2.setNextOccurrenceDate(today);
         t2.setRecurrenceType(RecurrenceType.MONTHLY);
@@ -294,7 +325,8 @@ class RecurringExpenseServiceTest {
         t2.setAmount(BigDecimal.valueOf(2));
         t2.setActive(true);
 
-        when(recurringRepo.findDueByDate(today)).thenReturn(Collections.singletonList(t1));
+        when(recurringRepo.claimDue(eq(today), anyLong(), anyInt()))
+                .thenReturn(Collections.singletonList(t1), List.of());
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         service.processDueRecurringExpenses();
@@ -448,4 +480,182 @@ class RecurringExpenseServiceTest {
         verify(recurringRepo, never()).save(any(RecurringExpense.class));
     }
 
+    @Test
+    void processDueRecurringExpenses_claimsChunksPastTheLastClaimedId_eachInItsOwnTransaction() {
+        LocalDate today = LocalDate.now();
+        when(recurringRepo.claimDue(eq(today), anyLong(), eq(2)))
+                .thenReturn(List.of(dueTemplate(3L, "one"), dueTemplate(7L, "two")), List.of(dueTemplate(9L, "three")),
+                        List.of());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        service.processDueRecurringExpenses();
+
+        InOrder claims = inOrder(recurringRepo);
+        claims.verify(recurringRepo).claimDue(today, 0L, 2);
+        claims.verify(recurringRepo).claimDue(today, 7L, 2);
+        claims.verify(recurringRepo).claimDue(today, 9L, 2);
+        // the sweep after the parallel pass finds nothing left
+        claims.verify(recurringRepo).claimDue(today, 0L, 2);
+        verify(expenseRepo, times(3)).save(any(Expense.class));
+        verify(transactionManager, times(4)).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        verify(jobLeaseService, times(4)).checkHeld(lease);
+        // renewed by the heartbeat only, which a run this short never reaches
+        verify(jobLeaseService, never()).renew(any(), any());
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.SUCCEEDED, 3, 0, 3);
+        verify(jobLeaseService).release(lease);
+    }
+
+    @Test
+    void processDueRecurringExpenses_failingTemplate_rollsBackItsChunkAndOnlyItIsSkipped() {
+        LocalDate today = LocalDate.now();
+        when(recurringRepo.claimDue(eq(today), anyLong(), anyInt()))
+                .thenReturn(List.of(dueTemplate(1L, "good"), dueTemplate(2L, "bad")), List.of());
+        when(recurringRepo.claimDueById(1L, today)).thenReturn(Optional.of(dueTemplate(1L, "good")));
+        when(recurringRepo.claimDueById(2L, today)).thenReturn(Optional.of(dueTemplate(2L, "bad")));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(expenseRepo.save(any(Expense.class))).thenAnswer(inv -> {
+            Expense expense = inv.getArgument(0);
+            if ("bad".equals(expense.getCategory())) {
+                throw new RuntimeException("simulated db failure");
+            }
+            return expense;
+        });
+
+        service.processDueRecurringExpenses();
+
+        // the chunk and the failing template's own retry are rolled back, the other template's retry commits
+        verify(transactionManager, times(2)).rollback(any());
+        verify(recurringRepo).claimDueById(1L, today);
+        verify(recurringRepo).claimDueById(2L, today);
+        verify(recurringRepo, times(2)).save(recurringCaptor.capture());
+        assertThat(recurringCaptor.getAllValues()).allMatch(t -> t.getId().equals(1L));
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.SUCCEEDED, 1, 1, 1);
+    }
+
+    @Test
+    void processDueRecurringExpenses_sweepPicksUpTemplatesLockedDuringTheFirstPass() {
+        LocalDate today = LocalDate.now();
+        when(recurringRepo.claimDue(today, 0L, 2))
+                .thenReturn(List.of(dueTemplate(3L, "one"), dueTemplate(7L, "two")),
+                        List.of(dueTemplate(3L, "one"), dueTemplate(5L, "skipped")));
+        when(recurringRepo.claimDue(today, 5L, 2)).thenReturn(List.of(dueTemplate(7L, "two")));
+        when(recurringRepo.claimDue(today, 7L, 2)).thenReturn(List.of());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        service.processDueRecurringExpenses();
+
+        // templates 3 and 7 are still due in the sweep but were already processed by this run
+        verify(expenseRepo, times(3)).save(any(Expense.class));
+        verify(expenseRepo).save(argThat(e -> "skipped".equals(e.getCategory())));
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.SUCCEEDED, 3, 0, 3);
+    }
+
+    @Test
+    void processRecurringTemplate_createsOccurrencesUpToTheGivenDateOnly() {
+        RecurringExpense daily = dueTemplate(1L, "daily");
+        daily.setRecurrenceType(RecurrenceType.DAILY);
+        daily.setNextOccurrenceDate(LocalDate.of(2020, 1, 1));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        Assertions.assertEquals(3, service.processRecurringTemplate(daily, LocalDate.of(2020, 1, 3)));
+
+        Assertions.assertEquals(LocalDate.of(2020, 1, 4), daily.getNextOccurrenceDate());
+    }
+
+    @Test
+    void processDueRecurringExpenses_interrupted_recordsTheRunAsFailed() {
+        Thread runner = Thread.currentThread();
+        when(recurringRepo.claimDue(any(), anyLong(), anyInt())).thenAnswer(inv -> {
+            // interrupts the run while its worker is mid-chunk; the worker is cancelled in turn
+            runner.interrupt();
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        try {
+            service.processDueRecurringExpenses();
+        } finally {
+            Assertions.assertTrue(Thread.interrupted());
+        }
+
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.FAILED, 0, 0, 0);
+        verify(jobLeaseService).release(lease);
+    }
+
+    @Test
+    void processDueRecurringExpenses_leaseHeldElsewhere_doesNothing() {
+        when(jobLeaseService.tryAcquire(eq("recurring-expenses"), any(Duration.class))).thenReturn(Optional.empty());
+
+        service.processDueRecurringExpenses();
+
+        verifyNoInteractions(recurringRepo, expenseRepo, transactionManager);
+        verify(jobLeaseService, never()).startRun(any());
+    }
+
+    @Test
+    void processDueRecurringExpenses_leaseTakenOver_stopsWithoutRetryingTheChunk() {
+        LocalDate today = LocalDate.now();
+        when(recurringRepo.claimDue(eq(today), anyLong(), anyInt())).thenReturn(List.of(dueTemplate(1L, "one")));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        doNothing().doThrow(new LeaseLostException("taken over")).when(jobLeaseService).checkHeld(lease);
+
+        service.processDueRecurringExpenses();
+
+        // the first chunk committed, the second stopped before claiming anything
+        verify(recurringRepo, times(1)).claimDue(eq(today), anyLong(), anyInt());
+        verify(recurringRepo, never()).claimDueById(any(), any());
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.LEASE_LOST, 1, 0, 1);
+    }
+
+    @Test
+    void processDueRecurringExpenses_heartbeatFindsLeaseTakenOver_stopsBeforeTheNextChunk() {
+        AtomicReference<Runnable> beat = new AtomicReference<>();
+        doAnswer(inv -> {
+            beat.set(inv.getArgument(0));
+            return heartbeat;
+        }).when(heartbeatScheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        when(jobLeaseService.renew(eq(lease), any(Duration.class))).thenReturn(false);
+        LocalDate today = LocalDate.now();
+        when(recurringRepo.claimDue(eq(today), anyLong(), anyInt())).thenAnswer(inv -> {
+            // a heartbeat while the first chunk is being processed
+            beat.get().run();
+            return List.of(dueTemplate(1L, "one"));
+        });
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        service.processDueRecurringExpenses();
+
+        verify(heartbeatScheduler).scheduleAtFixedRate(any(Runnable.class), eq(200_000L), eq(200_000L),
+                eq(TimeUnit.MILLISECONDS));
+        verify(recurringRepo, times(1)).claimDue(eq(today), anyLong(), anyInt());
+        verify(jobLeaseService).renew(lease, Duration.ofMinutes(10));
+        verify(jobLeaseService).finishRun(42L, JobRunStatus.LEASE_LOST, 1, 0, 1);
+        verify(heartbeat).cancel(false);
+    }
+
+    @Test
+    void processDueRecurringExpenses_heartbeatAfterTheRun_doesNotRenew() {
+        service.processDueRecurringExpenses();
+
+        ArgumentCaptor<Runnable> beat = ArgumentCaptor.forClass(Runnable.class);
+        verify(heartbeatScheduler).scheduleAtFixedRate(beat.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        beat.getValue().run();
+
+        verify(jobLeaseService, never()).renew(any(), any());
+        verify(jobLeaseService).release(lease);
+    }
+
+    private RecurringExpense dueTemplate(Long id, String category) {
+        RecurringExpense template = new RecurringExpense();
+        template.setId(id);
+        template.setUserId(testUser.getId());
+        template.setNextOccurrenceDate(LocalDate.now());
+        template.setRecurrenceType(RecurrenceType.MONTHLY);
+        template.setInterval(1);
+        template.setCategory(category);
+        template.setAmount(BigDecimal.TEN);
+        template.setActive(true);
+        return template;
+    }
 }
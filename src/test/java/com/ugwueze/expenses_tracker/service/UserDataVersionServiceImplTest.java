@@ -0,0 +1,96 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.service.impl.UserDataVersionServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserDataVersionServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EntityManagerFactory entityManagerFactory;
+    private UserDataVersionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        service = new UserDataVersionServiceImpl(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(service);
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    }
+
+    @Test
+    void touch_outsideTransaction_bumpsImmediately() {
+        service.touch(4L);
+
+        verify(jdbcTemplate).update(startsWith("UPDATE users SET data_updated_at"), eq(4L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void touch_insideTransaction_bumpsEachUserOnceInIdOrderBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        EntityManager entityManager = mock(EntityManager.class);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+
+        service.touch(9L);
+        service.touch(2L);
+        service.touch(9L);
+        verifyNoInteractions(jdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCommit(false);
+
+        verify(entityManager).flush();
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users SET data_updated_at"), captor.capture());
+        assertEquals(List.of(2L, 9L), captor.getValue().stream().map(args -> args[0]).toList());
+
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertFalse(TransactionSynchronizationManager.hasResource(service));
+    }
+
+    @Test
+    void bindToCurrentTransaction_withoutTouches_writesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.bindToCurrentTransaction();
+        TransactionSynchronizationManager.getSynchronizations().get(0).beforeCommit(false);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getDataVersion_emptyForUnknownUser() {
+        LocalDateTime version = LocalDateTime.of(2025, 3, 4, 10, 15, 30, 123_456_000);
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDateTime.class), eq(1L))).thenReturn(List.of(version));
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDateTime.class), eq(2L))).thenReturn(List.of());
+
+        assertEquals(Optional.of(version), service.getDataVersion(1L));
+        assertEquals(Optional.empty(), service.getDataVersion(2L));
+    }
+}
@@ -0,0 +1,102 @@
+package com.ugwueze.expenses_tracker.service;
+
+import com.ugwueze.expenses_tracker.config.CacheConfig;
+import com.ugwueze.expenses_tracker.repository.UserRepository;
+import com.ugwueze.expenses_tracker.service.impl.UserServiceImpl;
+import com.ugwueze.expenses_tracker.util.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.AopTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(UserExistenceCacheTest.Config.class)
+class UserExistenceCacheTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Config {
+        // lets @Value resolve the Duration TTL the way Spring Boot does
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        UserRepository userRepository() {
+            return mock(UserRepository.class);
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository) {
+            return new UserServiceImpl(userRepository, mock(UserMapper.class));
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private UserRepository repositoryMock;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_IDS).clear();
+        repositoryMock = AopTestUtils.getUltimateTargetObject(userRepository);
+        reset(repositoryMock);
+    }
+
+    @Test
+    void existsById_cachesHitsOnly() {
+        when(repositoryMock.existsById(1L)).thenReturn(true);
+        when(repositoryMock.existsById(2L)).thenReturn(false, true);
+
+        assertTrue(userRepository.existsById(1L));
+        assertTrue(userRepository.existsById(1L));
+        assertFalse(userRepository.existsById(2L));
+        assertTrue(userRepository.existsById(2L));
+
+        verify(repositoryMock, times(1)).existsById(1L);
+        verify(repositoryMock, times(2)).existsById(2L);
+    }
+
+    @Test
+    void existsByIdUncached_alwaysQueries() {
+        when(repositoryMock.existsById(4L)).thenReturn(true);
+        when(repositoryMock.existsByIdUncached(4L)).thenReturn(true, false);
+        assertTrue(userRepository.existsById(4L));
+
+        // deleted through another instance, whose eviction never reaches this cache
+        assertTrue(userRepository.existsByIdUncached(4L));
+        assertFalse(userRepository.existsByIdUncached(4L));
+        assertTrue(userRepository.existsById(4L));
+        verify(repositoryMock, times(2)).existsByIdUncached(4L);
+    }
+
+    @Test
+    void deleteUser_evictsCachedId() {
+        when(repositoryMock.existsById(3L)).thenReturn(true);
+        when(repositoryMock.existsByIdUncached(3L)).thenReturn(true);
+        assertTrue(userRepository.existsById(3L));
+
+        userService.deleteUser(3L);
+        when(repositoryMock.existsById(3L)).thenReturn(false);
+
+        assertFalse(userRepository.existsById(3L));
+        verify(repositoryMock).deleteById(3L);
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -193,4 +194,30 @@ class ExpenseServiceIntegrationTest extends AbstractIntegrationTest {
         assertEquals(new BigDecimal("100.00"), categoryWise.get("Test"));
         assertEquals(new BigDecimal("75.00"), categoryWise.get("Food"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getMonthlyExpensesSummary_ShouldBucketByMonthWithinYear() {
+        int year = LocalDate.now().getYear() - 1;
+        saveExpense(new BigDecimal("10.00"), LocalDate.of(year, 3, 5));
+        saveExpense(new BigDecimal("40.00"), LocalDate.of(year, 2, 1));
+        saveExpense(new BigDecimal("2.50"), LocalDate.of(year, 2, 28));
+        saveExpense(new BigDecimal("1.00"), LocalDate.of(year - 1, 12, 31));
+
+        Map<Integer, BigDecimal> monthly = expenseService.getMonthlyExpensesSummary(testUser.getId(), year);
+
+        assertEquals(List.of(2, 3), List.copyOf(monthly.keySet()));
+        assertEquals(new BigDecimal("42.50"), monthly.get(2));
+        assertEquals(new BigDecimal("10.00"), monthly.get(3));
+    }
+
+    private void saveExpense(BigDecimal amount, LocalDate date) {
+        expenseRepository.save(Expense.builder()
+                .description("Monthly")
+                .amount(amount)
+                .date(date)
+                .category("Test")
+                .paymentMethod(PaymentMethod.CASH)
+                .user(testUser)
+                .build());
+    }
+}
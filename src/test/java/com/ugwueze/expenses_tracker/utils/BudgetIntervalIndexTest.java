@@ -0,0 +1,89 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.dto.BudgetDto;
+import com.ugwueze.expenses_tracker.util.BudgetIntervalIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetIntervalIndexTest {
+
+    @Test
+    void findActive_matchesCategoryIgnoringCaseAndIncludesBothEnds() {
+        BudgetIntervalIndex index = BudgetIntervalIndex.of(List.of(
+                budget(1L, "Food", "2025-01-01", "2025-01-31"),
+                budget(2L, "food", "2025-02-01", "2025-02-28"),
+                budget(3L, "Rent", "2025-01-01", "2025-12-31")));
+
+        assertEquals(1L, index.findActive("FOOD", LocalDate.of(2025, 1, 1)).orElseThrow().getId());
+        assertEquals(1L, index.findActive("Food", LocalDate.of(2025, 1, 31)).orElseThrow().getId());
+        assertEquals(2L, index.findActive("Food", LocalDate.of(2025, 2, 1)).orElseThrow().getId());
+        assertEquals(Optional.empty(), index.findActive("Food", LocalDate.of(2025, 3, 1)));
+        assertEquals(Optional.empty(), index.findActive("Food", LocalDate.of(2024, 12, 31)));
+        assertEquals(Optional.empty(), index.findActive("Travel", LocalDate.of(2025, 1, 15)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void findActive_overlappingRanges_returnsEarliestStartThatCovers() {
+        BudgetIntervalIndex index = BudgetIntervalIndex.of(List.of(
+                budget(1L, "Food", "2025-01-01", "2025-12-31"),
+                budget(2L, "Food", "2025-03-01", "2025-03-31"),
+                budget(3L, "Food", "2024-06-01", "2024-12-31"),
+                budget(4L, "Food", "2025-06-01", "2026-06-30")));
+
+        assertEquals(1L, index.findActive("Food", LocalDate.of(2025, 3, 15)).orElseThrow().getId());
+        assertEquals(3L, index.findActive("Food", LocalDate.of(2024, 7, 1)).orElseThrow().getId());
+        assertEquals(4L, index.findActive("Food", LocalDate.of(2026, 1, 1)).orElseThrow().getId());
+    }
+
+    @Test
+    void findActive_agreesWithLinearScan() {
+        Random random = new Random(42);
+        List<BudgetDto> budgets = new ArrayList<>();
+        LocalDate base = LocalDate.of(2020, 1, 1);
+        for (long id = 1; id <= 300; id++) {
+            LocalDate start = base.plusDays(random.nextInt(1500));
+            budgets.add(budget(id, "Cat" + random.nextInt(3), start.toString(), start.plusDays(random.nextInt(120)).toString()));
+        }
+        BudgetIntervalIndex index = BudgetIntervalIndex.of(budgets);
+
+        for (int i = 0; i < 2000; i++) {
+            String category = "cat" + random.nextInt(4);
+            LocalDate date = base.plusDays(random.nextInt(1700) - 50);
+            boolean expected = budgets.stream().anyMatch(b -> b.getCategory().equalsIgnoreCase(category)
+                    && !b.getStartDate().isAfter(date) && !b.getEndDate().isBefore(date));
+            Optional<BudgetDto> found = index.findActive(category, date);
+
+            assertEquals(expected, found.isPresent(), category + " on " + date);
+            found.ifPresent(b -> assertTrue(!b.getStartDate().isAfter(date) && !b.getEndDate().isBefore(date)));
+        }
+    }
+
+    @Test
+    void findActive_returnsCopies() {
+        BudgetIntervalIndex index = BudgetIntervalIndex.of(List.of(budget(1L, "Food", "2025-01-01", "2025-01-31")));
+
+        index.findActive("Food", LocalDate.of(2025, 1, 10)).orElseThrow().setAmount(BigDecimal.ONE);
+
+        assertEquals(new BigDecimal("100.00"), index.findActive("Food", LocalDate.of(2025, 1, 10)).orElseThrow().getAmount());
+    }
+
+    private static BudgetDto budget(Long id, String category, String start, String end) {
+        return BudgetDto.builder()
+                .id(id)
+                .userId(1L)
+                .category(category)
+                .amount(new BigDecimal("100.00"))
+                .startDate(LocalDate.parse(start))
+                .endDate(LocalDate.parse(end))
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.enums.ExportFormat;
+import com.ugwueze.expenses_tracker.util.CompressionUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionUtilsTest {
+
+    @Test
+    void negotiate_noHeader_returnsPlainCsv() {
+        assertEquals(ExportFormat.CSV, CompressionUtils.negotiate(null));
+        assertEquals(ExportFormat.CSV, CompressionUtils.negotiate(""));
+    }
+
+    @Test
+    void negotiate_gzipOnly_returnsGzip() {
+        assertEquals(ExportFormat.CSV_GZIP, CompressionUtils.negotiate("gzip, deflate, br"));
+    }
+
+    @Test
+    void negotiate_zstdPreferredOnTie() {
+        assertEquals(ExportFormat.CSV_ZSTD, CompressionUtils.negotiate("gzip, zstd"));
+    }
+
+    @Test
+    void negotiate_respectsQualityValues() {
+        assertEquals(ExportFormat.CSV_GZIP, CompressionUtils.negotiate("zstd;q=0.5, gzip;q=0.9"));
+        assertEquals(ExportFormat.CSV, CompressionUtils.negotiate("gzip;q=0, zstd;q=0"));
+    }
+
+    @Test
+    void negotiate_wildcardAllowsGzip() {
+        assertEquals(ExportFormat.CSV_GZIP, CompressionUtils.negotiate("*"));
+        assertEquals(ExportFormat.CSV, CompressionUtils.negotiate("*;q=0.5, gzip;q=0"));
+    }
+
+    @Test
+    void fromParameter_parsesKnownFormats_andRejectsUnknown() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter(null));
+        assertEquals(ExportFormat.CSV_GZIP, ExportFormat.fromParameter("CSV.GZ"));
+        assertEquals(ExportFormat.CSV_ZSTD, ExportFormat.fromParameter("csv.zst"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParameter("xlsx"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.util.CsvReader;
+import com.ugwueze.expenses_tracker.util.CsvWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void readRecord_roundTripsCsvWriterOutput() throws IOException {
+        String[] fields = {"plain", "a,b", "say \"hi\"", "", "line1\nline2", "crlf\r\nvalue"};
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        writer.row(fields);
+        writer.row("second", "row");
+        writer.flush();
+
+        CsvReader reader = new CsvReader(new StringReader(out.toString()));
+        assertEquals(List.of(fields), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("second", "row"), reader.readRecord());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecord_handlesCrlfBlankLinesAndMissingTrailingNewline() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\n\r\nc,\r\n,d"));
+
+        assertEquals(List.of("a", "b"), reader.readRecord());
+        assertEquals(List.of("c", ""), reader.readRecord());
+        assertEquals(3, reader.getRecordLine());
+        assertEquals(List.of("", "d"), reader.readRecord());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecord_readsAcrossBufferBoundaries() throws IOException {
+        String longValue = "x\"y,".repeat(5000);
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        writer.row("start", longValue, "end");
+        writer.flush();
+
+        CsvReader reader = new CsvReader(new StringReader(out.toString()));
+        assertEquals(List.of("start", longValue, "end"), reader.readRecord());
+    }
+
+    @Test
+    void readRecord_unterminatedQuote_throwsMalformedCsv() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("ok,1\n\"broken,2\n"));
+
+        assertEquals(List.of("ok", "1"), reader.readRecord());
+        CsvReader.MalformedCsvException ex = assertThrows(CsvReader.MalformedCsvException.class, reader::readRecord);
+        assertTrue(ex.getMessage().contains("line 2"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.util.CsvUtils;
+import com.ugwueze.expenses_tracker.util.CsvWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvWriterTest {
+
+    private static String write(CsvWriterAction action) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out, 64);
+        action.apply(csv);
+        csv.flush();
+        return out.toString();
+    }
+
+    @Test
+    void row_matchesCsvUtilsEscaping() throws IOException {
+        String[] fields = {"one", "two,three", "four\"five", null, "line1\nline2", "cr\rhere", "", "\""};
+        String result = write(csv -> csv.row(fields));
+        assertEquals(CsvUtils.joinCsvRow(fields) + "\n", result);
+    }
+
+    @Test
+    void field_longValueLargerThanBufferIsEscaped() throws IOException {
+        String value = "x,\"y\"".repeat(100);
+        String result = write(csv -> csv.field("a").field(value).endRow());
+        assertEquals(CsvUtils.joinCsvRow("a", value) + "\n", result);
+    }
+
+    @Test
+    void field_plainValueLargerThanBufferIsWrittenWhole() throws IOException {
+        BigDecimal huge = new BigDecimal("1E+100");
+        String result = write(csv -> csv.field("a").field(huge).field(2L).endRow());
+        assertEquals("a," + huge.toPlainString() + ",2\n", result);
+    }
+
+    @Test
+    void field_manyRowsFlushAcrossBufferBoundary() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        String result = write(csv -> {
+            for (int i = 0; i < 500; i++) {
+                csv.field((long) i).field("row \"" + i + "\"").endRow();
+            }
+        });
+        for (int i = 0; i < 500; i++) {
+            expected.append(CsvUtils.joinCsvRow(String.valueOf(i), "row \"" + i + "\"")).append('\n');
+        }
+        assertEquals(expected.toString(), result);
+    }
+
+    @Test
+    void field_numbersMatchToString() throws IOException {
+        long[] values = {0, 7, -7, 10, 999_999, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long v : values) {
+            assertEquals(Long.toString(v) + "\n", write(csv -> csv.field(v).endRow()));
+        }
+        assertEquals(",1\n", write(csv -> csv.field((Long) null).field(1L).endRow()));
+    }
+
+    @Test
+    void field_bigDecimalMatchesStripTrailingZerosPlainString() throws IOException {
+        String[] values = {"0", "0.00", "12.50", "-12.50", "100.00", "0.05", "-0.5", "1234567890.12",
+                "1E+3", "123456789012345678901234.5600", "0.000000000000000000001"};
+        for (String v : values) {
+            BigDecimal amount = new BigDecimal(v);
+            assertEquals(amount.stripTrailingZeros().toPlainString() + "\n",
+                    write(csv -> csv.field(amount).endRow()), v);
+        }
+    }
+
+    @Test
+    void field_datesMatchIsoToString() throws IOException {
+        LocalDate[] dates = {LocalDate.of(2024, 1, 5), LocalDate.of(999, 12, 31), LocalDate.of(12345, 6, 7)};
+        for (LocalDate d : dates) {
+            assertEquals(d + "\n", write(csv -> csv.field(d).endRow()));
+        }
+        LocalDateTime[] times = {
+                LocalDateTime.of(2024, 3, 4, 5, 6),
+                LocalDateTime.of(2024, 3, 4, 5, 6, 7),
+                LocalDateTime.of(2024, 3, 4, 5, 6, 0, 120_000_000),
+                LocalDateTime.of(2024, 3, 4, 5, 6, 7, 123_456_000),
+                LocalDateTime.of(2024, 3, 4, 5, 6, 7, 1)
+        };
+        for (LocalDateTime t : times) {
+            assertEquals(t + "\n", write(csv -> csv.field(t).endRow()));
+        }
+    }
+
+    @Test
+    void field_nullsAndEnumsWriteLikeCsvUtils() throws IOException {
+        String result = write(csv -> csv
+                .field((LocalDate) null)
+                .field((LocalDateTime) null)
+                .field((BigDecimal) null)
+                .field((PaymentMethod) null)
+                .field(PaymentMethod.CASH)
+                .endRow());
+        assertEquals(",,,,CASH\n", result);
+    }
+
+    @Test
+    void constructor_rejectsTinyBuffer() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvWriter(new StringWriter(), 8));
+    }
+
+    @FunctionalInterface
+    private interface CsvWriterAction {
+        void apply(CsvWriter csv) throws IOException;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.util.ExpenseArrowWriter;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseArrowWriterTest {
+
+    private static Expense expense(long id, String amount, PaymentMethod method, String notes) {
+        Expense e = new Expense();
+        e.setId(id);
+        e.setDate(LocalDate.of(2024, 2, (int) id));
+        e.setDescription("Lunch, \"team\"");
+        e.setCategory("Food");
+        e.setPaymentMethod(method);
+        e.setAmount(new BigDecimal(amount));
+        e.setNotes(notes);
+        e.setCreatedAt(LocalDateTime.of(2024, 2, 1, 12, 30, 15, 123_456_000));
+        return e;
+    }
+
+    @Test
+    void write_preservesDecimalDateAndEnumTypes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExpenseArrowWriter writer = new ExpenseArrowWriter(out, 2)) {
+            writer.start();
+            writer.write(expense(1, "12.5", PaymentMethod.CASH, "n1"));
+            writer.write(expense(2, "1234567890.99", PaymentMethod.DIGITAL_WALLET, null));
+            writer.write(expense(3, "0.01", null, "n3"));
+            writer.finish();
+        }
+        // the caller's stream stays open for the caller to close
+        out.write(0);
+
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertEquals(new ArrowType.Decimal(12, 2, 128), root.getSchema().findField("amount").getType());
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(2, root.getRowCount());
+            assertEquals(1L, ((BigIntVector) root.getVector("id")).get(0));
+            assertEquals(LocalDate.of(2024, 2, 1).toEpochDay(), ((DateDayVector) root.getVector("date")).get(0));
+            assertEquals(new BigDecimal("12.50"), ((DecimalVector) root.getVector("amount")).getObject(0));
+            assertEquals(new BigDecimal("1234567890.99"), ((DecimalVector) root.getVector("amount")).getObject(1));
+            assertEquals("Lunch, \"team\"", ((VarCharVector) root.getVector("description")).getObject(0).toString());
+            assertTrue(root.getVector("notes").isNull(1));
+            assertTrue(root.getVector("updated_at").isNull(0));
+            assertEquals(LocalDateTime.of(2024, 2, 1, 12, 30, 15, 123_456_000),
+                    ((TimeStampMicroVector) root.getVector("created_at")).getObject(0));
+
+            FieldVector encoded = root.getVector("payment_method");
+            Dictionary dictionary = reader.getDictionaryVectors().get(encoded.getField().getDictionary().getId());
+            try (VarCharVector decoded = (VarCharVector) DictionaryEncoder.decode(encoded, dictionary)) {
+                assertEquals("CASH", decoded.getObject(0).toString());
+                assertEquals("DIGITAL_WALLET", decoded.getObject(1).toString());
+            }
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(1, root.getRowCount());
+            assertTrue(root.getVector("payment_method").isNull(0));
+            assertEquals(new BigDecimal("0.01"), ((DecimalVector) root.getVector("amount")).getObject(0));
+            assertEquals("n3", ((VarCharVector) root.getVector("notes")).getObject(0).toString());
+
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void finish_withNoRowsWritesSchemaOnlyStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExpenseArrowWriter writer = new ExpenseArrowWriter(out, 10)) {
+            writer.start();
+            writer.finish();
+        }
+
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertEquals(ExpenseArrowWriter.SCHEMA.getFields().size(), reader.getVectorSchemaRoot().getSchema().getFields().size());
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpenseArrowWriter(new ByteArrayOutputStream(), 0));
+    }
+
+    @Test
+    void close_withoutFinish_doesNotWriteEndOfStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExpenseArrowWriter writer = new ExpenseArrowWriter(out, 10)) {
+            writer.start();
+            writer.write(expense(1, "1.00", PaymentMethod.CASH, null));
+        }
+        int aborted = out.size();
+
+        ByteArrayOutputStream complete = new ByteArrayOutputStream();
+        try (ExpenseArrowWriter writer = new ExpenseArrowWriter(complete, 10)) {
+            writer.start();
+            writer.finish();
+        }
+
+        // an empty finished stream is the schema, dictionary and the end-of-stream marker
+        assertTrue(aborted < complete.size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.util.ExpenseCursor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseCursorTest {
+
+    @Test
+    void encode_decode_roundTrips() {
+        String token = new ExpenseCursor(LocalDate.of(2024, 2, 29), 123456789L, true).encode();
+
+        ExpenseCursor cursor = ExpenseCursor.decode(token);
+
+        assertEquals(LocalDate.of(2024, 2, 29), cursor.getDate());
+        assertEquals(123456789L, cursor.getId());
+        assertTrue(cursor.isDescending());
+        assertFalse(ExpenseCursor.decode(new ExpenseCursor(LocalDate.of(2024, 1, 1), 1L, false).encode()).isDescending());
+    }
+
+    @Test
+    void encode_isUrlSafe() {
+        String token = new ExpenseCursor(LocalDate.of(2024, 12, 31), Long.MAX_VALUE, true).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_invalidToken_throwsIllegalArgument() {
+        String wrongShape = Base64.getUrlEncoder().encodeToString("x|2024-01-01|1".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString("d|2024-13-01|1".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(wrongShape));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(badDate));
+    }
+}
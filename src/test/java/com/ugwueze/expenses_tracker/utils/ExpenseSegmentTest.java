@@ -0,0 +1,111 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.entity.Expense;
+import com.ugwueze.expenses_tracker.enums.PaymentMethod;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentReader;
+import com.ugwueze.expenses_tracker.util.ExpenseSegmentWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    private static Expense expense(long id, LocalDate date) {
+        return Expense.builder().id(id).date(date).description("d" + id).category("Food")
+                .amount(new BigDecimal("1.50")).build();
+    }
+
+    private static List<Long> ids(ExpenseSegmentReader reader, long userId, LocalDate from, LocalDate to) {
+        List<Long> ids = new ArrayList<>();
+        reader.read(userId, from, to).forEachRemaining(e -> ids.add(e.getId()));
+        return ids;
+    }
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        Path file = dir.resolve("a.seg");
+        Expense full = Expense.builder().id(7L).date(LocalDate.of(2015, 3, 4)).description("Lunch, \"team\"")
+                .category("Food").paymentMethod(PaymentMethod.CREDIT_CARD).amount(new BigDecimal("1234567890.25"))
+                .notes("multi\nline").createdAt(LocalDateTime.of(2015, 3, 4, 12, 0, 1, 123456000))
+                .updatedAt(LocalDateTime.of(2015, 3, 5, 8, 30)).build();
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(file, 16)) {
+            writer.write(3L, full);
+            writer.write(3L, expense(8L, LocalDate.of(2015, 3, 4)));
+            writer.finish();
+        }
+
+        ExpenseSegmentReader reader = ExpenseSegmentReader.open(file);
+        List<Expense> rows = new ArrayList<>();
+        reader.read(3L, null, null).forEachRemaining(rows::add);
+
+        assertEquals(2, reader.getRowCount());
+        Expense first = rows.get(0);
+        assertEquals(7L, first.getId());
+        assertEquals(3L, first.getUser().getId());
+        assertEquals(LocalDate.of(2015, 3, 4), first.getDate());
+        assertEquals("Lunch, \"team\"", first.getDescription());
+        assertEquals(PaymentMethod.CREDIT_CARD, first.getPaymentMethod());
+        assertEquals(new BigDecimal("1234567890.25"), first.getAmount());
+        assertEquals("multi\nline", first.getNotes());
+        assertEquals(LocalDateTime.of(2015, 3, 4, 12, 0, 1, 123456000), first.getCreatedAt());
+        assertEquals(LocalDateTime.of(2015, 3, 5, 8, 30), first.getUpdatedAt());
+        assertNull(rows.get(1).getPaymentMethod());
+        assertNull(rows.get(1).getNotes());
+        assertNull(rows.get(1).getCreatedAt());
+    }
+
+    @Test
+    void readFiltersByUserAndDateAcrossBlocks() throws IOException {
+        Path file = dir.resolve("b.seg");
+        LocalDate start = LocalDate.of(2016, 1, 1);
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(file, 3)) {
+            for (long i = 0; i < 10; i++) {
+                writer.write(1L, expense(100 + i, start.plusDays(i)));
+            }
+            writer.write(2L, expense(5L, start));
+            writer.finish();
+        }
+
+        ExpenseSegmentReader reader = ExpenseSegmentReader.open(file);
+
+        assertEquals(List.of(103L, 104L, 105L, 106L), ids(reader, 1L, start.plusDays(3), start.plusDays(6)));
+        assertEquals(List.of(108L, 109L), ids(reader, 1L, start.plusDays(8), null));
+        assertEquals(List.of(5L), ids(reader, 2L, null, null));
+        assertEquals(List.of(), ids(reader, 1L, start.plusYears(1), null));
+        assertEquals(List.of(), ids(reader, 9L, null, null));
+    }
+
+    @Test
+    void writeRejectsRowsOutOfOrder() throws IOException {
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(dir.resolve("c.seg"), 8)) {
+            writer.write(2L, expense(10L, LocalDate.of(2016, 5, 1)));
+            assertThrows(IllegalStateException.class, () -> writer.write(2L, expense(11L, LocalDate.of(2016, 4, 30))));
+            assertThrows(IllegalStateException.class, () -> writer.write(1L, expense(12L, LocalDate.of(2016, 6, 1))));
+        }
+    }
+
+    @Test
+    void openRejectsUnfinishedSegment() throws IOException {
+        Path file = dir.resolve("d.seg");
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(file, 8)) {
+            writer.write(1L, expense(1L, LocalDate.of(2016, 1, 1)));
+        }
+        Files.write(file, new byte[32], StandardOpenOption.APPEND);
+
+        assertThrows(IOException.class, () -> ExpenseSegmentReader.open(file));
+    }
+}
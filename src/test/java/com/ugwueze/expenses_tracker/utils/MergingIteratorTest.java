@@ -0,0 +1,38 @@
+package com.ugwueze.expenses_tracker.utils;
+
+import com.ugwueze.expenses_tracker.util.MergingIterator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergingIteratorTest {
+
+    private static List<Integer> drain(Iterator<Integer> iterator) {
+        List<Integer> out = new ArrayList<>();
+        iterator.forEachRemaining(out::add);
+        return out;
+    }
+
+    @Test
+    void mergesSortedSourcesAndDropsDuplicates() {
+        MergingIterator<Integer> merged = new MergingIterator<>(List.of(
+                List.of(1, 4, 7).iterator(),
+                List.of(2, 4, 8, 9).iterator(),
+                Collections.<Integer>emptyIterator(),
+                List.of(3).iterator()), Comparator.naturalOrder());
+
+        assertEquals(List.of(1, 2, 3, 4, 7, 8, 9), drain(merged));
+        assertFalse(merged.hasNext());
+    }
+
+    @Test
+    void handlesNoSources() {
+        assertEquals(List.of(), drain(new MergingIterator<Integer>(List.of(), Comparator.naturalOrder())));
+    }
+}